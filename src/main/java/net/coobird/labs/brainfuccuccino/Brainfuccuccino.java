@@ -26,18 +26,29 @@
 
 package net.coobird.labs.brainfuccuccino;
 
+import net.coobird.labs.brainfuccuccino.machine.CellEncoding;
 import net.coobird.labs.brainfuccuccino.machine.impl.ClassicBrainfuckMachine;
-import net.coobird.labs.brainfuccuccino.machine.impl.SignedByteBrainfuckMachine;
+import net.coobird.labs.brainfuccuccino.machine.impl.CircularBrainfuckMachine;
 import net.coobird.labs.brainfuccuccino.machine.BrainfuckMachine;
+import net.coobird.labs.brainfuccuccino.machine.impl.WrappingBrainfuckMachine;
+import net.coobird.labs.brainfuccuccino.machine.tape.ByteTape;
+import net.coobird.labs.brainfuccuccino.machine.tape.IntTape;
+import net.coobird.labs.brainfuccuccino.machine.tape.PagedByteTape;
+import net.coobird.labs.brainfuccuccino.machine.tape.ShortTape;
 import net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachine;
 import net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachineCompiler;
-import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+import net.coobird.labs.brainfuccuccino.vm.WideBrainfuckVirtualMachine;
+import net.coobird.labs.brainfuccuccino.vm.closure.ClosureBrainfuckMachine;
+import net.coobird.labs.brainfuccuccino.vm.compiler.OptimizationPipeline;
+import net.coobird.labs.brainfuccuccino.vm.jit.JitBrainfuckMachine;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
+import net.coobird.labs.brainfuccuccino.vm.model.Superinstruction;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
+import java.util.EnumSet;
 
 /**
  * Brainfuccuccino is a Java scripting engine which allows
@@ -73,6 +84,10 @@ import java.util.List;
  * implementation. (See the {@link Flavor} enum for more information.)
  * This is completely optional.
  * <p>
+ * For flavors with memory cells wider than a byte, the {@link #encoding(CellEncoding)}
+ * method determines how values are read and written. By default, each value
+ * is exchanged as a single byte.
+ * <p>
  * Attach your inputs and outputs using the {@link #attach(InputStream)}
  * and {@link #attach(OutputStream)} methods. Both are optional, which default
  * to using {@link System#in} and {@link System#out}, respectively.
@@ -90,34 +105,87 @@ import java.util.List;
  * </pre></blockquote>
  */
 public final class Brainfuccuccino {
+    private static final int SIZE = 30000;
+    // Circular tapes must be a power of two in size.
+    private static final int CIRCULAR_SIZE = 1 << 15;
+    // Output is only computed ahead of time at higher levels for byte memory cells.
+    private static final int WIDE_OPTIMIZATION_LEVEL = 3;
     private final InputStream is;
     private final OutputStream os;
     private final Flavor flavor;
+    private final CellEncoding encoding;
 
-    private Brainfuccuccino(InputStream is, OutputStream os, Flavor flavor) {
+    private Brainfuccuccino(InputStream is, OutputStream os, Flavor flavor, CellEncoding encoding) {
         this.is = is;
         this.os = os;
         this.flavor = flavor;
+        this.encoding = encoding;
     }
 
     public static void brew(String s) throws IOException {
         customize().evaluate(s);
     }
 
+    private static Bytecode compile(byte[] program) {
+        return compile(program, OptimizationPipeline.MAX_OPTIMIZATION_LEVEL);
+    }
+
+    private static Bytecode compile(byte[] program, int optimizationLevel) {
+        String programStr = new String(program, StandardCharsets.UTF_8);
+        return new BrainfuckVirtualMachineCompiler(EnumSet.allOf(Superinstruction.class))
+                .compileToBytecode(programStr, optimizationLevel);
+    }
+
+    private static Bytecode compileChecked(byte[] program) {
+        String programStr = new String(program, StandardCharsets.UTF_8);
+        return new BrainfuckVirtualMachineCompiler(EnumSet.allOf(Superinstruction.class))
+                .compileToCheckedBytecode(programStr);
+    }
+
     public void evaluate(byte[] program) throws IOException {
         BrainfuckMachine machine;
         switch (this.flavor) {
             case REGULAR:
                 machine = new ClassicBrainfuckMachine();
                 break;
-            case CAFE_AU_LAIT:
-                machine = new SignedByteBrainfuckMachine();
+            case DOPPIO:
+                machine = new WrappingBrainfuckMachine<>(new ShortTape(SIZE), encoding);
+                break;
+            case QUAD:
+                machine = new WrappingBrainfuckMachine<>(new IntTape(SIZE), encoding);
+                break;
+            case LUNGO:
+                machine = new WrappingBrainfuckMachine<>(new PagedByteTape(), encoding);
                 break;
+            case CORTADO:
+                machine = new CircularBrainfuckMachine<>(new ByteTape(CIRCULAR_SIZE), encoding);
+                break;
+            case CAFE_AU_LAIT:
+                new BrainfuckVirtualMachine(compileChecked(program), this.is, this.os, true).execute();
+                return;
             case INSTANT:
-                String programStr = new String(program, StandardCharsets.UTF_8);
-                List<Instruction> instructions = new BrainfuckVirtualMachineCompiler()
-                        .compile(programStr, 1);
-                new BrainfuckVirtualMachine(instructions, this.is, this.os).execute();
+                new BrainfuckVirtualMachine(compile(program), this.is, this.os, true).execute();
+                return;
+            case ESPRESSO:
+                Bytecode bytecode = compile(program);
+                JitBrainfuckMachine jitMachine;
+                try {
+                    jitMachine = new JitBrainfuckMachine(bytecode, this.is, this.os);
+                } catch (UnsupportedOperationException e) {
+                    // Programs too large for a class file are run on the virtual machine instead.
+                    new BrainfuckVirtualMachine(bytecode, this.is, this.os, true).execute();
+                    return;
+                }
+                jitMachine.execute();
+                return;
+            case AMERICANO:
+                new ClosureBrainfuckMachine(compile(program), this.is, this.os).execute();
+                return;
+            case INSTANT_DOPPIO:
+                new WideBrainfuckVirtualMachine<>(compile(program, WIDE_OPTIMIZATION_LEVEL), new ShortTape(SIZE), encoding, this.is, this.os).execute();
+                return;
+            case INSTANT_QUAD:
+                new WideBrainfuckVirtualMachine<>(compile(program, WIDE_OPTIMIZATION_LEVEL), new IntTape(SIZE), encoding, this.is, this.os).execute();
                 return;
 
             default:
@@ -132,18 +200,22 @@ public final class Brainfuccuccino {
     }
 
     public static Brainfuccuccino customize() {
-        return new Brainfuccuccino(System.in, System.out, Flavor.REGULAR);
+        return new Brainfuccuccino(System.in, System.out, Flavor.REGULAR, CellEncoding.BYTES);
     }
 
     public Brainfuccuccino flavor(Flavor flavor) {
-        return new Brainfuccuccino(this.is, this.os, flavor);
+        return new Brainfuccuccino(this.is, this.os, flavor, this.encoding);
+    }
+
+    public Brainfuccuccino encoding(CellEncoding encoding) {
+        return new Brainfuccuccino(this.is, this.os, this.flavor, encoding);
     }
 
     public Brainfuccuccino attach(InputStream is) {
-        return new Brainfuccuccino(is, this.os, this.flavor);
+        return new Brainfuccuccino(is, this.os, this.flavor, this.encoding);
     }
 
     public Brainfuccuccino attach(OutputStream os) {
-        return new Brainfuccuccino(this.is, os, this.flavor);
+        return new Brainfuccuccino(this.is, os, this.flavor, this.encoding);
     }
 }
@@ -33,13 +33,68 @@ public enum Flavor {
      */
     REGULAR,
     /**
-     * Uses an interpreter that supports both negative and positive numbers with value bounds checks.
-     * @see net.coobird.labs.brainfuccuccino.machine.impl.SignedByteBrainfuckMachine
+     * Uses an implementation that supports both negative and positive numbers with value bounds checks.
+     * Programs behave as on the {@link net.coobird.labs.brainfuccuccino.machine.impl.SignedByteBrainfuckMachine},
+     * but execute as fast as {@link #INSTANT} where values stay within bounds.
+     * @see net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachineCompiler#compileToCheckedBytecode(String)
      */
     CAFE_AU_LAIT,
     /**
      * Uses an implementation that executes compute-heavy programs much faster.
+     * Programs start without waiting for compilation, and loops which run for
+     * a long time are compiled into JVM bytecode while the program runs.
      * @see net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachine
      */
     INSTANT,
+    /**
+     * Uses an implementation that compiles programs into JVM bytecode, which is
+     * further optimized by the JVM. Compiling takes longer than {@link #INSTANT},
+     * but long-running programs execute faster.
+     * @see net.coobird.labs.brainfuccuccino.vm.jit.JitBrainfuckMachine
+     */
+    ESPRESSO,
+    /**
+     * Uses an implementation that compiles programs into trees of objects,
+     * one for each loop and each run of straight-line instructions. Faster
+     * than interpreting, though slower than {@link #ESPRESSO}, and unlike
+     * {@link #ESPRESSO}, no classes are defined at runtime.
+     * @see net.coobird.labs.brainfuccuccino.vm.closure.ClosureBrainfuckMachine
+     */
+    AMERICANO,
+    /**
+     * Uses an interpreter with 16-bit memory cells which wrap around on
+     * over- and underflow.
+     * @see net.coobird.labs.brainfuccuccino.machine.impl.WrappingBrainfuckMachine
+     */
+    DOPPIO,
+    /**
+     * Uses an interpreter with 32-bit memory cells which wrap around on
+     * over- and underflow.
+     * @see net.coobird.labs.brainfuccuccino.machine.impl.WrappingBrainfuckMachine
+     */
+    QUAD,
+    /**
+     * Uses an implementation that executes compute-heavy programs faster,
+     * with 16-bit memory cells which wrap around on over- and underflow.
+     * @see net.coobird.labs.brainfuccuccino.vm.WideBrainfuckVirtualMachine
+     */
+    INSTANT_DOPPIO,
+    /**
+     * Uses an implementation that executes compute-heavy programs faster,
+     * with 32-bit memory cells which wrap around on over- and underflow.
+     * @see net.coobird.labs.brainfuccuccino.vm.WideBrainfuckVirtualMachine
+     */
+    INSTANT_QUAD,
+    /**
+     * Uses an interpreter whose memory grows in both directions as the
+     * program uses it, rather than being bounded at 30000 cells.
+     * @see net.coobird.labs.brainfuccuccino.machine.tape.PagedByteTape
+     */
+    LUNGO,
+    /**
+     * Uses an interpreter whose memory of 32768 cells wraps around at its
+     * ends, so that moving left of the first cell continues from the last.
+     * @see net.coobird.labs.brainfuccuccino.machine.impl.CircularBrainfuckMachine
+     */
+    CORTADO,
 }
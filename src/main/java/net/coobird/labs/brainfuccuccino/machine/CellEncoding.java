@@ -0,0 +1,140 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Determines how values of memory cells are read from an {@link InputStream}
+ * and written to an {@link OutputStream} by brainfuck machines whose memory
+ * cells are wider than a byte.
+ * <p>
+ * When the end of the stream is reached, {@code 0} is read.
+ */
+public enum CellEncoding {
+    /**
+     * Each value is exchanged as a single byte. Bytes are read as values
+     * from {@code 0} to {@code 255}, and only the lowest 8 bits of a value
+     * are written.
+     */
+    BYTES {
+        @Override
+        public int read(InputStream is) throws IOException {
+            int value = is.read();
+            return value == -1 ? 0 : value;
+        }
+
+        @Override
+        public void write(OutputStream os, long value) throws IOException {
+            os.write((int) value);
+        }
+    },
+    /**
+     * Each value is exchanged as a Unicode code point encoded in UTF-8.
+     * Malformed input is read as U+FFFD, and values which aren't code points
+     * are written as U+FFFD.
+     */
+    UTF_8 {
+        @Override
+        public int read(InputStream is) throws IOException {
+            int first = is.read();
+            if (first == -1) {
+                return 0;
+            }
+            if (first < 0x80) {
+                return first;
+            }
+
+            int continuations;
+            int codePoint;
+            if ((first & 0xE0) == 0xC0) {
+                continuations = 1;
+                codePoint = first & 0x1F;
+            } else if ((first & 0xF0) == 0xE0) {
+                continuations = 2;
+                codePoint = first & 0x0F;
+            } else if ((first & 0xF8) == 0xF0) {
+                continuations = 3;
+                codePoint = first & 0x07;
+            } else {
+                return REPLACEMENT_CHARACTER;
+            }
+            for (int i = 0; i < continuations; i++) {
+                int next = is.read();
+                if (next == -1 || (next & 0xC0) != 0x80) {
+                    return REPLACEMENT_CHARACTER;
+                }
+                codePoint = (codePoint << 6) | (next & 0x3F);
+            }
+            return codePoint;
+        }
+
+        @Override
+        public void write(OutputStream os, long value) throws IOException {
+            boolean isSurrogate = value >= Character.MIN_SURROGATE && value <= Character.MAX_SURROGATE;
+            int codePoint = value < 0 || value > Character.MAX_CODE_POINT || isSurrogate
+                    ? REPLACEMENT_CHARACTER
+                    : (int) value;
+
+            if (codePoint < 0x80) {
+                os.write(codePoint);
+            } else if (codePoint < 0x800) {
+                os.write(0xC0 | (codePoint >>> 6));
+                os.write(0x80 | (codePoint & 0x3F));
+            } else if (codePoint < 0x10000) {
+                os.write(0xE0 | (codePoint >>> 12));
+                os.write(0x80 | ((codePoint >>> 6) & 0x3F));
+                os.write(0x80 | (codePoint & 0x3F));
+            } else {
+                os.write(0xF0 | (codePoint >>> 18));
+                os.write(0x80 | ((codePoint >>> 12) & 0x3F));
+                os.write(0x80 | ((codePoint >>> 6) & 0x3F));
+                os.write(0x80 | (codePoint & 0x3F));
+            }
+        }
+    };
+
+    private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+
+    /**
+     * Reads a value from the given {@link InputStream}.
+     * @param is    The {@link InputStream} to read from.
+     * @return  The value read.
+     * @throws IOException  When an exception is thrown while reading.
+     */
+    public abstract int read(InputStream is) throws IOException;
+
+    /**
+     * Writes a value to the given {@link OutputStream}.
+     * @param os    The {@link OutputStream} to write to.
+     * @param value The unsigned value of a memory cell.
+     * @throws IOException  When an exception is thrown while writing.
+     */
+    public abstract void write(OutputStream os, long value) throws IOException;
+}
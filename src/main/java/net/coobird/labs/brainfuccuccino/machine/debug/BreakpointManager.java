@@ -70,6 +70,17 @@ public final class BreakpointManager {
         return false;
     }
 
+    /**
+     * Returns whether any breakpoints, enabled or not, are being tracked.
+     * <p>
+     * Brainfuck machines may use this to take faster paths through a program
+     * when no breakpoint could possibly interrupt execution.
+     * @return  {@code true} if breakpoints are present, {@code false} otherwise.
+     */
+    public boolean hasBreakpoints() {
+        return !breakpoints.isEmpty();
+    }
+
     /**
      * Returns whether the program execution has been interrupted and stopped.
      * To resume execution, {@link Debuggable#execute()} should be called.
@@ -32,7 +32,7 @@ import net.coobird.labs.brainfuccuccino.machine.debug.Breakpoint;
 import net.coobird.labs.brainfuccuccino.machine.debug.BreakpointManager;
 import net.coobird.labs.brainfuccuccino.machine.debug.Debuggable;
 import net.coobird.labs.brainfuccuccino.machine.state.MachineStateListener;
-import net.coobird.labs.brainfuccuccino.machine.ProgramRangeOutOfBoundsException;
+import net.coobird.labs.brainfuccuccino.machine.tape.Tape;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -41,12 +41,16 @@ import java.io.OutputStream;
 /**
  * A brainfuck machine with an abstract memory type.
  * The program is bounded (finite).
+ * <p>
+ * Memory cells are held on a {@link Tape} of a primitive type, and values
+ * are handled as {@code int}s. Values are only boxed when notifying a
+ * {@link MachineStateListener} or creating a state for introspection.
  * @param <T>   Type used by the memory cells in the brainfuck machine.
  */
 public abstract class AbstractBrainfuckMachine<T> implements BrainfuckMachine, Debuggable {
     protected int programCounter = 0;
     protected int dataPointer = 0;
-    protected final T[] memory;
+    protected final Tape<T> tape;
     private final MachineStateListener<T> listener;
 
     protected long instructionsExecuted = 0;
@@ -57,29 +61,34 @@ public abstract class AbstractBrainfuckMachine<T> implements BrainfuckMachine, D
 
     // These fields are populated for current evaluation.
     // By keeping these states, execution can be interrupted and resumed.
+    // The program counter is an address in the original program, while the
+    // index is the position of the next instruction with comments removed.
     private Instruction[] instructions;
+    private int[] sourceMap;
+    private int[] jumpTable;
+    private int index = 0;
     private byte[] program;
     private InputStream is;
     private OutputStream os;
 
-    protected AbstractBrainfuckMachine(T[] memory) {
-        this(memory, null);
+    protected AbstractBrainfuckMachine(Tape<T> tape) {
+        this(tape, null);
     }
 
-    protected AbstractBrainfuckMachine(T[] memory, MachineStateListener<T> listener) {
-        this.memory = memory;
+    protected AbstractBrainfuckMachine(Tape<T> tape, MachineStateListener<T> listener) {
+        this.tape = tape;
         this.listener = listener;
     }
 
     /**
      * Write given value to the given {@link OutputStream}.
      */
-    protected abstract void writeToOutputStream(OutputStream os, T value) throws IOException;
+    protected abstract void writeToOutputStream(OutputStream os, int value) throws IOException;
 
     /**
      * Reads a value from the given {@link InputStream}.
      */
-    protected abstract T readFromInputStream(InputStream is) throws IOException;
+    protected abstract int readFromInputStream(InputStream is) throws IOException;
 
     /**
      * Translate a byte-based program into {@link Instruction}s.
@@ -110,19 +119,25 @@ public abstract class AbstractBrainfuckMachine<T> implements BrainfuckMachine, D
             throw new IllegalStateException("Execution already complete.");
         }
 
-        while (programCounter < instructions.length) {
+        while (true) {
+            if (programCounter < sourceMap[index] && !skipComments(sourceMap[index])) {
+                return;
+            }
+            if (index == instructions.length) {
+                break;
+            }
             if (breakpointManager.isBreakpoint(programCounter)) {
                 return;
             }
 
-            Instruction instruction = instructions[programCounter];
+            Instruction instruction = instructions[index];
             if (listener != null) {
                 listener.nextInstruction(
                         programCounter,
                         program[programCounter],
                         instruction,
                         dataPointer,
-                        memory[dataPointer]
+                        tape.getBoxed(dataPointer)
                 );
             }
             switch (instruction) {
@@ -146,72 +161,74 @@ public abstract class AbstractBrainfuckMachine<T> implements BrainfuckMachine, D
                     break;
                 case BEGIN_LOOP:
                     if (isCurrentMemoryValueZero()) {
-                        int depth = 0;
-                        loop:
-                        while (true) {
-                            programCounter++;
-                            programCounterChanges++;
-                            switch (instructions[programCounter]) {
-                                case BEGIN_LOOP:
-                                    depth++;
-                                    continue;
-                                case END_LOOP:
-                                    if (depth == 0) {
-                                        programCounter--;
-                                        programCounterChanges++;
-                                        break loop;
-                                    } else {
-                                        depth--;
-                                    }
-                            }
-
-                            if (programCounter == program.length - 1) {
-                                throw new ProgramRangeOutOfBoundsException("Couldn't find closing ']'");
-                            }
-                        }
+                        // Continues past the matching END_LOOP.
+                        index = jumpTable[index];
+                        programCounterChanges++;
                     }
                     break;
                 case END_LOOP:
                     if (!isCurrentMemoryValueZero()) {
-                        int depth = 0;
-                        loop:
-                        while (true) {
-                            programCounter--;
-                            programCounterChanges++;
-                            switch (instructions[programCounter]) {
-                                case END_LOOP:
-                                    depth++;
-                                    continue;
-                                case BEGIN_LOOP:
-                                    if (depth == 0) {
-                                        break loop;
-                                    } else {
-                                        depth--;
-                                    }
-                            }
-
-                            if (programCounter == 0) {
-                                throw new ProgramRangeOutOfBoundsException("Couldn't find opening '['");
-                            }
-                        }
+                        // Continues past the matching BEGIN_LOOP.
+                        index = jumpTable[index];
+                        programCounterChanges++;
                     }
                     break;
-                default:
-                    nopInstructions++;
-                    instructionsExecuted--;
             }
             instructionsExecuted++;
             programCounterChanges++;
-            programCounter++;
+            programCounter = sourceMap[index++] + 1;
         }
         isComplete = true;
     }
 
+    /**
+     * Moves the program counter over comments up to the given address.
+     * <p>
+     * Comments are only visited one at a time when a breakpoint or listener
+     * could observe them. Otherwise, they are skipped in a single step.
+     * @param address   Address of the next command.
+     * @return  {@code false} if interrupted by a breakpoint, {@code true} otherwise.
+     */
+    private boolean skipComments(int address) {
+        if (listener == null && !breakpointManager.hasBreakpoints() && !breakpointManager.isInterrupted()) {
+            int comments = address - programCounter;
+            nopInstructions += comments;
+            programCounterChanges += comments;
+            programCounter = address;
+            return true;
+        }
+
+        while (programCounter < address) {
+            if (breakpointManager.isBreakpoint(programCounter)) {
+                return false;
+            }
+            if (listener != null) {
+                listener.nextInstruction(
+                        programCounter,
+                        program[programCounter],
+                        Instruction.NOP,
+                        dataPointer,
+                        tape.getBoxed(dataPointer)
+                );
+            }
+            nopInstructions++;
+            programCounterChanges++;
+            programCounter++;
+        }
+        return true;
+    }
+
     @Override
     public void load(byte[] program, InputStream is, OutputStream os) {
-        // Pre-translate program into instructions.
+        // Pre-translate program into instructions, leaving out comments.
         // This will reduce interpretation time.
-        instructions = bytesToInstructions(program);
+        Instruction[] translated = bytesToInstructions(program);
+        sourceMap = SourceMap.build(translated);
+        instructions = new Instruction[sourceMap.length - 1];
+        for (int i = 0; i < instructions.length; i++) {
+            instructions[i] = translated[sourceMap[i]];
+        }
+        jumpTable = JumpTable.build(instructions);
         this.program = program;
         this.is = is;
         this.os = os;
@@ -253,15 +270,15 @@ public abstract class AbstractBrainfuckMachine<T> implements BrainfuckMachine, D
     /**
      * Gets value from current memory position.
      */
-    protected T getValueFromMemory() {
-        return memory[dataPointer];
+    protected int getValueFromMemory() {
+        return tape.get(dataPointer);
     }
 
     /**
      * Sets value at current memory position.
      */
-    protected void setValueToMemory(T value) {
-        memory[dataPointer] = value;
+    protected void setValueToMemory(int value) {
+        tape.set(dataPointer, value);
     }
 
     @Override
@@ -0,0 +1,72 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.impl;
+
+import net.coobird.labs.brainfuccuccino.machine.CellEncoding;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineStateListener;
+import net.coobird.labs.brainfuccuccino.machine.tape.Tape;
+
+/**
+ * A brainfuck machine whose memory cells wrap around on over- and underflow,
+ * and whose tape wraps around at its ends.
+ * <p>
+ * Moving right of the last memory cell continues from the first, and moving
+ * left of the first continues from the last. The size of the tape must be a
+ * power of two, so that the data pointer is wrapped around by a mask rather
+ * than checked against the bounds of the tape.
+ *
+ * @param <T> Boxed type of the memory cell.
+ */
+public class CircularBrainfuckMachine<T> extends WrappingBrainfuckMachine<T> {
+    private final int mask;
+
+    public CircularBrainfuckMachine(Tape<T> tape, CellEncoding encoding) {
+        this(tape, encoding, null);
+    }
+
+    public CircularBrainfuckMachine(Tape<T> tape, CellEncoding encoding, MachineStateListener<T> listener) {
+        super(tape, encoding, listener);
+        this.mask = Tape.circularMask(tape);
+    }
+
+    @Override
+    protected void incrementPosition() {
+        dataPointer = (dataPointer + 1) & mask;
+    }
+
+    @Override
+    protected void decrementPosition() {
+        dataPointer = (dataPointer - 1) & mask;
+    }
+
+    @Override
+    public String toString() {
+        return "CircularBrainfuckMachine{" +
+                "tape=" + tape +
+                '}';
+    }
+}
@@ -27,25 +27,30 @@
 package net.coobird.labs.brainfuccuccino.machine.impl;
 
 import net.coobird.labs.brainfuccuccino.machine.BrainfuckMachine;
-import net.coobird.labs.brainfuccuccino.machine.Instruction;
 import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
-import net.coobird.labs.brainfuccuccino.machine.ProgramRangeOutOfBoundsException;
 import net.coobird.labs.brainfuccuccino.machine.debug.Breakpoint;
 import net.coobird.labs.brainfuccuccino.machine.debug.BreakpointManager;
 import net.coobird.labs.brainfuccuccino.machine.debug.Debuggable;
 import net.coobird.labs.brainfuccuccino.machine.state.Introspectable;
 import net.coobird.labs.brainfuccuccino.machine.state.MachineMetrics;
 import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
+import net.coobird.labs.brainfuccuccino.machine.tape.ByteTape;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
 
 /**
  * A classic brainfuck interpreter.
  * Memory cells are signed bytes permitting over- and underflow.
  * Memory cells are bounded at 30000 cells.
  * End-of-stream will write a {@code 0} to the current memory cell on read.
+ * <p>
+ * Bounds of the memory are checked once for each block of commands between
+ * loop boundaries, rather than on each move. When a block could move outside
+ * of the memory, its moves are checked one at a time, so that the exception
+ * is thrown at the same command as it would be otherwise.
  */
 public class ClassicBrainfuckMachine
         implements BrainfuckMachine, Introspectable<Byte>, Debuggable {
@@ -53,7 +58,7 @@ public class ClassicBrainfuckMachine
     private static final int SIZE = 30000;
     private int programCounter = 0;
     private int dataPointer = 0;
-    private final byte[] memory = new byte[SIZE];
+    private final ByteTape tape = new ByteTape(SIZE);
 
     private long instructionsExecuted = 0;
     private long nopInstructions = 0;
@@ -63,8 +68,17 @@ public class ClassicBrainfuckMachine
 
     // These fields are populated for current evaluation.
     // By keeping these states, execution can be interrupted and resumed.
-    private Instruction[] instructions;
-    private byte[] program;
+    // The program counter is an address in the original program, while the
+    // index is the position of the next command with comments removed.
+    private byte[] commands;
+    private int[] sourceMap;
+    private int[] jumpTable;
+    // The lowest and highest positions reached from each command up to the
+    // end of its block, relative to the data pointer at that command.
+    private int[] lowestReach;
+    private int[] highestReach;
+    private boolean isBlockInBounds = false;
+    private int index = 0;
     private InputStream is;
     private OutputStream os;
 
@@ -86,18 +100,33 @@ public class ClassicBrainfuckMachine
             throw new IllegalStateException("Execution already complete.");
         }
 
-        while (programCounter < program.length) {
+        isBlockInBounds = isBlockInBounds(index);
+        while (true) {
+            if (programCounter < sourceMap[index] && !skipComments(sourceMap[index])) {
+                return;
+            }
+            if (index == commands.length) {
+                break;
+            }
             if (breakpointManager.isBreakpoint(programCounter)) {
                 return;
             }
 
-            byte instruction = fetchInstruction(program);
+            byte instruction = fetchInstruction();
             switch (instruction) {
                 case '>':
-                    incrementPosition();
+                    if (isBlockInBounds) {
+                        dataPointer++;
+                    } else {
+                        incrementPosition();
+                    }
                     break;
                 case '<':
-                    decrementPosition();
+                    if (isBlockInBounds) {
+                        dataPointer--;
+                    } else {
+                        decrementPosition();
+                    }
                     break;
                 case '+':
                     incrementValue();
@@ -114,75 +143,145 @@ public class ClassicBrainfuckMachine
                     break;
                 case '[':
                     if (readValue() == 0) {
-                        int depth = 0;
-                        while (true) {
-                            programCounter++;
-                            programCounterChanges++;
-                            if (program[programCounter] == '[') {
-                                depth++;
-                                continue;
-                            } else if (program[programCounter] == ']') {
-                                if (depth == 0) {
-                                    programCounter--;
-                                    programCounterChanges++;
-                                    break;
-                                } else {
-                                    depth--;
-                                }
-                            }
-                            if (programCounter == program.length - 1) {
-                                throw new ProgramRangeOutOfBoundsException("Couldn't find closing ']'");
-                            }
-                        }
+                        // Continues past the matching ']'.
+                        index = jumpTable[index];
+                        programCounterChanges++;
                     }
+                    isBlockInBounds = isBlockInBounds(index + 1);
                     break;
                 case ']':
                     if (readValue() != 0) {
-                        int depth = 0;
-                        while (true) {
-                            programCounter--;
-                            programCounterChanges++;
-                            if (program[programCounter] == ']') {
-                                depth++;
-                            } else if (program[programCounter] == '[') {
-                                if (depth == 0) {
-                                    break;
-                                } else {
-                                    depth--;
-                                }
-                            }
-                            if (programCounter == 0) {
-                                throw new ProgramRangeOutOfBoundsException("Couldn't find opening '['");
-                            }
-                        }
+                        // Continues past the matching '['.
+                        index = jumpTable[index];
+                        programCounterChanges++;
                     }
+                    isBlockInBounds = isBlockInBounds(index + 1);
                     break;
-                default:
-                    nopInstructions++;
-                    instructionsExecuted--;
             }
             instructionsExecuted++;
             programCounterChanges++;
-            programCounter++;
+            programCounter = sourceMap[index++] + 1;
         }
         isComplete = true;
     }
 
+    /**
+     * Moves the program counter over comments up to the given address.
+     * <p>
+     * Comments are only visited one at a time when a breakpoint could stop
+     * on them. Otherwise, they are skipped in a single step.
+     * @param address   Address of the next command.
+     * @return  {@code false} if interrupted by a breakpoint, {@code true} otherwise.
+     */
+    private boolean skipComments(int address) {
+        if (!breakpointManager.hasBreakpoints() && !breakpointManager.isInterrupted()) {
+            int comments = address - programCounter;
+            nopInstructions += comments;
+            programCounterChanges += comments;
+            programCounter = address;
+            return true;
+        }
+
+        while (programCounter < address) {
+            if (breakpointManager.isBreakpoint(programCounter)) {
+                return false;
+            }
+            nopInstructions++;
+            programCounterChanges++;
+            programCounter++;
+        }
+        return true;
+    }
+
     @Override
     public void load(byte[] program, InputStream is, OutputStream os) {
-        // Pre-translate program into instructions.
+        // Pre-compute the commands without comments, and loop destinations.
         // This will reduce interpretation time.
-        this.program = program;
+        sourceMap = SourceMap.build(program);
+        commands = new byte[sourceMap.length - 1];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = program[sourceMap[i]];
+        }
+        jumpTable = JumpTable.build(commands);
+        computeReach();
         this.is = is;
         this.os = os;
     }
 
+    /**
+     * Restores the state of the machine, so that execution continues from
+     * the state's program counter with its memory.
+     * <p>
+     * This allows a program which started executing on another brainfuck
+     * machine to continue on this one, for example to debug it.
+     * The program must be loaded beforehand.
+     * @param state The state to continue execution from.
+     * @throws IllegalArgumentException When the state is outside the program or memory.
+     */
+    public void restoreState(MachineState<Byte> state) {
+        int address = state.getProgramCounter();
+        int position = state.getDataPointer();
+        Byte[] memoryState = state.getMemory();
+        if (address < 0 || address > sourceMap[sourceMap.length - 1]) {
+            throw new IllegalArgumentException("Program counter out of range: " + address);
+        }
+        if (position < 0 || position >= SIZE || memoryState.length != SIZE) {
+            throw new IllegalArgumentException("Memory state out of range.");
+        }
+
+        // Continues from the next command at or after the address.
+        int found = Arrays.binarySearch(sourceMap, address);
+        index = found >= 0 ? found : -found - 1;
+        programCounter = address;
+        dataPointer = position;
+        for (int i = 0; i < SIZE; i++) {
+            tape.set(i, memoryState[i]);
+        }
+        isComplete = false;
+    }
+
     @Override
     public void evaluate(byte[] program, InputStream is, OutputStream os) throws IOException {
         load(program, is, os);
         execute();
     }
 
+    /**
+     * Computes the positions reached by moves from each command up to the
+     * end of its block, which ends at a loop boundary.
+     */
+    private void computeReach() {
+        lowestReach = new int[commands.length + 1];
+        highestReach = new int[commands.length + 1];
+        for (int i = commands.length - 1; i >= 0; i--) {
+            int move;
+            switch (commands[i]) {
+                case '>':
+                    move = 1;
+                    break;
+                case '<':
+                    move = -1;
+                    break;
+                case '[':
+                case ']':
+                    // Blocks end at loop boundaries, so nothing after is reached.
+                    continue;
+                default:
+                    move = 0;
+            }
+            lowestReach[i] = Math.min(0, move + lowestReach[i + 1]);
+            highestReach[i] = Math.max(0, move + highestReach[i + 1]);
+        }
+    }
+
+    /**
+     * Returns whether the moves from the command at the given index up to
+     * the end of its block stay within the memory.
+     */
+    private boolean isBlockInBounds(int index) {
+        return dataPointer + lowestReach[index] >= 0 && dataPointer + highestReach[index] < SIZE;
+    }
+
     private void checkBounds(int memoryPosition) {
         if (memoryPosition < 0 || memoryPosition >= SIZE) {
             throw new MemoryRangeOutOfBoundsException(String.format("Memory cell out of bounds: <%s>", memoryPosition));
@@ -198,36 +297,32 @@ public class ClassicBrainfuckMachine
     }
 
     private void incrementValue() {
-        ++memory[dataPointer];
+        tape.add(dataPointer, 1);
     }
 
     private void decrementValue() {
-        --memory[dataPointer];
+        tape.add(dataPointer, -1);
     }
 
-    private byte fetchInstruction(byte[] program) {
-        return program[programCounter];
+    private byte fetchInstruction() {
+        return commands[index];
     }
 
-    private byte readValue() {
-        return memory[dataPointer];
+    private int readValue() {
+        return tape.get(dataPointer);
     }
 
-    private byte outputValue() {
-        return memory[dataPointer];
+    private int outputValue() {
+        return tape.get(dataPointer);
     }
 
     private void inputValue(byte value) {
-        memory[dataPointer] = value;
+        tape.set(dataPointer, value);
     }
 
     @Override
     public MachineState<Byte> getState() {
-        Byte[] memoryCopy = new Byte[memory.length];
-        for (int i = 0; i < memory.length; i++) {
-            memoryCopy[i] = memory[i];
-        }
-        return new MachineState<>(programCounter, dataPointer, memoryCopy);
+        return new MachineState<>(programCounter, dataPointer, tape.toArray());
     }
 
     @Override
@@ -0,0 +1,98 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.impl;
+
+import net.coobird.labs.brainfuccuccino.machine.Instruction;
+import net.coobird.labs.brainfuccuccino.machine.ProgramRangeOutOfBoundsException;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Builds tables of matching loop addresses for brainfuck programs.
+ * <p>
+ * For each address holding a {@code [} or {@code ]}, the table holds the
+ * address of its partner. Other addresses are left as {@code 0}.
+ * Building the table at load time allows loops to be entered, skipped and
+ * repeated without scanning the program during execution.
+ */
+final class JumpTable {
+    private JumpTable() {}
+
+    /**
+     * Builds a jump table for a byte-based program.
+     * @param program   The brainfuck program.
+     * @return  The addresses of the matching loop instructions.
+     * @throws ProgramRangeOutOfBoundsException When loops are unbalanced.
+     */
+    static int[] build(byte[] program) {
+        return build(
+                program.length,
+                i -> program[i] == '[',
+                i -> program[i] == ']'
+        );
+    }
+
+    /**
+     * Builds a jump table for a program translated into {@link Instruction}s.
+     * @param instructions  The translated brainfuck program.
+     * @return  The addresses of the matching loop instructions.
+     * @throws ProgramRangeOutOfBoundsException When loops are unbalanced.
+     */
+    static int[] build(Instruction[] instructions) {
+        return build(
+                instructions.length,
+                i -> instructions[i] == Instruction.BEGIN_LOOP,
+                i -> instructions[i] == Instruction.END_LOOP
+        );
+    }
+
+    private static int[] build(int length, IntPredicate isBeginLoop, IntPredicate isEndLoop) {
+        int[] table = new int[length];
+        // Addresses of the currently open loops. Depth cannot exceed program length.
+        int[] openings = new int[length];
+        int depth = 0;
+
+        for (int address = 0; address < length; address++) {
+            if (isBeginLoop.test(address)) {
+                openings[depth++] = address;
+
+            } else if (isEndLoop.test(address)) {
+                if (depth == 0) {
+                    throw new ProgramRangeOutOfBoundsException("Couldn't find opening '['");
+                }
+                int opening = openings[--depth];
+                table[opening] = address;
+                table[address] = opening;
+            }
+        }
+
+        if (depth != 0) {
+            throw new ProgramRangeOutOfBoundsException("Couldn't find closing ']'");
+        }
+        return table;
+    }
+}
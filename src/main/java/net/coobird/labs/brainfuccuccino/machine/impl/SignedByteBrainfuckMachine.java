@@ -32,11 +32,11 @@ import net.coobird.labs.brainfuccuccino.machine.state.Introspectable;
 import net.coobird.labs.brainfuccuccino.machine.state.MachineMetrics;
 import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
 import net.coobird.labs.brainfuccuccino.machine.state.MachineStateListener;
+import net.coobird.labs.brainfuccuccino.machine.tape.ByteTape;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Arrays;
 
 /**
  * A bounded brainfuck machine that uses a signed byte as the memory cell type.
@@ -53,7 +53,7 @@ public class SignedByteBrainfuckMachine
     }
 
     public SignedByteBrainfuckMachine(int memorySize) {
-        super(init(memorySize));
+        super(new ByteTape(memorySize));
         this.memorySize = memorySize;
     }
 
@@ -62,23 +62,17 @@ public class SignedByteBrainfuckMachine
     }
 
     public SignedByteBrainfuckMachine(int memorySize, MachineStateListener<Byte> listener) {
-        super(init(memorySize), listener);
+        super(new ByteTape(memorySize), listener);
         this.memorySize = memorySize;
     }
 
-    private static Byte[] init(int memorySize) {
-        Byte[] memory = new Byte[memorySize];
-        Arrays.fill(memory, (byte) 0);
-        return memory;
-    }
-
     @Override
-    protected void writeToOutputStream(OutputStream os, Byte value) throws IOException {
-        os.write(getValueFromMemory());
+    protected void writeToOutputStream(OutputStream os, int value) throws IOException {
+        os.write(value);
     }
 
     @Override
-    protected Byte readFromInputStream(InputStream is) throws IOException {
+    protected int readFromInputStream(InputStream is) throws IOException {
         byte readByte = (byte) is.read();
         return readByte == -1 ? 0 : readByte;
     }
@@ -106,7 +100,7 @@ public class SignedByteBrainfuckMachine
 
     @Override
     protected void incrementValue() {
-        byte value = memory[dataPointer];
+        int value = tape.get(dataPointer);
         if (value == Byte.MAX_VALUE) {
             throw new MemoryCellOverflowException(
                     String.format(
@@ -115,12 +109,12 @@ public class SignedByteBrainfuckMachine
                     )
             );
         }
-        ++memory[dataPointer];
+        tape.set(dataPointer, value + 1);
     }
 
     @Override
     protected void decrementValue() {
-        byte value = memory[dataPointer];
+        int value = tape.get(dataPointer);
         if (value == Byte.MIN_VALUE) {
             throw new MemoryCellOverflowException(
                     String.format(
@@ -129,17 +123,17 @@ public class SignedByteBrainfuckMachine
                     )
             );
         }
-        --memory[dataPointer];
+        tape.set(dataPointer, value - 1);
     }
 
     @Override
     protected boolean isCurrentMemoryValueZero() {
-        return memory[dataPointer] == 0;
+        return tape.get(dataPointer) == 0;
     }
 
     @Override
     public MachineState<Byte> getState() {
-        return new MachineState<>(programCounter, dataPointer, memory);
+        return new MachineState<>(programCounter, dataPointer, tape.toArray());
     }
 
     @Override
@@ -0,0 +1,87 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.impl;
+
+import net.coobird.labs.brainfuccuccino.machine.Instruction;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Builds maps from a program with its comments removed back to the
+ * addresses of the original program.
+ * <p>
+ * The map holds the original address of each command, in order, followed by
+ * the length of the original program. The comments preceding command
+ * {@code i} therefore occupy the addresses {@code map[i - 1] + 1} to
+ * {@code map[i] - 1}, and any trailing comments follow the last command.
+ */
+final class SourceMap {
+    private SourceMap() {}
+
+    /**
+     * Builds a source map for a byte-based program.
+     * @param program   The brainfuck program.
+     * @return  The original addresses of the commands in the program.
+     */
+    static int[] build(byte[] program) {
+        return build(
+                program.length,
+                i -> Instruction.getInstruction(program[i]) != Instruction.NOP
+        );
+    }
+
+    /**
+     * Builds a source map for a program translated into {@link Instruction}s.
+     * @param instructions  The translated brainfuck program.
+     * @return  The original addresses of the commands in the program.
+     */
+    static int[] build(Instruction[] instructions) {
+        return build(
+                instructions.length,
+                i -> instructions[i] != Instruction.NOP
+        );
+    }
+
+    private static int[] build(int length, IntPredicate isCommand) {
+        int commands = 0;
+        for (int address = 0; address < length; address++) {
+            if (isCommand.test(address)) {
+                commands++;
+            }
+        }
+
+        int[] map = new int[commands + 1];
+        int index = 0;
+        for (int address = 0; address < length; address++) {
+            if (isCommand.test(address)) {
+                map[index++] = address;
+            }
+        }
+        map[commands] = length;
+        return map;
+    }
+}
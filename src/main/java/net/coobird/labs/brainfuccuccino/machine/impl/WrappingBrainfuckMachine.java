@@ -0,0 +1,133 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.impl;
+
+import net.coobird.labs.brainfuccuccino.machine.CellEncoding;
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+import net.coobird.labs.brainfuccuccino.machine.state.Introspectable;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineMetrics;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineStateListener;
+import net.coobird.labs.brainfuccuccino.machine.tape.Tape;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A bounded brainfuck machine whose memory cells wrap around on over- and
+ * underflow, with the width of the memory cells given by its {@link Tape}.
+ * <p>
+ * For example, a {@link net.coobird.labs.brainfuccuccino.machine.tape.ShortTape}
+ * gives 16-bit memory cells, which allows programs to count beyond 255
+ * without combining multiple memory cells.
+ * Values are read and written as determined by a {@link CellEncoding}.
+ *
+ * @param <T> Boxed type of the memory cell.
+ */
+public class WrappingBrainfuckMachine<T>
+        extends AbstractBrainfuckMachine<T>
+        implements Introspectable<T> {
+
+    private final CellEncoding encoding;
+
+    public WrappingBrainfuckMachine(Tape<T> tape, CellEncoding encoding) {
+        this(tape, encoding, null);
+    }
+
+    public WrappingBrainfuckMachine(Tape<T> tape, CellEncoding encoding, MachineStateListener<T> listener) {
+        super(tape, listener);
+        this.encoding = encoding;
+    }
+
+    @Override
+    protected void writeToOutputStream(OutputStream os, int value) throws IOException {
+        // The value is of the current memory cell, which is written as unsigned.
+        encoding.write(os, tape.getUnsigned(dataPointer));
+    }
+
+    @Override
+    protected int readFromInputStream(InputStream is) throws IOException {
+        return encoding.read(is);
+    }
+
+    private void checkBounds(int memoryPosition) {
+        if (!tape.contains(memoryPosition)) {
+            throw new MemoryRangeOutOfBoundsException(
+                    String.format(
+                            "Memory cell out of bounds: <%s>",
+                            memoryPosition
+                    )
+            );
+        }
+    }
+
+    @Override
+    protected void incrementPosition() {
+        checkBounds(++dataPointer);
+    }
+
+    @Override
+    protected void decrementPosition() {
+        checkBounds(--dataPointer);
+    }
+
+    @Override
+    protected void incrementValue() {
+        tape.add(dataPointer, 1);
+    }
+
+    @Override
+    protected void decrementValue() {
+        tape.add(dataPointer, -1);
+    }
+
+    @Override
+    protected boolean isCurrentMemoryValueZero() {
+        return tape.get(dataPointer) == 0;
+    }
+
+    @Override
+    public MachineState<T> getState() {
+        return new MachineState<>(programCounter, dataPointer, tape.toArray());
+    }
+
+    @Override
+    public MachineMetrics getMetrics() {
+        return new MachineMetrics(
+                instructionsExecuted, nopInstructions, programCounterChanges
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "WrappingBrainfuckMachine{" +
+                "tape=" + tape +
+                ", encoding=" + encoding +
+                '}';
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.tape;
+
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A tape of {@code byte} memory cells.
+ * <p>
+ * When scanning with a stride of {@code 1} or {@code -1}, memory cells are
+ * examined eight at a time.
+ */
+public final class ByteTape implements Tape<Byte> {
+    private final byte[] cells;
+
+    // A view of the memory cells for examining multiple cells at once. Created on first use.
+    private ByteBuffer words;
+
+    /**
+     * Instantiates a tape of memory cells containing zero.
+     * @param size  The number of memory cells.
+     */
+    public ByteTape(int size) {
+        this.cells = new byte[size];
+    }
+
+    /**
+     * Returns the array backing this tape. Changes to the array are
+     * reflected in the tape, and vice versa.
+     * @return  The memory cells.
+     */
+    public byte[] array() {
+        return cells;
+    }
+
+    @Override
+    public int size() {
+        return cells.length;
+    }
+
+    @Override
+    public int get(int position) {
+        return cells[position];
+    }
+
+    @Override
+    public long getUnsigned(int position) {
+        return cells[position] & 0xFF;
+    }
+
+    @Override
+    public void set(int position, int value) {
+        cells[position] = (byte) value;
+    }
+
+    @Override
+    public void add(int position, int amount) {
+        cells[position] += amount;
+    }
+
+    @Override
+    public int scan(int position, int stride) {
+        if (cells[position] == 0) {
+            return position;
+        }
+
+        if (stride == 1) {
+            ByteBuffer words = words();
+            while (position + Long.BYTES <= cells.length) {
+                long zeros = zeroBytes(words.getLong(position));
+                if (zeros != 0) {
+                    return position + (Long.numberOfTrailingZeros(zeros) >>> 3);
+                }
+                position += Long.BYTES;
+            }
+        } else if (stride == -1) {
+            ByteBuffer words = words();
+            while (position >= Long.BYTES - 1) {
+                long zeros = zeroBytes(words.getLong(position - (Long.BYTES - 1)));
+                if (zeros != 0) {
+                    return position - (Long.numberOfLeadingZeros(zeros) >>> 3);
+                }
+                position -= Long.BYTES;
+            }
+        }
+
+        while (true) {
+            if (position < 0 || position >= cells.length) {
+                throw new MemoryRangeOutOfBoundsException(
+                        String.format(
+                                "Memory cell out of bounds: <%s>",
+                                position
+                        )
+                );
+            }
+            if (cells[position] == 0) {
+                return position;
+            }
+            position += stride;
+        }
+    }
+
+    private ByteBuffer words() {
+        if (words == null) {
+            words = ByteBuffer.wrap(cells).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return words;
+    }
+
+    /**
+     * Returns a mask with the high bit set in each byte of the given word
+     * which is zero.
+     */
+    private static long zeroBytes(long word) {
+        final long lowBits = 0x7F7F7F7F7F7F7F7FL;
+        return ~(((word & lowBits) + lowBits) | word | lowBits);
+    }
+
+    @Override
+    public Byte getBoxed(int position) {
+        return cells[position];
+    }
+
+    @Override
+    public Byte[] toArray() {
+        return toArray(cells.length);
+    }
+
+    /**
+     * Returns a copy of the memory cells as their boxed type, followed by
+     * zeros up to the given length.
+     * @param length    The length of the copy, which is at least the size
+     *                  of the tape.
+     * @return  The values of the memory cells.
+     */
+    public Byte[] toArray(int length) {
+        Byte[] copy = new Byte[length];
+        for (int i = 0; i < cells.length; i++) {
+            copy[i] = cells[i];
+        }
+        Arrays.fill(copy, cells.length, length, (byte) 0);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "ByteTape{" +
+                "size=" + cells.length +
+                '}';
+    }
+}
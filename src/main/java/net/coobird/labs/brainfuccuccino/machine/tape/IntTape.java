@@ -0,0 +1,117 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.tape;
+
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+
+/**
+ * A tape of {@code int} memory cells.
+ */
+public final class IntTape implements Tape<Integer> {
+    private final int[] cells;
+
+    /**
+     * Instantiates a tape of memory cells containing zero.
+     * @param size  The number of memory cells.
+     */
+    public IntTape(int size) {
+        this.cells = new int[size];
+    }
+
+    /**
+     * Returns the array backing this tape. Changes to the array are
+     * reflected in the tape, and vice versa.
+     * @return  The memory cells.
+     */
+    public int[] array() {
+        return cells;
+    }
+
+    @Override
+    public int size() {
+        return cells.length;
+    }
+
+    @Override
+    public int get(int position) {
+        return cells[position];
+    }
+
+    @Override
+    public long getUnsigned(int position) {
+        return cells[position] & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public void set(int position, int value) {
+        cells[position] = value;
+    }
+
+    @Override
+    public void add(int position, int amount) {
+        cells[position] += amount;
+    }
+
+    @Override
+    public int scan(int position, int stride) {
+        while (true) {
+            if (position < 0 || position >= cells.length) {
+                throw new MemoryRangeOutOfBoundsException(
+                        String.format(
+                                "Memory cell out of bounds: <%s>",
+                                position
+                        )
+                );
+            }
+            if (cells[position] == 0) {
+                return position;
+            }
+            position += stride;
+        }
+    }
+
+    @Override
+    public Integer getBoxed(int position) {
+        return cells[position];
+    }
+
+    @Override
+    public Integer[] toArray() {
+        Integer[] copy = new Integer[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            copy[i] = cells[i];
+        }
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "IntTape{" +
+                "size=" + cells.length +
+                '}';
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.tape;
+
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A tape of {@code byte} memory cells held outside of the Java heap, either
+ * in a direct buffer or in a file mapped into memory.
+ * <p>
+ * This allows tapes of hundreds of megabytes without pressure on the
+ * garbage collector. When mapped to a file, the memory cells are read from
+ * the file, and changes are written back to it, so that the file holds the
+ * results of a program after it completes.
+ * <p>
+ * The size of the tape is rounded up to a whole number of pages of 4,096
+ * cells. As with other tapes, machines check the data pointer against the
+ * size on each move; pages only round the size, and bounds aren't checked
+ * a page at a time.
+ */
+public final class MappedByteTape implements Tape<Byte> {
+    private static final int PAGE_SIZE = 4096;
+
+    /**
+     * The largest number of memory cells, which is the largest whole number
+     * of pages that can be held in a buffer.
+     */
+    public static final int MAX_SIZE = Integer.MAX_VALUE & -PAGE_SIZE;
+
+    private final ByteBuffer cells;
+
+    /**
+     * Instantiates a tape of memory cells containing zero, held in a direct
+     * buffer.
+     * @param size  The number of memory cells.
+     */
+    public MappedByteTape(int size) {
+        this.cells = ByteBuffer.allocateDirect(roundToPages(size));
+    }
+
+    /**
+     * Instantiates a tape of memory cells held in the given file, which is
+     * created if it doesn't exist, and extended with zeros if it is shorter
+     * than the tape.
+     * @param file  The file to map into memory.
+     * @param size  The number of memory cells.
+     * @throws IOException  When the file could not be mapped.
+     */
+    public MappedByteTape(Path file, int size) throws IOException {
+        int mappedSize = roundToPages(size);
+        try (FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+        )) {
+            // The mapping remains valid after the channel is closed.
+            this.cells = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize);
+        }
+    }
+
+    private static int roundToPages(int size) {
+        if (size <= 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Size out of range: " + size);
+        }
+        return (size + PAGE_SIZE - 1) & -PAGE_SIZE;
+    }
+
+    /**
+     * Writes changes to the memory cells back to the file, if the tape is
+     * mapped to one. The operating system otherwise writes them back at a
+     * time of its choosing.
+     */
+    public void force() {
+        if (cells instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) cells).force();
+        }
+    }
+
+    @Override
+    public int size() {
+        return cells.capacity();
+    }
+
+    @Override
+    public int get(int position) {
+        return cells.get(position);
+    }
+
+    @Override
+    public long getUnsigned(int position) {
+        return cells.get(position) & 0xFF;
+    }
+
+    @Override
+    public void set(int position, int value) {
+        cells.put(position, (byte) value);
+    }
+
+    @Override
+    public void add(int position, int amount) {
+        cells.put(position, (byte) (cells.get(position) + amount));
+    }
+
+    @Override
+    public int scan(int position, int stride) {
+        while (true) {
+            if (position < 0 || position >= cells.capacity()) {
+                throw new MemoryRangeOutOfBoundsException(
+                        String.format(
+                                "Memory cell out of bounds: <%s>",
+                                position
+                        )
+                );
+            }
+            if (cells.get(position) == 0) {
+                return position;
+            }
+            position += stride;
+        }
+    }
+
+    @Override
+    public Byte getBoxed(int position) {
+        return cells.get(position);
+    }
+
+    @Override
+    public Byte[] toArray() {
+        Byte[] copy = new Byte[cells.capacity()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = cells.get(i);
+        }
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedByteTape{" +
+                "size=" + cells.capacity() +
+                ", mapped=" + (cells instanceof MappedByteBuffer) +
+                '}';
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.tape;
+
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+
+import java.util.Arrays;
+
+/**
+ * A tape of {@code byte} memory cells which grows in both directions from
+ * position {@code 0}, up to a limit.
+ * <p>
+ * Memory cells are held in pages of 4,096 cells, which are allocated when
+ * a memory cell in them is first written. Reading a memory cell of a page
+ * which hasn't been allocated returns zero. The page accessed last is kept
+ * at hand, so that accesses within a page cost about as much as those of a
+ * flat array.
+ * <p>
+ * Positions within the limit in either direction are within the tape.
+ * The limit is rounded up to a whole number of pages. Accessing a memory
+ * cell beyond the limit throws a {@link MemoryRangeOutOfBoundsException}.
+ * <p>
+ * The size of the tape is the number of memory cells from position
+ * {@code 0} to the end of the last page written. Memory cells at negative
+ * positions aren't included in {@link #toArray()}.
+ */
+public final class PagedByteTape implements Tape<Byte> {
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    // Never the index of a page, as positions are shifted right to find their page.
+    private static final int NO_PAGE = Integer.MIN_VALUE;
+
+    /**
+     * The default number of memory cells in each direction.
+     */
+    public static final int DEFAULT_LIMIT = 1 << 24;
+
+    /**
+     * The largest number of memory cells in each direction.
+     */
+    public static final int MAX_LIMIT = 1 << 30;
+
+    private final int limit;
+
+    // Pages at and after position 0, and before position 0 in reverse order.
+    private byte[][] pages = new byte[1][];
+    private byte[][] negativePages = new byte[0][];
+    private int pageCount = 0;
+
+    // The page accessed last, which is always allocated.
+    private byte[] page;
+    private int pageIndex = NO_PAGE;
+
+    /**
+     * Instantiates a tape with the default limit.
+     */
+    public PagedByteTape() {
+        this(DEFAULT_LIMIT);
+    }
+
+    /**
+     * Instantiates a tape with the given limit.
+     * @param limit The number of memory cells in each direction from
+     *              position {@code 0}.
+     */
+    public PagedByteTape(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit out of range: " + limit);
+        }
+        // Whole pages are within the limit, so the page at hand needs no further checks.
+        this.limit = (limit + PAGE_MASK) & ~PAGE_MASK;
+    }
+
+    @Override
+    public int size() {
+        for (int i = pages.length - 1; i >= 0; i--) {
+            if (pages[i] != null) {
+                return (i + 1) * PAGE_SIZE;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean contains(int position) {
+        return position >= -limit && position < limit;
+    }
+
+    /**
+     * Returns the number of pages allocated.
+     * @return  The number of pages.
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    @Override
+    public int get(int position) {
+        if (position >> PAGE_BITS == pageIndex) {
+            return page[position & PAGE_MASK];
+        }
+        byte[] found = findPage(position, false);
+        return found == null ? 0 : found[position & PAGE_MASK];
+    }
+
+    @Override
+    public long getUnsigned(int position) {
+        return get(position) & 0xFF;
+    }
+
+    @Override
+    public void set(int position, int value) {
+        pageFor(position)[position & PAGE_MASK] = (byte) value;
+    }
+
+    @Override
+    public void add(int position, int amount) {
+        pageFor(position)[position & PAGE_MASK] += amount;
+    }
+
+    @Override
+    public int scan(int position, int stride) {
+        while (true) {
+            if (!contains(position)) {
+                throw outOfBounds(position);
+            }
+            if (get(position) == 0) {
+                return position;
+            }
+            position += stride;
+        }
+    }
+
+    @Override
+    public Byte getBoxed(int position) {
+        return (byte) get(position);
+    }
+
+    @Override
+    public Byte[] toArray() {
+        Byte[] copy = new Byte[size()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = (byte) get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the page for writing the memory cell at the given position,
+     * allocating it if necessary.
+     */
+    private byte[] pageFor(int position) {
+        if (position >> PAGE_BITS == pageIndex) {
+            return page;
+        }
+        return findPage(position, true);
+    }
+
+    private byte[] findPage(int position, boolean isAllocated) {
+        if (!contains(position)) {
+            throw outOfBounds(position);
+        }
+        int index = position >> PAGE_BITS;
+        boolean isNegative = index < 0;
+        // Pages before position 0 are numbered from -1, and stored from 0.
+        int slot = isNegative ? -1 - index : index;
+        byte[][] table = isNegative ? negativePages : pages;
+
+        if (slot >= table.length || table[slot] == null) {
+            if (!isAllocated) {
+                return null;
+            }
+            if (slot >= table.length) {
+                table = Arrays.copyOf(table, Math.max(slot + 1, table.length * 2));
+                if (isNegative) {
+                    negativePages = table;
+                } else {
+                    pages = table;
+                }
+            }
+            table[slot] = new byte[PAGE_SIZE];
+            pageCount++;
+        }
+
+        page = table[slot];
+        pageIndex = index;
+        return page;
+    }
+
+    private static MemoryRangeOutOfBoundsException outOfBounds(int position) {
+        return new MemoryRangeOutOfBoundsException(
+                String.format(
+                        "Memory cell out of bounds: <%s>",
+                        position
+                )
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "PagedByteTape{" +
+                "limit=" + limit +
+                ", pageCount=" + pageCount +
+                '}';
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.tape;
+
+/**
+ * A tape of memory cells for a brainfuck machine, backed by arrays of a
+ * primitive type or by buffers.
+ * <p>
+ * Values are exchanged as {@code int}s, so that memory cells can be read and
+ * written without boxing. Values written to a memory cell wrap around to fit
+ * the memory cell type. Boxed values are only created for introspection.
+ * <p>
+ * Positions given to the methods must be within the tape, as determined by
+ * {@link #contains(int)}, unless noted otherwise, as they are not checked
+ * ahead of time.
+ *
+ * @param <T> Boxed type of the memory cell.
+ */
+public interface Tape<T> {
+    /**
+     * Returns the number of memory cells.
+     * @return  The number of memory cells.
+     */
+    int size();
+
+    /**
+     * Returns whether the given position is within the tape.
+     * <p>
+     * By default, positions from {@code 0} up to {@link #size()} are within
+     * the tape. Tapes which grow may contain other positions as well.
+     * @param position  Position of a memory cell.
+     * @return  {@code true} if the position is within the tape, {@code false} otherwise.
+     */
+    default boolean contains(int position) {
+        return position >= 0 && position < size();
+    }
+
+    /**
+     * Returns the value of a memory cell.
+     * @param position  Position of the memory cell.
+     * @return  The value of the memory cell.
+     */
+    int get(int position);
+
+    /**
+     * Returns the value of a memory cell, interpreted as an unsigned number.
+     * @param position  Position of the memory cell.
+     * @return  The unsigned value of the memory cell.
+     */
+    long getUnsigned(int position);
+
+    /**
+     * Sets the value of a memory cell.
+     * @param position  Position of the memory cell.
+     * @param value     The value to set, which wraps around to fit the memory cell.
+     */
+    void set(int position, int value);
+
+    /**
+     * Adds to the value of a memory cell.
+     * @param position  Position of the memory cell.
+     * @param amount    The amount to add, which is negative to subtract.
+     */
+    void add(int position, int amount);
+
+    /**
+     * Finds the first memory cell containing zero, starting from the given
+     * position and moving by the given stride.
+     * @param position  Position to start from.
+     * @param stride    Number of cells to move by at each step.
+     * @return  Position of the memory cell containing zero.
+     * @throws net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException
+     *          When the end of the tape is reached before a memory cell containing zero.
+     */
+    int scan(int position, int stride);
+
+    /**
+     * Returns the value of a memory cell as its boxed type.
+     * @param position  Position of the memory cell.
+     * @return  The value of the memory cell.
+     */
+    T getBoxed(int position);
+
+    /**
+     * Returns a copy of the memory cells as their boxed type.
+     * @return  The values of the memory cells.
+     */
+    T[] toArray();
+
+    /**
+     * Returns the mask which wraps positions around the given tape, so that
+     * moving past one end continues from the other.
+     * @param tape  A tape whose size is a power of two.
+     * @return  The mask, which is one less than the size of the tape.
+     * @throws IllegalArgumentException When the size of the tape is not a power of two.
+     */
+    static int circularMask(Tape<?> tape) {
+        int size = tape.size();
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Size of a circular tape must be a power of two: " + size);
+        }
+        return size - 1;
+    }
+}
@@ -26,32 +26,83 @@
 
 package net.coobird.labs.brainfuccuccino.vm;
 
+import net.coobird.labs.brainfuccuccino.machine.MemoryCellOverflowException;
 import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
 import net.coobird.labs.brainfuccuccino.machine.state.Introspectable;
 import net.coobird.labs.brainfuccuccino.machine.state.MachineMetrics;
 import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
+import net.coobird.labs.brainfuccuccino.machine.tape.ByteTape;
+import net.coobird.labs.brainfuccuccino.vm.closure.ClosureCompiler;
+import net.coobird.labs.brainfuccuccino.vm.jit.CompiledProgram;
+import net.coobird.labs.brainfuccuccino.vm.jit.CompiledTrace;
+import net.coobird.labs.brainfuccuccino.vm.jit.JitCompiler;
+import net.coobird.labs.brainfuccuccino.vm.jit.Trace;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
 import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A brainfuck virtual machine for Brainfuccuccino.
  * <p>
- * This virtual machine consists of eight opcodes defined in {@link net.coobird.labs.brainfuccuccino.vm.model.Opcode}.
+ * This virtual machine consists of the opcodes defined in {@link net.coobird.labs.brainfuccuccino.vm.model.Opcode}.
  * Unlike a regular brainfuck machine, it accepts operands to improve code density.
  * This allows the virtual machine to execute faster by reducing necessary state changes.
+ * Instructions which access memory also accept an offset from the current memory cell,
+ * so that the memory cell pointer does not need to be moved for each access.
  * <p>
  * Additionally, the virtual machine does not provide a direct analogue to brainfuck's {@code [} and {@code ]} instructions.
  * Rather, it provides classical jump instructions ({@link net.coobird.labs.brainfuccuccino.vm.model.Opcode#JMZ} and {@link net.coobird.labs.brainfuccuccino.vm.model.Opcode#JMN}) to move the program counter to specific locations in the program memory.
  * Therefore, a compiler must determine jump locations ahead of time.
  * <p>
  * The machine's memory cells are {@code byte}s and consist of an array of 30,000 elements.
+ * Memory cells wrap around on over- and underflow, except when changed by
+ * {@link net.coobird.labs.brainfuccuccino.vm.model.Opcode#CHECKED_ADD}, which
+ * throws a {@link MemoryCellOverflowException} as the
+ * {@link net.coobird.labs.brainfuccuccino.machine.impl.SignedByteBrainfuckMachine} does.
+ * Programs with these semantics are compiled by
+ * {@link BrainfuckVirtualMachineCompiler#compileToCheckedBytecode(String)}.
+ * When the {@link Bytecode#getFootprint() footprint} of the program is known
+ * ahead of time, only as many memory cells as the program uses are allocated.
  * <p>
  * For input and output, a byte of data will be exchanged via {@link InputStream} and {@link OutputStream}, respectively.
  * <p>
+ * Programs are executed in the packed form provided by {@link Bytecode}.
+ * Programs given as {@link Instruction}s are packed when the virtual machine is instantiated.
+ * <p>
+ * In tiered mode, the virtual machine counts the number of times each loop
+ * jumps back to its beginning. Loops which become hot are compiled into JVM
+ * classes by the {@link JitCompiler} on a background thread, while the loop
+ * continues to be interpreted. Where classes can't be defined, loops are
+ * compiled into trees of nodes by the {@link ClosureCompiler} instead.
+ * Once compiled, the loop continues as compiled code the next time it jumps
+ * back or is entered, with the memory and memory cell pointer carried over,
+ * and interpretation resumes after the loop.
+ * This allows short programs to start without waiting for compilation, while
+ * long-running programs eventually run as compiled code.
+ * Instructions executed by compiled code are not included in {@link #getMetrics()}.
+ * <p>
+ * In tracing mode, when a loop becomes hot, the virtual machine records the
+ * path taken through its next iteration, including the iterations of inner
+ * loops, and compiles the path as straight-line code. The compiled trace
+ * repeats while the loop follows the recorded path, and returns to the
+ * interpreter at the jump instruction where it doesn't. Loops which leave
+ * their trace often, or whose iterations are too long to trace, are compiled
+ * as a whole instead.
+ * <p>
+ * Execution can be suspended by {@link #suspend()} at a safepoint, which is
+ * a {@code JMZ} or {@code JMN} instruction. At a safepoint, the memory and
+ * memory cell pointer are the same as those of a brainfuck interpreter at the
+ * corresponding {@code [} or {@code ]}, whose address is available from
+ * {@link Bytecode#getSourceAddresses()}.
+ * <p>
  * Note on the {@link #getState()} and {@link #getMetrics()} method implementations:
  * This method can return inconsistent state as the virtual machine memory is
  * not copied in a thread-safe manner.
@@ -60,15 +111,48 @@ public class BrainfuckVirtualMachine implements Introspectable<Byte> {
     private static final int SIZE = 30000;
     private int programCounter = 0;
     private int dataPointer = 0;
-    private final byte[] memory = new byte[SIZE];
+    private final ByteTape tape;
+    private final byte[] memory;
 
     private long instructionsExecuted = 0;
     private long programCounterChanges = 0;
 
-    private final Instruction[] instructions;
+    private final Bytecode bytecode;
+    private final byte[] opcodes;
+    // Opcodes without superinstructions, which are used when recording traces.
+    private final byte[] unfusedOpcodes;
+    private final int[] operands;
+    private final int[] offsets;
+    private final byte[][] constants;
     private final InputStream is;
     private final OutputStream os;
 
+    // Number of back-edges taken by each loop, and the loops compiled so far,
+    // indexed by the address of the JMN instruction. Only used in tiered mode.
+    private final int[] backEdges;
+    private final AtomicReferenceArray<CompiledProgram> compiledLoops;
+
+    // Number of times each trace returned to the interpreter before the end
+    // of its loop, and the traces compiled so far. Only used in tracing mode.
+    private final int[] sideExits;
+    private final AtomicReferenceArray<CompiledTrace> compiledTraces;
+
+    // Number of back-edges taken by a loop before it is compiled.
+    private static final int COMPILE_THRESHOLD = 1000;
+
+    // Number of times a trace may leave its loop's path before the loop is compiled as a whole.
+    private static final int SIDE_EXIT_LIMIT = 1000;
+
+    // Maximum number of instructions in a trace, which keeps the compiled trace small enough for the JVM to compile.
+    private static final int MAX_TRACE_LENGTH = 128;
+
+    // A failure to compile a loop or trace in the background, which is thrown
+    // when the program next looks for compiled code.
+    private volatile Throwable compilationFailure;
+
+    // Set by suspend(), and checked at each safepoint.
+    private volatile boolean isSuspendRequested = false;
+
     /**
      * Instantiate a brainfuck virtual machine for given instructions and input/output.
      * @param instructions  Brainfuck virtual machine instructions to execute.
@@ -76,7 +160,7 @@ public class BrainfuckVirtualMachine implements Introspectable<Byte> {
      * @param os    An {@link OutputStream} for outputs.
      */
     public BrainfuckVirtualMachine(List<Instruction> instructions, InputStream is, OutputStream os) {
-        this(instructions.toArray(new Instruction[0]), is, os);
+        this(Bytecode.of(instructions), is, os);
     }
 
     /**
@@ -86,115 +170,544 @@ public class BrainfuckVirtualMachine implements Introspectable<Byte> {
      * @param os    An {@link OutputStream} for outputs.
      */
     public BrainfuckVirtualMachine(Instruction[] instructions, InputStream is, OutputStream os) {
-        this.instructions = instructions;
+        this(Arrays.asList(instructions), is, os);
+    }
+
+    /**
+     * Instantiate a brainfuck virtual machine for a packed program and input/output.
+     * @param bytecode  Brainfuck virtual machine program to execute.
+     * @param is    An {@link InputStream} for inputs.
+     * @param os    An {@link OutputStream} for outputs.
+     */
+    public BrainfuckVirtualMachine(Bytecode bytecode, InputStream is, OutputStream os) {
+        this(bytecode, is, os, CompilationMode.NONE);
+    }
+
+    /**
+     * Instantiate a brainfuck virtual machine for a packed program and input/output.
+     * @param bytecode  Brainfuck virtual machine program to execute.
+     * @param is    An {@link InputStream} for inputs.
+     * @param os    An {@link OutputStream} for outputs.
+     * @param isTiered  {@code true} to compile hot loops into JVM classes
+     *                  while the program is executed.
+     */
+    public BrainfuckVirtualMachine(Bytecode bytecode, InputStream is, OutputStream os, boolean isTiered) {
+        this(bytecode, is, os, isTiered ? CompilationMode.LOOPS : CompilationMode.NONE);
+    }
+
+    /**
+     * Instantiate a brainfuck virtual machine for a packed program and input/output.
+     * @param bytecode  Brainfuck virtual machine program to execute.
+     * @param is    An {@link InputStream} for inputs.
+     * @param os    An {@link OutputStream} for outputs.
+     * @param mode  What to compile while the program is executed.
+     */
+    public BrainfuckVirtualMachine(Bytecode bytecode, InputStream is, OutputStream os, CompilationMode mode) {
+        this.bytecode = bytecode;
+        this.tape = new ByteTape(bytecode.getMemorySize(SIZE));
+        this.memory = tape.array();
+        this.opcodes = bytecode.getDispatchOpcodes();
+        this.unfusedOpcodes = bytecode.getOpcodes();
+        this.operands = bytecode.getOperands();
+        this.offsets = bytecode.getOffsets();
+        this.constants = bytecode.getConstants();
         this.is = is;
         this.os = os;
+
+        boolean isTiered = mode != CompilationMode.NONE;
+        boolean isTracing = mode == CompilationMode.TRACES;
+        this.backEdges = isTiered ? new int[opcodes.length] : null;
+        this.compiledLoops = isTiered ? new AtomicReferenceArray<CompiledProgram>(opcodes.length) : null;
+        this.sideExits = isTracing ? new int[opcodes.length] : null;
+        this.compiledTraces = isTracing ? new AtomicReferenceArray<CompiledTrace>(opcodes.length) : null;
     }
 
     /*
      * instructions
-     * add N  - add N to the current memory cell
-     * sub N  - subtract N from the current memory cell
+     * add N, O - add N to the memory cell at offset O, where N may be negative
+     * move N - move memory address pointer by N, where N may be negative
      * jmz A  - jump to address A if current memory cell is zero
      * jmn A  - jump to address A if current memory cell is nonzero
-     * madd N - increment memory address pointer by N
-     * msub N - decrement memory address pointer by N
-     * read   - read from input port into current memory cell
-     * write  - write value of current memory cell to output port
+     * read O - read from input port into the memory cell at offset O
+     * write O - write value of the memory cell at offset O to output port
+     * set N, O - set the memory cell at offset O to N
+     * mul N, O - add N times the current memory cell to the memory cell at offset O
+     * scan N - move memory address pointer by N until the current memory cell is zero
+     * checked_add N, O - add N to the memory cell at offset O, throwing where it leaves the range of a signed byte
+     * write_const - write the bytes of the instruction's constant to output port
+     *
+     * superinstructions execute the instruction they replace, followed by
+     * the next one or two instructions, in a single dispatch
      */
 
     /**
      * Execute loaded brainfuck virtual machine instructions.
+     * <p>
+     * If execution was suspended, it is resumed from the safepoint.
      * @throws IOException  When an exception is thrown during execution.
      */
     public void execute() throws IOException {
-        while (programCounter < instructions.length) {
-            Instruction instruction = instructions[programCounter];
+        try {
+            run();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // Memory accesses at an offset are not checked ahead of time.
+            throw new MemoryRangeOutOfBoundsException(
+                    String.format(
+                            "Memory cell out of bounds: <%s>",
+                            dataPointer + offsets[programCounter]
+                    )
+            );
+        }
+    }
+
+    private void run() throws IOException {
+        while (programCounter < opcodes.length) {
             instructionsExecuted++;
-            int operand = instruction.getOperand();
-            switch (instruction.getOpcode()) {
-                case MADD:
-                    dataPointer += operand;
-                    if (dataPointer >= SIZE) {
-                        throw new MemoryRangeOutOfBoundsException(
-                                String.format(
-                                        "Memory cell out of bounds: <%s>",
-                                        dataPointer
-                                )
-                        );
-                    }
+            int operand = operands[programCounter];
+            switch (opcodes[programCounter]) {
+                case Bytecode.MOVE:
+                    move(operand);
                     programCounter++;
                     programCounterChanges++;
                     break;
-                case MSUB:
-                    dataPointer -= operand;
-                    if (dataPointer < 0) {
-                        throw new MemoryRangeOutOfBoundsException(
-                                String.format(
-                                        "Memory cell out of bounds: <%s>",
-                                        dataPointer
-                                )
-                        );
-                    }
+                case Bytecode.ADD:
+                    memory[dataPointer + offsets[programCounter]] += operand;
                     programCounter++;
                     programCounterChanges++;
                     break;
-                case ADD:
-                    memory[dataPointer] += operand;
+                case Bytecode.READ:
+                    memory[dataPointer + offsets[programCounter]] = read();
                     programCounter++;
                     programCounterChanges++;
                     break;
-                case SUB:
-                    memory[dataPointer] -= operand;
+                case Bytecode.WRITE:
+                    byte outData = memory[dataPointer + offsets[programCounter]];
+                    os.write(outData);
                     programCounter++;
                     programCounterChanges++;
                     break;
-                case READ:
-                    byte inData = (byte) is.read();
-                    if (inData == -1) {
-                        inData = 0;
-                    }
-                    memory[dataPointer] = inData;
+                case Bytecode.SET:
+                    memory[dataPointer + offsets[programCounter]] = (byte) operand;
                     programCounter++;
                     programCounterChanges++;
                     break;
-                case WRITE:
-                    byte outData = memory[dataPointer];
-                    os.write(outData);
+                case Bytecode.MUL:
+                    multiply(operand, offsets[programCounter]);
                     programCounter++;
                     programCounterChanges++;
                     break;
-                case JMN:
-                    if (memory[dataPointer] != 0) {
-                        programCounter = operand;
-                        programCounterChanges++;
-                        break;
-                    }
+                case Bytecode.SCAN:
+                    dataPointer = tape.scan(dataPointer, operand);
                     programCounter++;
                     programCounterChanges++;
                     break;
-                case JMZ:
-                    if (memory[dataPointer] == 0) {
-                        programCounter = operand;
-                        programCounterChanges++;
-                        break;
+                case Bytecode.CHECKED_ADD:
+                    addChecked(operand, offsets[programCounter]);
+                    programCounter++;
+                    programCounterChanges++;
+                    break;
+                case Bytecode.WRITE_CONST:
+                    byte[] constant = constants[programCounter];
+                    os.write(constant, 0, constant.length);
+                    programCounter++;
+                    programCounterChanges++;
+                    break;
+                case Bytecode.JMN:
+                    if (jumpIfNonZero(operand)) {
+                        return;
                     }
+                    break;
+                case Bytecode.JMZ:
+                    if (jumpIfZero(operand)) {
+                        return;
+                    }
+                    break;
+                case Bytecode.MOVE_JMZ:
+                    move(operand);
+                    next();
+                    if (jumpIfZero(operands[programCounter])) {
+                        return;
+                    }
+                    break;
+                case Bytecode.MOVE_JMN:
+                    move(operand);
+                    next();
+                    if (jumpIfNonZero(operands[programCounter])) {
+                        return;
+                    }
+                    break;
+                case Bytecode.ADD_JMN:
+                    memory[dataPointer + offsets[programCounter]] += operand;
+                    next();
+                    if (jumpIfNonZero(operands[programCounter])) {
+                        return;
+                    }
+                    break;
+                case Bytecode.ADD_MOVE:
+                    memory[dataPointer + offsets[programCounter]] += operand;
+                    next();
+                    move(operands[programCounter]);
+                    programCounter++;
+                    programCounterChanges++;
+                    break;
+                case Bytecode.MOVE_ADD:
+                    move(operand);
+                    next();
+                    memory[dataPointer + offsets[programCounter]] += operands[programCounter];
+                    programCounter++;
+                    programCounterChanges++;
+                    break;
+                case Bytecode.WRITE_MOVE:
+                    os.write(memory[dataPointer + offsets[programCounter]]);
+                    next();
+                    move(operands[programCounter]);
+                    programCounter++;
+                    programCounterChanges++;
+                    break;
+                case Bytecode.MOVE_ADD_MOVE:
+                    move(operand);
+                    next();
+                    memory[dataPointer + offsets[programCounter]] += operands[programCounter];
+                    next();
+                    move(operands[programCounter]);
                     programCounter++;
                     programCounterChanges++;
                     break;
                 default:
-                    throw new IllegalStateException("Unknown instruction: " + instruction);
+                    throw new IllegalStateException("Unknown opcode: " + opcodes[programCounter]);
+            }
+        }
+    }
+
+    private byte read() throws IOException {
+        byte inData = (byte) is.read();
+        if (inData == -1) {
+            inData = 0;
+        }
+        return inData;
+    }
+
+    private void multiply(int factor, int offset) {
+        byte value = memory[dataPointer];
+        if (value != 0) {
+            int target = dataPointer + offset;
+            if (target < 0 || target >= memory.length) {
+                throw new MemoryRangeOutOfBoundsException(
+                        String.format(
+                                "Memory cell out of bounds: <%s>",
+                                target
+                        )
+                );
+            }
+            memory[target] += (byte) (value * factor);
+        }
+    }
+
+    private void addChecked(int amount, int offset) {
+        int position = dataPointer + offset;
+        int value = memory[position] + amount;
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+            // Adding one at a time stops at the end of the range.
+            byte limit = value < Byte.MIN_VALUE ? Byte.MIN_VALUE : Byte.MAX_VALUE;
+            memory[position] = limit;
+            throw new MemoryCellOverflowException(
+                    String.format(
+                            "Value <%s> out of bounds at <%s>",
+                            limit, position
+                    )
+            );
+        }
+        memory[position] = (byte) value;
+    }
+
+    private void move(int amount) {
+        dataPointer += amount;
+        if (dataPointer < 0 || dataPointer >= memory.length) {
+            throw new MemoryRangeOutOfBoundsException(
+                    String.format(
+                            "Memory cell out of bounds: <%s>",
+                            dataPointer
+                    )
+            );
+        }
+    }
+
+    /**
+     * Moves on to the next instruction of a superinstruction, which is
+     * counted as an instruction of its own.
+     */
+    private void next() {
+        programCounter++;
+        programCounterChanges++;
+        instructionsExecuted++;
+    }
+
+    /**
+     * Executes the {@code JMZ} instruction at the program counter.
+     * @param closing   Address of the loop's {@code JMN} instruction.
+     * @return  {@code true} if suspended at the safepoint, {@code false} otherwise.
+     * @throws IOException  When an exception is thrown during execution.
+     */
+    private boolean jumpIfZero(int closing) throws IOException {
+        if (isAtSafepoint()) {
+            return true;
+        }
+        if (memory[dataPointer] == 0) {
+            programCounter = closing;
+            programCounterChanges++;
+        } else if (compiledLoops == null || !runCompiledLoop(closing)) {
+            programCounter++;
+            programCounterChanges++;
+        }
+        return false;
+    }
+
+    /**
+     * Executes the {@code JMN} instruction at the program counter.
+     * @param opening   Address of the loop's {@code JMZ} instruction.
+     * @return  {@code true} if suspended at the safepoint, {@code false} otherwise.
+     * @throws IOException  When an exception is thrown during execution.
+     */
+    private boolean jumpIfNonZero(int opening) throws IOException {
+        if (isAtSafepoint()) {
+            return true;
+        }
+        if (memory[dataPointer] == 0) {
+            programCounter++;
+        } else {
+            if (compiledLoops != null) {
+                int closing = programCounter;
+                if (countBackEdge(closing)) {
+                    if (compiledTraces != null) {
+                        programCounter = opening;
+                        programCounterChanges++;
+                        recordTrace(closing);
+                        return false;
+                    }
+                    compileLoop(closing);
+                }
+                if (runCompiledLoop(closing)) {
+                    return false;
+                }
+            }
+            programCounter = opening;
+        }
+        programCounterChanges++;
+        return false;
+    }
+
+    /**
+     * Requests execution to be suspended at the next safepoint, at which
+     * {@link #execute()} returns without executing the jump instruction.
+     * <p>
+     * This method may be called from another thread while the program is
+     * executing. Loops running as compiled code in tiered mode are only
+     * suspended after they end, and compiled traces after they return to the
+     * interpreter.
+     */
+    public void suspend() {
+        isSuspendRequested = true;
+    }
+
+    /**
+     * Indicates whether the program has been executed to the end.
+     * @return  {@code true} if completed, {@code false} otherwise.
+     */
+    public boolean isComplete() {
+        return programCounter >= opcodes.length;
+    }
+
+    private boolean isAtSafepoint() {
+        if (!isSuspendRequested) {
+            return false;
+        }
+        isSuspendRequested = false;
+        // The jump instruction is executed when execution is resumed.
+        instructionsExecuted--;
+        return true;
+    }
+
+    /**
+     * Counts a back-edge of a loop.
+     * @param closing   Address of the loop's {@code JMN} instruction.
+     * @return  {@code true} if the loop has just become hot, {@code false} otherwise.
+     */
+    private boolean countBackEdge(int closing) {
+        return backEdges[closing] < COMPILE_THRESHOLD && ++backEdges[closing] == COMPILE_THRESHOLD;
+    }
+
+    /**
+     * Starts compiling a loop as a whole in the background.
+     * @param closing   Address of the loop's {@code JMN} instruction.
+     */
+    private void compileLoop(int closing) {
+        final int opening = operands[closing];
+        BackgroundCompiler.EXECUTOR.execute(() -> {
+            try {
+                CompiledProgram loop;
+                try {
+                    loop = new JitCompiler().compile(bytecode, opening, closing + 1);
+                } catch (SecurityException | UnsupportedOperationException e) {
+                    // Some hosts don't permit defining classes, and some loops are too
+                    // large for a class file, so compile into a tree instead.
+                    loop = new ClosureCompiler().compile(bytecode, opening, closing + 1);
+                }
+                compiledLoops.set(closing, loop);
+            } catch (RuntimeException | LinkageError e) {
+                compilationFailure = e;
             }
+        });
+    }
+
+    /**
+     * Executes an iteration of a loop from its {@code JMZ} instruction,
+     * recording the path taken, and starts compiling the path in the
+     * background.
+     * <p>
+     * The current memory cell must be non-zero, so that the loop is entered.
+     * @param closing   Address of the loop's {@code JMN} instruction.
+     * @throws IOException  When an exception is thrown during execution.
+     */
+    private void recordTrace(int closing) throws IOException {
+        int[] addresses = new int[MAX_TRACE_LENGTH];
+        boolean[] isZero = new boolean[MAX_TRACE_LENGTH];
+        int length = 0;
+        step();
+        while (programCounter != closing) {
+            if (length == MAX_TRACE_LENGTH) {
+                // The iteration is too long to trace, so the rest of it is interpreted as usual.
+                compileLoop(closing);
+                return;
+            }
+            addresses[length] = programCounter;
+            isZero[length] = memory[dataPointer] == 0;
+            length++;
+            step();
         }
+
+        final Trace trace = new Trace(closing, Arrays.copyOf(addresses, length), Arrays.copyOf(isZero, length));
+        BackgroundCompiler.EXECUTOR.execute(() -> {
+            try {
+                compiledTraces.set(closing, new JitCompiler().compile(bytecode, trace));
+            } catch (SecurityException | UnsupportedOperationException | IllegalArgumentException e) {
+                // Traces are only compiled into JVM classes, and may be too long
+                // to compile, so compile the loop as a whole instead.
+                compileLoop(closing);
+            } catch (RuntimeException | LinkageError e) {
+                compilationFailure = e;
+            }
+        });
+    }
+
+    /**
+     * Executes the instruction at the program counter, without
+     * superinstructions or compiled code.
+     * @throws IOException  When an exception is thrown during execution.
+     */
+    private void step() throws IOException {
+        instructionsExecuted++;
+        programCounterChanges++;
+        int operand = operands[programCounter];
+        int offset = offsets[programCounter];
+        switch (unfusedOpcodes[programCounter]) {
+            case Bytecode.MOVE:
+                move(operand);
+                break;
+            case Bytecode.ADD:
+                memory[dataPointer + offset] += operand;
+                break;
+            case Bytecode.READ:
+                memory[dataPointer + offset] = read();
+                break;
+            case Bytecode.WRITE:
+                os.write(memory[dataPointer + offset]);
+                break;
+            case Bytecode.SET:
+                memory[dataPointer + offset] = (byte) operand;
+                break;
+            case Bytecode.MUL:
+                multiply(operand, offset);
+                break;
+            case Bytecode.SCAN:
+                dataPointer = tape.scan(dataPointer, operand);
+                break;
+            case Bytecode.CHECKED_ADD:
+                addChecked(operand, offset);
+                break;
+            case Bytecode.WRITE_CONST:
+                os.write(constants[programCounter], 0, constants[programCounter].length);
+                break;
+            case Bytecode.JMN:
+                if (memory[dataPointer] != 0) {
+                    programCounter = operand;
+                    return;
+                }
+                break;
+            case Bytecode.JMZ:
+                if (memory[dataPointer] == 0) {
+                    programCounter = operand;
+                    return;
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown opcode: " + unfusedOpcodes[programCounter]);
+        }
+        programCounter++;
+    }
+
+    /**
+     * Runs a loop as compiled code if it has been compiled, continuing after
+     * the loop once it ends. Otherwise, runs the loop's trace if it has been
+     * compiled, continuing where the trace returns to the interpreter.
+     * <p>
+     * The current memory cell must be non-zero, so that the loop is entered.
+     * @param closing   Address of the loop's {@code JMN} instruction.
+     * @return  {@code true} if the loop was run, {@code false} if it hasn't been compiled.
+     * @throws IOException  When an exception is thrown during execution.
+     * @throws IllegalStateException    If a loop or trace couldn't be compiled.
+     */
+    private boolean runCompiledLoop(int closing) throws IOException {
+        if (compilationFailure != null) {
+            throw new IllegalStateException("Couldn't compile loop.", compilationFailure);
+        }
+        CompiledProgram loop = compiledLoops.get(closing);
+        if (loop != null) {
+            dataPointer = loop.execute(memory, dataPointer, is, os);
+            programCounter = closing + 1;
+            programCounterChanges++;
+            return true;
+        }
+        CompiledTrace trace = compiledTraces == null ? null : compiledTraces.get(closing);
+        if (trace != null) {
+            long exit = trace.execute(memory, dataPointer, is, os);
+            dataPointer = CompiledTrace.dataPointer(exit);
+            programCounter = CompiledTrace.exitAddress(exit);
+            programCounterChanges++;
+            if (programCounter != closing && ++sideExits[closing] == SIDE_EXIT_LIMIT) {
+                // The loop rarely stays on its trace, so it is compiled as a whole instead.
+                compiledTraces.set(closing, null);
+                compileLoop(closing);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Holds the thread which compiles hot loops, so that it is only started
+     * once a virtual machine in tiered mode is used.
+     */
+    private static final class BackgroundCompiler {
+        private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "brainfuccuccino-compiler");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
     public MachineState<Byte> getState() {
-        Byte[] memoryCopy = new Byte[memory.length];
-        for (int i = 0; i < memory.length; i++) {
-            memoryCopy[i] = memory[i];
-        }
-        return new MachineState<>(programCounter, dataPointer, memoryCopy);
+        return new MachineState<>(programCounter, dataPointer, tape.toArray(SIZE));
     }
 
     @Override
@@ -27,32 +27,71 @@
 package net.coobird.labs.brainfuccuccino.vm;
 
 import net.coobird.labs.brainfuccuccino.machine.ProgramRangeOutOfBoundsException;
+import net.coobird.labs.brainfuccuccino.vm.compiler.BasicBlock;
+import net.coobird.labs.brainfuccuccino.vm.compiler.Block;
+import net.coobird.labs.brainfuccuccino.vm.compiler.Loop;
+import net.coobird.labs.brainfuccuccino.vm.compiler.Node;
+import net.coobird.labs.brainfuccuccino.vm.compiler.OptimizationPipeline;
+import net.coobird.labs.brainfuccuccino.vm.compiler.PassStatistics;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
 import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
 import net.coobird.labs.brainfuccuccino.vm.model.Opcode;
+import net.coobird.labs.brainfuccuccino.vm.model.Superinstruction;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
-import java.util.Iterator;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A brainfuck compiler for the {@link BrainfuckVirtualMachine}.
  * <p>
  * Optimized instructions for the {@code BrainfuckVirtualMachine} can be
  * emitted by specifying a positive optimization level when calling the
- * {@link #compile(String, int)} method.
+ * {@link #compile(String, int)} method. Optimization levels select
+ * increasingly aggressive {@link OptimizationPipeline}s, up to
+ * {@link OptimizationPipeline#MAX_OPTIMIZATION_LEVEL}. A custom pipeline
+ * can be used through {@link #compileToBytecode(String, OptimizationPipeline)}.
+ * Programs whose memory cells throw on over- and underflow rather than wrap
+ * around are compiled through {@link #compileToCheckedBytecode(String)}.
+ * <p>
+ * Each compiled instruction records its address in the brainfuck program
+ * where one exists, which is available from {@link Bytecode#getSourceAddresses()}.
+ * Without optimization, this is every instruction. With optimization, it is
+ * the jump instructions of the loops which remain in the program.
+ * <p>
+ * The compiler can also fuse frequent sequences of instructions into
+ * {@link Superinstruction}s, which the virtual machine executes with a
+ * single dispatch. Which superinstructions are used is given when the
+ * compiler is instantiated, and none are used by default.
+ * <p>
+ * Statistics of the optimization passes run by the last compilation are
+ * available from {@link #getStatistics()}. As such, an instance of this
+ * compiler should not be shared between threads.
  */
 public final class BrainfuckVirtualMachineCompiler {
     private static final int UNKNOWN_ADDRESS = -1;
 
-    private static List<Instruction> verifyInstructions(List<Instruction> instructions) {
-        for (Instruction instruction : instructions) {
-            if (instruction.getOpcode() == Opcode.JMZ && instruction.getOperand() < 0) {
-                throw new ProgramRangeOutOfBoundsException("Couldn't find closing ']'");
-            }
-        }
-        return instructions;
+    private final Set<Superinstruction> superinstructions;
+    private List<PassStatistics> statistics = Collections.emptyList();
+
+    /**
+     * Instantiates a compiler which doesn't use superinstructions.
+     */
+    public BrainfuckVirtualMachineCompiler() {
+        this(EnumSet.noneOf(Superinstruction.class));
+    }
+
+    /**
+     * Instantiates a compiler which fuses instructions into the given
+     * superinstructions.
+     * @param superinstructions The superinstructions to use.
+     */
+    public BrainfuckVirtualMachineCompiler(Set<Superinstruction> superinstructions) {
+        this.superinstructions = EnumSet.noneOf(Superinstruction.class);
+        this.superinstructions.addAll(superinstructions);
     }
 
     /**
@@ -68,6 +107,10 @@ public final class BrainfuckVirtualMachineCompiler {
     /**
      * Compiles a brainfuck program for the {@code BrainfuckVirtualMachine}
      * with specified level of optimization.
+     * <p>
+     * The returned list is a view of the compiled program for debugging and
+     * introspection. Use {@link #compileToBytecode(String, int)} to obtain
+     * the program in the form executed by the virtual machine.
      * @param program   The brainfuck program to compile.
      * @param optimizationLevel The optimization level.
      *                          {@code 0} for no optimization, and higher
@@ -76,181 +119,257 @@ public final class BrainfuckVirtualMachineCompiler {
      * @return  The instructions for the {@code BrainfuckVirtualMachine}.
      */
     public List<Instruction> compile(String program, int optimizationLevel) {
+        return compileToBytecode(program, optimizationLevel).toInstructions();
+    }
+
+    /**
+     * Compiles a brainfuck program into packed {@link Bytecode} for the
+     * {@code BrainfuckVirtualMachine} with specified level of optimization.
+     * @param program   The brainfuck program to compile.
+     * @param optimizationLevel The optimization level.
+     *                          {@code 0} for no optimization, and higher
+     *                          optimization for higher values.
+     *                          Must be a non-negative value.
+     * @return  The program for the {@code BrainfuckVirtualMachine}.
+     */
+    public Bytecode compileToBytecode(String program, int optimizationLevel) {
         if (optimizationLevel == 0) {
-            return verifyInstructions(compileWithoutOptimization(program));
+            statistics = Collections.emptyList();
+            return fuse(compileWithoutOptimization(program));
         } else if (optimizationLevel > 0) {
-            return verifyInstructions(compileWithOptimization(program));
+            return compileToBytecode(program, OptimizationPipeline.forOptimizationLevel(optimizationLevel));
         } else {
             throw new IllegalArgumentException("Optimization level must be a positive value.");
         }
     }
 
-    private static List<Instruction> compileWithoutOptimization(String program) {
-        int address = 0;
+    /**
+     * Compiles a brainfuck program into packed {@link Bytecode} for the
+     * {@code BrainfuckVirtualMachine}, optimized by the given pipeline.
+     * <p>
+     * Runs of {@code +} and {@code -}, and of {@code >} and {@code <}, are
+     * always combined into single instructions before the pipeline is run.
+     * @param program   The brainfuck program to compile.
+     * @param pipeline  The optimization passes to run.
+     * @return  The program for the {@code BrainfuckVirtualMachine}.
+     */
+    public Bytecode compileToBytecode(String program, OptimizationPipeline pipeline) {
+        Block tree = parse(program, false);
+        statistics = pipeline.run(tree);
+        return fuse(assemble(tree));
+    }
+
+    /**
+     * Compiles a brainfuck program into packed {@link Bytecode} for the
+     * {@code BrainfuckVirtualMachine}, with the semantics of the
+     * {@link net.coobird.labs.brainfuccuccino.machine.impl.SignedByteBrainfuckMachine}.
+     * <p>
+     * Memory cells are signed bytes, which throw a
+     * {@link net.coobird.labs.brainfuccuccino.machine.MemoryCellOverflowException}
+     * rather than wrap around on over- and underflow. Runs of {@code +} or
+     * {@code -} are combined into a single {@link Opcode#CHECKED_ADD}, which
+     * checks the range once for the whole run. Runs in opposite directions
+     * aren't combined, as each may overflow on its own. For the same reason,
+     * runs of {@code >} and {@code <} in opposite directions aren't
+     * combined, as each may leave the range of memory on its own.
+     * The program is optimized by {@link OptimizationPipeline#forCheckedSemantics()}.
+     * @param program   The brainfuck program to compile.
+     * @return  The program for the {@code BrainfuckVirtualMachine}.
+     */
+    public Bytecode compileToCheckedBytecode(String program) {
+        Block tree = parse(program, true);
+        statistics = OptimizationPipeline.forCheckedSemantics().run(tree);
+        return fuse(assemble(tree));
+    }
+
+    private Bytecode fuse(Bytecode bytecode) {
+        return superinstructions.isEmpty() ? bytecode : bytecode.fuse(superinstructions);
+    }
+
+    /**
+     * Returns the statistics of the optimization passes run by the last
+     * compilation, in the order they were run.
+     * @return  The statistics of each optimization pass.
+     */
+    public List<PassStatistics> getStatistics() {
+        return statistics;
+    }
+
+    private static void openLoop(Bytecode.Builder builder, Deque<Integer> returnAddressStack) {
+        returnAddressStack.push(builder.add(Opcode.JMZ, UNKNOWN_ADDRESS));
+    }
+
+    private static void closeLoop(Bytecode.Builder builder, Deque<Integer> returnAddressStack) {
+        if (returnAddressStack.isEmpty()) {
+            throw new ProgramRangeOutOfBoundsException("Couldn't find opening '['");
+        }
+        int matchingOpening = returnAddressStack.pop();
+        int address = builder.add(Opcode.JMN, matchingOpening);
+        builder.setOperand(matchingOpening, address);
+    }
+
+    private static Bytecode link(Bytecode.Builder builder, Deque<Integer> returnAddressStack) {
+        if (!returnAddressStack.isEmpty()) {
+            throw new ProgramRangeOutOfBoundsException("Couldn't find closing ']'");
+        }
+        return builder.build();
+    }
+
+    private static Bytecode compileWithoutOptimization(String program) {
         // A stack used to find matching loop construct. Uses LinkedList as an implementation of Stack.
         Deque<Integer> returnAddressStack = new LinkedList<>();
-        // List of instructions. The address of the instruction is the position in the list.
-        List<Instruction> instructions = new ArrayList<>();
+        // The address of the instruction is the position in the builder.
+        Bytecode.Builder builder = new Bytecode.Builder(program.length());
 
-        for (char bfInstruction : program.toCharArray()) {
-            switch (bfInstruction) {
+        for (int i = 0; i < program.length(); i++) {
+            int size = builder.size();
+            switch (program.charAt(i)) {
                 case '>':
-                    instructions.add(new Instruction(Opcode.MADD, 1));
-                    address++;
+                    builder.add(Opcode.MOVE, 1);
                     break;
                 case '<':
-                    instructions.add(new Instruction(Opcode.MSUB, 1));
-                    address++;
+                    builder.add(Opcode.MOVE, -1);
                     break;
                 case '+':
-                    instructions.add(new Instruction(Opcode.ADD, 1));
-                    address++;
+                    builder.add(Opcode.ADD, 1);
                     break;
                 case '-':
-                    instructions.add(new Instruction(Opcode.SUB, 1));
-                    address++;
+                    builder.add(Opcode.ADD, -1);
                     break;
                 case '.':
-                    instructions.add(new Instruction(Opcode.WRITE));
-                    address++;
+                    builder.add(Opcode.WRITE);
                     break;
                 case ',':
-                    instructions.add(new Instruction(Opcode.READ));
-                    address++;
+                    builder.add(Opcode.READ);
                     break;
                 case '[':
-                    instructions.add(new Instruction(Opcode.JMZ, UNKNOWN_ADDRESS));
-                    returnAddressStack.push(address);
-                    address++;
+                    openLoop(builder, returnAddressStack);
                     break;
                 case ']':
-                    if (returnAddressStack.isEmpty()) {
-                        throw new ProgramRangeOutOfBoundsException("Couldn't find opening '['");
-                    }
-                    int matchingOpening = returnAddressStack.pop();
-                    instructions.add(new Instruction(Opcode.JMN, matchingOpening));
-                    Instruction matchingInstruction = instructions.get(matchingOpening);
-                    matchingInstruction.setOperand(address);
-                    address++;
+                    closeLoop(builder, returnAddressStack);
                     break;
                 default:
                     // Any unrecognized character is ignored.
                     break;
             }
+            if (builder.size() > size) {
+                builder.setSourceAddress(size, i);
+            }
         }
-        return instructions;
-    }
-
-    private static class RepeatedCharactersIterable implements Iterable<String> {
-        private final String s;
-
-        private RepeatedCharactersIterable(String s) {
-            this.s = s;
-        }
-
-        @Override
-        public Iterator<String> iterator() {
-            return new Iterator<String>() {
-                private String nextSplit;
-                private int start = 0;
-                private final char[] chars = s.toCharArray();
-
-                private void findNext() {
-                    if (start == Integer.MAX_VALUE){
-                        nextSplit = null;
-                        return;
-                    }
-
-                    for (int i = start; i < chars.length - 1; i++) {
-                        if (chars[i] != chars[i + 1]) {
-                            nextSplit = s.substring(start, i + 1);
-                            start = i + 1;
-                            return;
-                        }
-                    }
-
-                    nextSplit = s.substring(start);
-                    start = Integer.MAX_VALUE;
-                }
-
-                @Override
-                public boolean hasNext() {
-                    findNext();
-                    return nextSplit != null;
-                }
-
-                @Override
-                public String next() {
-                    return nextSplit;
-                }
-            };
-        }
+        return link(builder, returnAddressStack);
     }
 
-    private static List<Instruction> compileWithOptimization(String program) {
-        int address = 0;
-        // A stack used to find matching loop construct. Uses LinkedList as an implementation of Stack.
-        Deque<Integer> returnAddressStack = new LinkedList<>();
-        // List of instructions. The address of the instruction is the position in the list.
-        List<Instruction> instructions = new ArrayList<>();
-
-        for (String split : new RepeatedCharactersIterable(program)) {
-            char bfInstruction = split.charAt(0);
-            int length = split.length();
+    /**
+     * Translates a brainfuck program into a loop tree, combining runs of
+     * {@code +} and {@code -}, and runs of {@code >} and {@code <}, into a
+     * single instruction. Runs which cancel out are dropped.
+     * When checked, changes are combined into {@link Opcode#CHECKED_ADD}s,
+     * and runs in opposite directions are kept apart.
+     */
+    private static Block parse(String program, boolean isChecked) {
+        // A stack of the blocks enclosing the current block, and the addresses
+        // of the loops which were opened. Uses LinkedList as an implementation of Stack.
+        Deque<Block> enclosingBlocks = new LinkedList<>();
+        Deque<Integer> openingAddresses = new LinkedList<>();
+        Block block = new Block();
+        Opcode add = isChecked ? Opcode.CHECKED_ADD : Opcode.ADD;
 
-            switch (bfInstruction) {
+        for (int i = 0; i < program.length(); i++) {
+            switch (program.charAt(i)) {
                 case '>':
-                    instructions.add(new Instruction(Opcode.MADD, length));
-                    address++;
+                    combine(block, Opcode.MOVE, 1, isChecked);
                     break;
                 case '<':
-                    instructions.add(new Instruction(Opcode.MSUB, length));
-                    address++;
+                    combine(block, Opcode.MOVE, -1, isChecked);
                     break;
                 case '+':
-                    instructions.add(new Instruction(Opcode.ADD, length));
-                    address++;
+                    combine(block, add, 1, isChecked);
                     break;
                 case '-':
-                    instructions.add(new Instruction(Opcode.SUB, length));
-                    address++;
+                    combine(block, add, -1, isChecked);
                     break;
                 case '.':
-                    for (int i = 0; i < length; i++) {
-                        instructions.add(new Instruction(Opcode.WRITE));
-                        address++;
-                    }
+                    block.add(new Instruction(Opcode.WRITE));
                     break;
                 case ',':
-                    for (int i = 0; i < length; i++) {
-                        instructions.add(new Instruction(Opcode.READ));
-                        address++;
-                    }
+                    block.add(new Instruction(Opcode.READ));
                     break;
                 case '[':
-                    for (int i = 0; i < length; i++) {
-                        instructions.add(new Instruction(Opcode.JMZ, UNKNOWN_ADDRESS));
-                        returnAddressStack.push(address);
-                        address++;
-                    }
+                    enclosingBlocks.push(block);
+                    openingAddresses.push(i);
+                    block = new Block();
                     break;
                 case ']':
-                    for (int i = 0; i < length; i++) {
-                        if (returnAddressStack.isEmpty()) {
-                            throw new ProgramRangeOutOfBoundsException("Couldn't find opening '['");
-                        }
-                        int matchingOpening = returnAddressStack.pop();
-                        instructions.add(new Instruction(Opcode.JMN, matchingOpening));
-                        Instruction matchingInstruction = instructions.get(matchingOpening);
-                        matchingInstruction.setOperand(address);
-                        address++;
+                    if (enclosingBlocks.isEmpty()) {
+                        throw new ProgramRangeOutOfBoundsException("Couldn't find opening '['");
                     }
+                    Loop loop = new Loop(block, openingAddresses.pop(), i);
+                    block = enclosingBlocks.pop();
+                    block.add(loop);
                     break;
                 default:
                     // Any unrecognized character is ignored.
                     break;
             }
         }
-        return instructions;
+        if (!enclosingBlocks.isEmpty()) {
+            throw new ProgramRangeOutOfBoundsException("Couldn't find closing ']'");
+        }
+        block.normalize();
+        return block;
+    }
+
+    /**
+     * Adds the amount to the last instruction if it has the same opcode,
+     * removing it if the amounts cancel out, or appends a new instruction.
+     * When checked, amounts are only added to those in the same direction,
+     * so that each run is still checked on its own.
+     */
+    private static void combine(Block block, Opcode opcode, int amount, boolean isChecked) {
+        List<Instruction> instructions = block.lastBasicBlock().getInstructions();
+        int last = instructions.size() - 1;
+        if (last >= 0 && instructions.get(last).getOpcode() == opcode
+                && (!isChecked || (instructions.get(last).getOperand() > 0) == (amount > 0))) {
+            int sum = instructions.get(last).getOperand() + amount;
+            if (sum == 0) {
+                instructions.remove(last);
+            } else {
+                instructions.set(last, new Instruction(opcode, sum));
+            }
+        } else {
+            instructions.add(new Instruction(opcode, amount));
+        }
+    }
+
+    /**
+     * Packs a loop tree into {@link Bytecode}, resolving the addresses of
+     * the jump instructions.
+     */
+    private static Bytecode assemble(Block program) {
+        // The address of the instruction is the position in the builder.
+        Bytecode.Builder builder = new Bytecode.Builder(program.size());
+        assemble(program, builder);
+        return builder.build();
+    }
+
+    private static void assemble(Block block, Bytecode.Builder builder) {
+        for (Node node : block.getNodes()) {
+            if (node instanceof Loop) {
+                Loop loop = (Loop) node;
+                int opening = builder.add(Opcode.JMZ, UNKNOWN_ADDRESS);
+                builder.setSourceAddress(opening, loop.getOpeningAddress());
+                assemble(loop.getBody(), builder);
+                int closing = builder.add(Opcode.JMN, opening);
+                builder.setOperand(opening, closing);
+                builder.setSourceAddress(closing, loop.getClosingAddress());
+            } else {
+                for (Instruction instruction : ((BasicBlock) node).getInstructions()) {
+                    int address = builder.add(instruction.getOpcode(), instruction.getOperand(), instruction.getOffset());
+                    if (instruction.getConstant() != null) {
+                        builder.setConstant(address, instruction.getConstant());
+                    }
+                }
+            }
+        }
     }
 }
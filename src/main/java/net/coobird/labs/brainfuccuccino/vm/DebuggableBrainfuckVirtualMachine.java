@@ -0,0 +1,217 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm;
+
+import net.coobird.labs.brainfuccuccino.machine.BrainfuckMachine;
+import net.coobird.labs.brainfuccuccino.machine.debug.Breakpoint;
+import net.coobird.labs.brainfuccuccino.machine.debug.Debuggable;
+import net.coobird.labs.brainfuccuccino.machine.impl.ClassicBrainfuckMachine;
+import net.coobird.labs.brainfuccuccino.machine.state.Introspectable;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineMetrics;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
+import net.coobird.labs.brainfuccuccino.vm.compiler.OptimizationPipeline;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A debuggable brainfuck machine which executes programs on the
+ * {@link BrainfuckVirtualMachine} until a {@link Breakpoint} is added.
+ * <p>
+ * When a breakpoint is added, execution is suspended at the virtual
+ * machine's next safepoint. The memory and memory cell pointer are then
+ * carried over to a {@link ClassicBrainfuckMachine}, which continues from
+ * the corresponding address in the brainfuck program and stops at
+ * breakpoints. This is called deoptimization. Until then, the program runs
+ * as fast as on the virtual machine, and once deoptimized, it continues on
+ * the interpreter even if the breakpoints are removed.
+ * <p>
+ * Breakpoints can be added from another thread while the program is
+ * executing. Breakpoints added before execution starts cause the program to
+ * be run on the interpreter from the beginning.
+ * <p>
+ * Until deoptimized, the program counter returned by {@link #getState()} is
+ * the address in the brainfuck program of the virtual machine's current
+ * instruction, which is only known at safepoints and when execution is
+ * complete. Otherwise, it is {@link Bytecode#NO_SOURCE_ADDRESS}.
+ */
+public class DebuggableBrainfuckVirtualMachine
+        implements BrainfuckMachine, Introspectable<Byte>, Debuggable {
+
+    private final int optimizationLevel;
+    private final ClassicBrainfuckMachine interpreter = new ClassicBrainfuckMachine();
+
+    // These fields are populated for current evaluation.
+    private Bytecode bytecode;
+    private BrainfuckVirtualMachine virtualMachine;
+    private int programLength;
+    private boolean isStarted = false;
+    private boolean isDeoptimized = false;
+    private volatile boolean isBreakpointAdded = false;
+
+    /**
+     * Instantiates a debuggable brainfuck machine which compiles programs
+     * with the maximum optimization level.
+     */
+    public DebuggableBrainfuckVirtualMachine() {
+        this(OptimizationPipeline.MAX_OPTIMIZATION_LEVEL);
+    }
+
+    /**
+     * Instantiates a debuggable brainfuck machine which compiles programs
+     * with the given optimization level.
+     * @param optimizationLevel The optimization level of the
+     *                          {@link BrainfuckVirtualMachineCompiler}.
+     */
+    public DebuggableBrainfuckVirtualMachine(int optimizationLevel) {
+        this.optimizationLevel = optimizationLevel;
+    }
+
+    @Override
+    public void load(byte[] program, InputStream is, OutputStream os) {
+        // Each byte is a character, so that addresses match those of the program.
+        String programStr = new String(program, StandardCharsets.ISO_8859_1);
+        bytecode = new BrainfuckVirtualMachineCompiler().compileToBytecode(programStr, optimizationLevel);
+        virtualMachine = new BrainfuckVirtualMachine(bytecode, is, os);
+        interpreter.load(program, is, os);
+        programLength = program.length;
+        isStarted = false;
+        isDeoptimized = false;
+    }
+
+    @Override
+    public void evaluate(byte[] program, InputStream is, OutputStream os) throws IOException {
+        load(program, is, os);
+        execute();
+    }
+
+    @Override
+    public void execute() throws IOException {
+        if (isComplete()) {
+            throw new IllegalStateException("Execution already complete.");
+        }
+
+        if (!isDeoptimized) {
+            if (!isBreakpointAdded) {
+                isStarted = true;
+                virtualMachine.execute();
+                if (virtualMachine.isComplete()) {
+                    return;
+                }
+            }
+            deoptimize();
+        }
+        interpreter.execute();
+    }
+
+    /**
+     * Moves execution from the virtual machine, which is at the beginning of
+     * the program or at a safepoint, to the interpreter.
+     */
+    private void deoptimize() {
+        MachineState<Byte> state = virtualMachine.getState();
+        int address = 0;
+        if (isStarted) {
+            address = bytecode.getSourceAddresses()[state.getProgramCounter()];
+            if (address == Bytecode.NO_SOURCE_ADDRESS) {
+                throw new IllegalStateException(
+                        "No source address for instruction: " + state.getProgramCounter()
+                );
+            }
+        }
+        interpreter.restoreState(
+                new MachineState<>(address, state.getDataPointer(), state.getMemory())
+        );
+        isDeoptimized = true;
+    }
+
+    @Override
+    public boolean isInterrupted() {
+        return isDeoptimized && interpreter.isInterrupted();
+    }
+
+    @Override
+    public boolean isComplete() {
+        if (isDeoptimized) {
+            return interpreter.isComplete();
+        }
+        // Programs which compile to no instructions are only complete once executed.
+        return isStarted && virtualMachine.isComplete();
+    }
+
+    @Override
+    public void addBreakpoint(Breakpoint breakpoint) {
+        interpreter.addBreakpoint(breakpoint);
+        isBreakpointAdded = true;
+        if (virtualMachine != null) {
+            virtualMachine.suspend();
+        }
+    }
+
+    @Override
+    public void removeBreakpoint(Breakpoint breakpoint) {
+        interpreter.removeBreakpoint(breakpoint);
+    }
+
+    @Override
+    public MachineState<Byte> getState() {
+        if (isDeoptimized) {
+            return interpreter.getState();
+        }
+        MachineState<Byte> state = virtualMachine.getState();
+        int address;
+        if (!isStarted) {
+            address = 0;
+        } else if (virtualMachine.isComplete()) {
+            address = programLength;
+        } else {
+            address = bytecode.getSourceAddresses()[state.getProgramCounter()];
+        }
+        return new MachineState<>(address, state.getDataPointer(), state.getMemory());
+    }
+
+    @Override
+    public MachineMetrics getMetrics() {
+        MachineMetrics optimized = virtualMachine.getMetrics();
+        MachineMetrics interpreted = interpreter.getMetrics();
+        return new MachineMetrics(
+                optimized.getInstructionsExecuted() + interpreted.getInstructionsExecuted(),
+                optimized.getInstructionsSkipped() + interpreted.getInstructionsSkipped(),
+                optimized.getProgramCounterChanges() + interpreted.getProgramCounterChanges()
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "DebuggableBrainfuckVirtualMachine{" +
+                "isDeoptimized=" + isDeoptimized +
+                '}';
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm;
+
+import net.coobird.labs.brainfuccuccino.machine.CellEncoding;
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+import net.coobird.labs.brainfuccuccino.machine.state.Introspectable;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineMetrics;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
+import net.coobird.labs.brainfuccuccino.machine.tape.Tape;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A brainfuck virtual machine whose memory cells are wider than a byte,
+ * with the width of the memory cells given by its {@link Tape}.
+ * <p>
+ * Programs are compiled by the {@link BrainfuckVirtualMachineCompiler} as
+ * for the {@link BrainfuckVirtualMachine}. The optimizations made by the
+ * compiler hold for memory cells of any width, as long as they wrap around
+ * on over- and underflow, which the {@link Tape} implementations do.
+ * The exception is the output computed ahead of time by the
+ * {@link net.coobird.labs.brainfuccuccino.vm.compiler.ConstantOutputPass},
+ * which assumes byte memory cells, so programs for this machine are
+ * compiled at optimization levels below {@code 4}. Programs with
+ * instructions which only hold for byte memory cells, which are
+ * {@code WRITE_CONST} and {@code CHECKED_ADD}, are rejected.
+ * Values are read and written as determined by a {@link CellEncoding}.
+ * <p>
+ * Unlike the {@link BrainfuckVirtualMachine}, programs are only interpreted,
+ * and superinstructions are executed as the instructions they replace.
+ *
+ * @param <T> Boxed type of the memory cell.
+ */
+public class WideBrainfuckVirtualMachine<T> implements Introspectable<T> {
+    private int programCounter = 0;
+    private int dataPointer = 0;
+    private final Tape<T> tape;
+    private final CellEncoding encoding;
+    private final boolean isCircular;
+    // Wraps positions around a circular tape, and leaves them as they are otherwise.
+    private final int mask;
+
+    private long instructionsExecuted = 0;
+    private long programCounterChanges = 0;
+
+    private final byte[] opcodes;
+    private final int[] operands;
+    private final int[] offsets;
+    private final InputStream is;
+    private final OutputStream os;
+
+    /**
+     * Instantiate a brainfuck virtual machine for a packed program and input/output.
+     * @param bytecode  Brainfuck virtual machine program to execute.
+     * @param tape      The memory cells.
+     * @param encoding  How values are read and written.
+     * @param is    An {@link InputStream} for inputs.
+     * @param os    An {@link OutputStream} for outputs.
+     */
+    public WideBrainfuckVirtualMachine(
+            Bytecode bytecode, Tape<T> tape, CellEncoding encoding, InputStream is, OutputStream os
+    ) {
+        this(bytecode, tape, encoding, is, os, false);
+    }
+
+    /**
+     * Instantiate a brainfuck virtual machine for a packed program and input/output.
+     * <p>
+     * When the tape is circular, moving past one end of the tape continues
+     * from the other, rather than throwing a {@link MemoryRangeOutOfBoundsException}.
+     * The size of a circular tape must be a power of two, so that positions
+     * are wrapped around by a mask rather than checked against its bounds.
+     * @param bytecode  Brainfuck virtual machine program to execute.
+     * @param tape      The memory cells.
+     * @param encoding  How values are read and written.
+     * @param is    An {@link InputStream} for inputs.
+     * @param os    An {@link OutputStream} for outputs.
+     * @param isCircular    Whether the tape wraps around at its ends.
+     * @throws IllegalArgumentException If the program has instructions
+     *                                  which only hold for byte memory cells.
+     */
+    public WideBrainfuckVirtualMachine(
+            Bytecode bytecode, Tape<T> tape, CellEncoding encoding, InputStream is, OutputStream os,
+            boolean isCircular
+    ) {
+        for (byte opcode : bytecode.getOpcodes()) {
+            if (opcode == Bytecode.WRITE_CONST || opcode == Bytecode.CHECKED_ADD) {
+                throw new IllegalArgumentException(
+                        "Instruction only holds for byte memory cells: " + Bytecode.decode(opcode)
+                );
+            }
+        }
+        this.isCircular = isCircular;
+        this.mask = isCircular ? Tape.circularMask(tape) : -1;
+        this.opcodes = bytecode.getOpcodes();
+        this.operands = bytecode.getOperands();
+        this.offsets = bytecode.getOffsets();
+        this.tape = tape;
+        this.encoding = encoding;
+        this.is = is;
+        this.os = os;
+    }
+
+    /**
+     * Execute loaded brainfuck virtual machine instructions.
+     * @throws IOException  When an exception is thrown during execution.
+     */
+    public void execute() throws IOException {
+        try {
+            run();
+        } catch (IndexOutOfBoundsException e) {
+            // Memory accesses at an offset are not checked ahead of time.
+            // Tapes held in buffers throw IndexOutOfBoundsException rather than its subclass.
+            throw new MemoryRangeOutOfBoundsException(
+                    String.format(
+                            "Memory cell out of bounds: <%s>",
+                            dataPointer + offsets[programCounter]
+                    )
+            );
+        }
+    }
+
+    private void run() throws IOException {
+        while (programCounter < opcodes.length) {
+            instructionsExecuted++;
+            programCounterChanges++;
+            int operand = operands[programCounter];
+            switch (opcodes[programCounter]) {
+                case Bytecode.MOVE:
+                    move(operand);
+                    break;
+                case Bytecode.ADD:
+                    tape.add((dataPointer + offsets[programCounter]) & mask, operand);
+                    break;
+                case Bytecode.READ:
+                    tape.set((dataPointer + offsets[programCounter]) & mask, encoding.read(is));
+                    break;
+                case Bytecode.WRITE:
+                    encoding.write(os, tape.getUnsigned((dataPointer + offsets[programCounter]) & mask));
+                    break;
+                case Bytecode.SET:
+                    tape.set((dataPointer + offsets[programCounter]) & mask, operand);
+                    break;
+                case Bytecode.MUL:
+                    int value = tape.get(dataPointer);
+                    if (value != 0) {
+                        int target = (dataPointer + offsets[programCounter]) & mask;
+                        if (!tape.contains(target)) {
+                            throw new MemoryRangeOutOfBoundsException(
+                                    String.format(
+                                            "Memory cell out of bounds: <%s>",
+                                            target
+                                    )
+                            );
+                        }
+                        tape.add(target, value * operand);
+                    }
+                    break;
+                case Bytecode.SCAN:
+                    dataPointer = isCircular ? scanAround(operand) : tape.scan(dataPointer, operand);
+                    break;
+                case Bytecode.JMN:
+                    if (tape.get(dataPointer) != 0) {
+                        programCounter = operand;
+                        continue;
+                    }
+                    break;
+                case Bytecode.JMZ:
+                    if (tape.get(dataPointer) == 0) {
+                        programCounter = operand;
+                        continue;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode: " + opcodes[programCounter]);
+            }
+            programCounter++;
+        }
+    }
+
+    private void move(int amount) {
+        if (isCircular) {
+            dataPointer = (dataPointer + amount) & mask;
+            return;
+        }
+        dataPointer += amount;
+        if (!tape.contains(dataPointer)) {
+            throw new MemoryRangeOutOfBoundsException(
+                    String.format(
+                            "Memory cell out of bounds: <%s>",
+                            dataPointer
+                    )
+            );
+        }
+    }
+
+    private int scanAround(int stride) {
+        int position = dataPointer;
+        while (tape.get(position) != 0) {
+            position = (position + stride) & mask;
+        }
+        return position;
+    }
+
+    @Override
+    public MachineState<T> getState() {
+        return new MachineState<>(programCounter, dataPointer, tape.toArray());
+    }
+
+    @Override
+    public MachineMetrics getMetrics() {
+        return new MachineMetrics(
+                instructionsExecuted, 0, programCounterChanges
+        );
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.closure;
+
+import net.coobird.labs.brainfuccuccino.machine.state.Introspectable;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineMetrics;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
+import net.coobird.labs.brainfuccuccino.machine.tape.ByteTape;
+import net.coobird.labs.brainfuccuccino.vm.jit.CompiledProgram;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A brainfuck machine which runs programs compiled into trees of nodes by
+ * the {@link ClosureCompiler}.
+ * <p>
+ * It executes the same {@link Bytecode} as the
+ * {@link net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachine}, and
+ * has the same memory of 30,000 {@code byte} cells, of which only the
+ * footprint of the program is allocated when it is known ahead of time.
+ * The program is compiled when the machine is instantiated.
+ * <p>
+ * As compiled programs run without dispatching on each instruction, the
+ * program counter is only known before and after execution, and no metrics
+ * are recorded.
+ */
+public class ClosureBrainfuckMachine implements Introspectable<Byte> {
+    private static final int SIZE = 30000;
+    private int programCounter = 0;
+    private int dataPointer = 0;
+    private final ByteTape tape;
+    private final byte[] memory;
+
+    private final CompiledProgram program;
+    private final int programSize;
+    private final InputStream is;
+    private final OutputStream os;
+
+    /**
+     * Instantiate a brainfuck machine for a packed program and input/output.
+     * @param bytecode  Brainfuck virtual machine program to compile and execute.
+     * @param is    An {@link InputStream} for inputs.
+     * @param os    An {@link OutputStream} for outputs.
+     */
+    public ClosureBrainfuckMachine(Bytecode bytecode, InputStream is, OutputStream os) {
+        this.program = new ClosureCompiler().compile(bytecode);
+        this.tape = new ByteTape(bytecode.getMemorySize(SIZE));
+        this.memory = tape.array();
+        this.programSize = bytecode.size();
+        this.is = is;
+        this.os = os;
+    }
+
+    /**
+     * Execute the compiled program.
+     * @throws IOException  When an exception is thrown during execution.
+     */
+    public void execute() throws IOException {
+        dataPointer = program.execute(memory, dataPointer, is, os);
+        programCounter = programSize;
+    }
+
+    @Override
+    public MachineState<Byte> getState() {
+        return new MachineState<>(programCounter, dataPointer, tape.toArray(SIZE));
+    }
+
+    @Override
+    public MachineMetrics getMetrics() {
+        return new MachineMetrics(0, 0, 0);
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.closure;
+
+import net.coobird.labs.brainfuccuccino.vm.jit.CompiledProgram;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles {@link Bytecode} for the {@link net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachine}
+ * into a tree of nodes, where each instruction and loop is an object which
+ * executes itself.
+ * <p>
+ * Rather than dispatching on each opcode as the virtual machine does, each
+ * node calls its children directly. Runs of straight-line instructions are
+ * combined into a single node, which changes memory cells without a call
+ * for each instruction. Unlike the {@link net.coobird.labs.brainfuccuccino.vm.jit.JitCompiler},
+ * no classes are defined at runtime, so it can be used where that isn't
+ * permitted.
+ */
+public final class ClosureCompiler {
+    /**
+     * Compiles a program into a tree of nodes.
+     * @param bytecode  The program to compile.
+     * @return  The compiled program.
+     */
+    public CompiledProgram compile(Bytecode bytecode) {
+        return compile(bytecode, 0, bytecode.size());
+    }
+
+    /**
+     * Compiles part of a program into a tree of nodes.
+     * <p>
+     * The part of the program must consist of whole loops, such as a single
+     * loop from its {@code JMZ} to its {@code JMN} instruction.
+     * @param bytecode  The program to compile.
+     * @param start     The address of the first instruction to compile.
+     * @param end       The address after the last instruction to compile.
+     * @return  The compiled part of the program.
+     */
+    public CompiledProgram compile(Bytecode bytecode, int start, int end) {
+        if (start < 0 || end > bytecode.size() || start > end) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid range: <%s> to <%s>", start, end)
+            );
+        }
+        return new Program(new TreeBuilder(bytecode).build(start, end));
+    }
+
+    private static final class Program implements CompiledProgram {
+        private final Node root;
+
+        private Program(Node root) {
+            this.root = root;
+        }
+
+        @Override
+        public int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) throws IOException {
+            return root.execute(memory, dataPointer, is, os);
+        }
+    }
+
+    /**
+     * Collects the instructions of a {@link Node.Run}, with offsets relative
+     * to the position of the memory cell pointer at the start of the run.
+     */
+    private static final class RunBuilder {
+        // The opcode and amount of the change to each memory cell since the last MUL, by offset.
+        private final Map<Integer, int[]> changes = new LinkedHashMap<>();
+        private final List<int[]> instructions = new ArrayList<>();
+        private int position = 0;
+        private int lowest = 0;
+        private int highest = 0;
+
+        private void add(byte opcode, int operand, int offset) {
+            int target = position + offset;
+            switch (opcode) {
+                case Bytecode.MOVE:
+                    position += operand;
+                    use(position);
+                    return;
+                case Bytecode.MUL:
+                    flush();
+                    instructions.add(new int[] {Bytecode.MUL, target, position, operand});
+                    break;
+                case Bytecode.SET:
+                    changes.put(target, new int[] {Bytecode.SET, operand});
+                    break;
+                default:
+                    int[] change = changes.get(target);
+                    if (change == null) {
+                        changes.put(target, new int[] {Bytecode.ADD, operand});
+                    } else {
+                        change[1] += operand;
+                    }
+            }
+            use(target);
+        }
+
+        private void use(int offset) {
+            lowest = Math.min(lowest, offset);
+            highest = Math.max(highest, offset);
+        }
+
+        private void flush() {
+            for (Map.Entry<Integer, int[]> change : changes.entrySet()) {
+                int opcode = change.getValue()[0];
+                int amount = change.getValue()[1];
+                if (opcode == Bytecode.SET || (byte) amount != 0) {
+                    instructions.add(new int[] {opcode, change.getKey(), 0, amount});
+                }
+            }
+            changes.clear();
+        }
+
+        private Node.Run build(Node[] nodes) {
+            flush();
+            int size = instructions.size();
+            byte[] opcodes = new byte[size];
+            int[] offsets = new int[size];
+            int[] sources = new int[size];
+            int[] amounts = new int[size];
+            for (int i = 0; i < size; i++) {
+                int[] instruction = instructions.get(i);
+                opcodes[i] = (byte) instruction[0];
+                offsets[i] = instruction[1];
+                sources[i] = instruction[2];
+                amounts[i] = instruction[3];
+            }
+            return new Node.Run(opcodes, offsets, sources, amounts, position, lowest, highest, nodes);
+        }
+    }
+
+    private static final class TreeBuilder {
+        private final byte[] opcodes;
+        private final int[] operands;
+        private final int[] offsets;
+        private final byte[][] constants;
+
+        private TreeBuilder(Bytecode bytecode) {
+            this.opcodes = bytecode.getOpcodes();
+            this.operands = bytecode.getOperands();
+            this.offsets = bytecode.getOffsets();
+            this.constants = bytecode.getConstants();
+        }
+
+        /**
+         * Builds the instructions and loops from start (inclusive) to end
+         * (exclusive) into a single node.
+         */
+        private Node build(int start, int end) {
+            List<Node> nodes = new ArrayList<>();
+            int address = start;
+            while (address < end) {
+                if (opcodes[address] == Bytecode.JMZ) {
+                    int closing = operands[address];
+                    Node body = build(address + 1, closing);
+                    nodes.add(body instanceof Node.Run ? new Node.RunLoop((Node.Run) body) : new Node.Loop(body));
+                    address = closing + 1;
+                } else if (isStraightLine(opcodes[address])) {
+                    int runEnd = address + 1;
+                    while (runEnd < end && isStraightLine(opcodes[runEnd])) {
+                        runEnd++;
+                    }
+                    nodes.add(runEnd - address == 1 ? build(address) : buildRun(address, runEnd));
+                    address = runEnd;
+                } else {
+                    nodes.add(build(address));
+                    address++;
+                }
+            }
+            // A single node doesn't need to be wrapped, saving a call.
+            return nodes.size() == 1 ? nodes.get(0) : new Node.Block(nodes.toArray(new Node[0]));
+        }
+
+        private static boolean isStraightLine(byte opcode) {
+            return opcode == Bytecode.ADD || opcode == Bytecode.SET
+                    || opcode == Bytecode.MUL || opcode == Bytecode.MOVE;
+        }
+
+        /**
+         * Builds the straight-line instructions from start (inclusive) to end
+         * (exclusive) into a single {@link Node.Run}. Changes to the same
+         * memory cell between {@code MUL}s are combined into one.
+         */
+        private Node buildRun(int start, int end) {
+            RunBuilder run = new RunBuilder();
+            Node[] nodes = new Node[end - start];
+            for (int address = start; address < end; address++) {
+                nodes[address - start] = build(address);
+                run.add(opcodes[address], operands[address], offsets[address]);
+            }
+            return run.build(nodes);
+        }
+
+        private Node build(int address) {
+            int operand = operands[address];
+            int offset = offsets[address];
+            switch (opcodes[address]) {
+                case Bytecode.ADD:
+                    return offset == 0 ? new Node.Add(operand) : new Node.AddAt(operand, offset);
+                case Bytecode.MOVE:
+                    return new Node.Move(operand);
+                case Bytecode.READ:
+                    return offset == 0 ? new Node.Read() : new Node.ReadAt(offset);
+                case Bytecode.WRITE:
+                    return offset == 0 ? new Node.Write() : new Node.WriteAt(offset);
+                case Bytecode.SET:
+                    return offset == 0 ? new Node.Set((byte) operand) : new Node.SetAt((byte) operand, offset);
+                case Bytecode.MUL:
+                    return new Node.Multiply(operand, offset);
+                case Bytecode.SCAN:
+                    return new Node.Scan(operand);
+                case Bytecode.CHECKED_ADD:
+                    return new Node.CheckedAdd(operand, offset);
+                case Bytecode.WRITE_CONST:
+                    return new Node.WriteConstant(constants[address]);
+                default:
+                    throw new IllegalStateException("Unexpected opcode: " + opcodes[address]);
+            }
+        }
+    }
+}
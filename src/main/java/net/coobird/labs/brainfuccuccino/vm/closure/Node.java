@@ -0,0 +1,390 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.closure;
+
+import net.coobird.labs.brainfuccuccino.machine.MemoryCellOverflowException;
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A node of a program compiled into a tree by the {@link ClosureCompiler}.
+ * <p>
+ * Each opcode and loop shape has a subclass of its own, whose
+ * {@link #execute(byte[], int, InputStream, OutputStream)} method only does
+ * what that node needs. Calls from a {@link Loop} or {@link Block} to its
+ * children are shared by every node of the program, so the JVM can't
+ * inline them. Straight-line code is therefore executed by a single
+ * {@link Run}, and a loop whose body is a run calls it directly.
+ * <p>
+ * Memory cells at an offset are checked explicitly, so that the position of
+ * a memory cell out of bounds can be reported. The current memory cell
+ * is always within memory, as the memory cell pointer is checked when moved.
+ */
+abstract class Node {
+    /**
+     * Executes this node.
+     * @param memory        Memory cells of the brainfuck machine.
+     * @param dataPointer   Position of the memory cell pointer.
+     * @param is    An {@link InputStream} for inputs.
+     * @param os    An {@link OutputStream} for outputs.
+     * @return  Position of the memory cell pointer after execution.
+     * @throws IOException  When an exception is thrown during execution.
+     */
+    abstract int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) throws IOException;
+
+    private static int checked(byte[] memory, int position) {
+        if (position < 0 || position >= memory.length) {
+            throw new MemoryRangeOutOfBoundsException(
+                    String.format(
+                            "Memory cell out of bounds: <%s>",
+                            position
+                    )
+            );
+        }
+        return position;
+    }
+
+    private static byte read(InputStream is) throws IOException {
+        byte inData = (byte) is.read();
+        return inData == -1 ? 0 : inData;
+    }
+
+    static final class Add extends Node {
+        private final int amount;
+
+        Add(int amount) {
+            this.amount = amount;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) {
+            memory[dataPointer] += amount;
+            return dataPointer;
+        }
+    }
+
+    static final class AddAt extends Node {
+        private final int amount;
+        private final int offset;
+
+        AddAt(int amount, int offset) {
+            this.amount = amount;
+            this.offset = offset;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) {
+            memory[checked(memory, dataPointer + offset)] += amount;
+            return dataPointer;
+        }
+    }
+
+    static final class CheckedAdd extends Node {
+        private final int amount;
+        private final int offset;
+
+        CheckedAdd(int amount, int offset) {
+            this.amount = amount;
+            this.offset = offset;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) {
+            int position = offset == 0 ? dataPointer : checked(memory, dataPointer + offset);
+            int value = memory[position] + amount;
+            if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+                // Adding one at a time stops at the end of the range.
+                byte limit = value < Byte.MIN_VALUE ? Byte.MIN_VALUE : Byte.MAX_VALUE;
+                memory[position] = limit;
+                throw new MemoryCellOverflowException(
+                        String.format(
+                                "Value <%s> out of bounds at <%s>",
+                                limit, position
+                        )
+                );
+            }
+            memory[position] = (byte) value;
+            return dataPointer;
+        }
+    }
+
+    static final class Move extends Node {
+        private final int amount;
+
+        Move(int amount) {
+            this.amount = amount;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) {
+            return checked(memory, dataPointer + amount);
+        }
+    }
+
+    static final class Set extends Node {
+        private final byte value;
+
+        Set(byte value) {
+            this.value = value;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) {
+            memory[dataPointer] = value;
+            return dataPointer;
+        }
+    }
+
+    static final class SetAt extends Node {
+        private final byte value;
+        private final int offset;
+
+        SetAt(byte value, int offset) {
+            this.value = value;
+            this.offset = offset;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) {
+            memory[checked(memory, dataPointer + offset)] = value;
+            return dataPointer;
+        }
+    }
+
+    static final class Read extends Node {
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) throws IOException {
+            memory[dataPointer] = read(is);
+            return dataPointer;
+        }
+    }
+
+    static final class ReadAt extends Node {
+        private final int offset;
+
+        ReadAt(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) throws IOException {
+            memory[checked(memory, dataPointer + offset)] = read(is);
+            return dataPointer;
+        }
+    }
+
+    static final class Write extends Node {
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) throws IOException {
+            os.write(memory[dataPointer]);
+            return dataPointer;
+        }
+    }
+
+    static final class WriteConstant extends Node {
+        private final byte[] constant;
+
+        WriteConstant(byte[] constant) {
+            this.constant = constant;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) throws IOException {
+            os.write(constant, 0, constant.length);
+            return dataPointer;
+        }
+    }
+
+    static final class WriteAt extends Node {
+        private final int offset;
+
+        WriteAt(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) throws IOException {
+            os.write(memory[checked(memory, dataPointer + offset)]);
+            return dataPointer;
+        }
+    }
+
+    static final class Multiply extends Node {
+        private final int factor;
+        private final int offset;
+
+        Multiply(int factor, int offset) {
+            this.factor = factor;
+            this.offset = offset;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) {
+            byte value = memory[dataPointer];
+            if (value != 0) {
+                memory[checked(memory, dataPointer + offset)] += (byte) (value * factor);
+            }
+            return dataPointer;
+        }
+    }
+
+    static final class Scan extends Node {
+        private final int stride;
+
+        Scan(int stride) {
+            this.stride = stride;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) {
+            while (memory[dataPointer] != 0) {
+                dataPointer = checked(memory, dataPointer + stride);
+            }
+            return dataPointer;
+        }
+    }
+
+    /**
+     * A run of {@code ADD}, {@code SET}, {@code MUL} and {@code MOVE}
+     * instructions, executed without a call for each instruction.
+     * <p>
+     * Moves are folded into the offsets of the instructions, which are
+     * relative to the position of the memory cell pointer at the start of
+     * the run. Where every memory cell the run may use is within memory,
+     * the instructions are executed without checking each of them.
+     * Otherwise, the nodes of the instructions are executed one at a time,
+     * so that the same exception is thrown at the same point.
+     */
+    static final class Run extends Node {
+        private final byte[] opcodes;
+        private final int[] offsets;
+        // The offset of the memory cell which multiplies the amount of a MUL.
+        private final int[] sources;
+        private final int[] amounts;
+        private final int move;
+        // The range of offsets of the memory cells the run may use.
+        private final int lowest;
+        private final int highest;
+        private final Node[] nodes;
+
+        Run(byte[] opcodes, int[] offsets, int[] sources, int[] amounts, int move, int lowest, int highest, Node[] nodes) {
+            this.opcodes = opcodes;
+            this.offsets = offsets;
+            this.sources = sources;
+            this.amounts = amounts;
+            this.move = move;
+            this.lowest = lowest;
+            this.highest = highest;
+            this.nodes = nodes;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) throws IOException {
+            if (dataPointer + lowest < 0 || dataPointer + highest >= memory.length) {
+                for (Node node : nodes) {
+                    dataPointer = node.execute(memory, dataPointer, is, os);
+                }
+                return dataPointer;
+            }
+            for (int i = 0; i < opcodes.length; i++) {
+                int position = dataPointer + offsets[i];
+                switch (opcodes[i]) {
+                    case Bytecode.ADD:
+                        memory[position] += amounts[i];
+                        break;
+                    case Bytecode.SET:
+                        memory[position] = (byte) amounts[i];
+                        break;
+                    default:
+                        memory[position] += (byte) (memory[dataPointer + sources[i]] * amounts[i]);
+                }
+            }
+            return dataPointer + move;
+        }
+    }
+
+    /**
+     * A loop whose body is a single {@link Run}, which is called directly.
+     */
+    static final class RunLoop extends Node {
+        private final Run body;
+
+        RunLoop(Run body) {
+            this.body = body;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) throws IOException {
+            while (memory[dataPointer] != 0) {
+                dataPointer = body.execute(memory, dataPointer, is, os);
+            }
+            return dataPointer;
+        }
+    }
+
+    /**
+     * A loop, whose body is a single node or a {@link Block}.
+     */
+    static final class Loop extends Node {
+        private final Node body;
+
+        Loop(Node body) {
+            this.body = body;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) throws IOException {
+            while (memory[dataPointer] != 0) {
+                dataPointer = body.execute(memory, dataPointer, is, os);
+            }
+            return dataPointer;
+        }
+    }
+
+    /**
+     * A sequence of nodes, executed in order.
+     */
+    static final class Block extends Node {
+        private final Node[] nodes;
+
+        Block(Node[] nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        int execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) throws IOException {
+            for (Node node : nodes) {
+                dataPointer = node.execute(memory, dataPointer, is, os);
+            }
+            return dataPointer;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sequence of instructions without jumps, which is executed from start
+ * to end.
+ */
+public final class BasicBlock implements Node {
+    private final List<Instruction> instructions;
+
+    public BasicBlock() {
+        this.instructions = new ArrayList<>();
+    }
+
+    public BasicBlock(List<Instruction> instructions) {
+        this.instructions = new ArrayList<>(instructions);
+    }
+
+    /**
+     * Returns the instructions of this basic block.
+     * The returned list can be modified by optimization passes.
+     * @return  The instructions.
+     */
+    public List<Instruction> getInstructions() {
+        return instructions;
+    }
+
+    @Override
+    public int size() {
+        return instructions.size();
+    }
+
+    @Override
+    public String toString() {
+        return "BasicBlock{" +
+                "instructions=" + instructions +
+                '}';
+    }
+}
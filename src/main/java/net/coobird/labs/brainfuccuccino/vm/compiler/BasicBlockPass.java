@@ -0,0 +1,58 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+
+import java.util.List;
+
+/**
+ * An optimization pass which transforms each {@link BasicBlock} of a
+ * program independently.
+ */
+public abstract class BasicBlockPass implements Pass {
+    @Override
+    public void apply(Block program) {
+        for (Node node : program.getNodes()) {
+            if (node instanceof Loop) {
+                apply(((Loop) node).getBody());
+            } else {
+                List<Instruction> instructions = ((BasicBlock) node).getInstructions();
+                List<Instruction> transformed = transform(instructions);
+                instructions.clear();
+                instructions.addAll(transformed);
+            }
+        }
+    }
+
+    /**
+     * Transforms the instructions of a basic block.
+     * @param instructions  The instructions of a basic block.
+     * @return  The transformed instructions.
+     */
+    protected abstract List<Instruction> transform(List<Instruction> instructions);
+}
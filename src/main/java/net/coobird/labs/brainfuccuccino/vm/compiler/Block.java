@@ -0,0 +1,128 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sequence of {@link Node}s, which is either a whole program or the body
+ * of a {@link Loop}.
+ */
+public final class Block {
+    private final List<Node> nodes = new ArrayList<>();
+
+    /**
+     * Returns the nodes of this block.
+     * The returned list can be modified by optimization passes.
+     * @return  The nodes.
+     */
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Appends an instruction to the last basic block, adding a basic block
+     * if this block doesn't end with one.
+     * @param instruction   The instruction to append.
+     */
+    public void add(Instruction instruction) {
+        lastBasicBlock().getInstructions().add(instruction);
+    }
+
+    /**
+     * Appends a node to this block.
+     * @param node  The node to append.
+     */
+    public void add(Node node) {
+        nodes.add(node);
+    }
+
+    /**
+     * Returns the last basic block, adding a basic block if this block
+     * doesn't end with one.
+     * @return  The last basic block.
+     */
+    public BasicBlock lastBasicBlock() {
+        if (!nodes.isEmpty() && nodes.get(nodes.size() - 1) instanceof BasicBlock) {
+            return (BasicBlock) nodes.get(nodes.size() - 1);
+        }
+        BasicBlock basicBlock = new BasicBlock();
+        nodes.add(basicBlock);
+        return basicBlock;
+    }
+
+    /**
+     * Returns the number of virtual machine instructions this block will be
+     * compiled into.
+     * @return  The number of instructions.
+     */
+    public int size() {
+        int size = 0;
+        for (Node node : nodes) {
+            size += node.size();
+        }
+        return size;
+    }
+
+    /**
+     * Merges adjacent basic blocks and removes empty basic blocks, here and
+     * in the bodies of loops.
+     */
+    public void normalize() {
+        List<Node> normalized = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            if (node instanceof Loop) {
+                ((Loop) node).getBody().normalize();
+                normalized.add(node);
+                continue;
+            }
+
+            List<Instruction> instructions = ((BasicBlock) node).getInstructions();
+            if (instructions.isEmpty()) {
+                continue;
+            }
+            int last = normalized.size() - 1;
+            if (last >= 0 && normalized.get(last) instanceof BasicBlock) {
+                ((BasicBlock) normalized.get(last)).getInstructions().addAll(instructions);
+            } else {
+                normalized.add(new BasicBlock(instructions));
+            }
+        }
+        nodes.clear();
+        nodes.addAll(normalized);
+    }
+
+    @Override
+    public String toString() {
+        return "Block{" +
+                "nodes=" + nodes +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+import net.coobird.labs.brainfuccuccino.vm.model.Opcode;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Replaces loops which clear the current memory cell, such as {@code [-]}
+ * and {@code [+]}, with a {@link Opcode#SET} instruction.
+ * <p>
+ * A loop which changes the current memory cell by an odd amount on each
+ * iteration always reaches zero, as memory cells wrap around.
+ */
+public final class ClearLoopPass extends LoopReplacementPass {
+    @Override
+    protected List<Instruction> replace(List<Instruction> body) {
+        if (body.size() == 1
+                && body.get(0).getOpcode() == Opcode.ADD
+                && body.get(0).getOffset() == 0
+                && body.get(0).getOperand() % 2 != 0) {
+            return Collections.singletonList(new Instruction(Opcode.SET, 0));
+        }
+        return null;
+    }
+}
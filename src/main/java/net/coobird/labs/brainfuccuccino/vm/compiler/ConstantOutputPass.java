@@ -0,0 +1,448 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+import net.coobird.labs.brainfuccuccino.vm.model.Opcode;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs instructions which only use memory cells of known values ahead of
+ * time, and writes their output with a single {@link Opcode#WRITE_CONST}.
+ * <p>
+ * Every memory cell holds zero at the start of the program, and the
+ * current memory cell holds zero after a loop. Values are followed from
+ * these points through the {@code ADD}, {@code SET}, {@code MUL},
+ * {@code SCAN}, {@code MOVE} and {@code WRITE} instructions which only use
+ * known values. Loops are run ahead of time in the same way, up to a limit
+ * on the number of instructions for the whole program, so loops which
+ * build constants in memory cells, such as those of {@code hello_world.bf},
+ * don't run at all.
+ * <p>
+ * Instructions are only run ahead of time where the memory cells they use
+ * are known to be within memory, so that a program which goes out of
+ * bounds writes the same output before it fails. From the start of the
+ * program, these are the cells of a memory of the given size. Otherwise,
+ * they are the cells between those the program has already used.
+ * <p>
+ * Each run of such instructions is replaced with a {@code WRITE_CONST} of
+ * its output, followed by a {@code SET} of each memory cell it changed and
+ * the net pointer move, which leaves memory as the run would have. Runs are
+ * only replaced where this takes fewer instructions.
+ * <p>
+ * Values wrap around as bytes, so this pass only holds for programs with
+ * byte memory cells.
+ */
+public final class ConstantOutputPass implements Pass {
+    /**
+     * The number of memory cells of the machines which run bytecode.
+     */
+    public static final int DEFAULT_MEMORY_SIZE = 30000;
+
+    // Maximum number of instructions run ahead of time in loops, for the whole program.
+    private static final int MAX_STEPS = 100000;
+
+    private final int memorySize;
+
+    /**
+     * Instantiates the pass for programs with a memory of
+     * {@link #DEFAULT_MEMORY_SIZE} cells.
+     */
+    public ConstantOutputPass() {
+        this(DEFAULT_MEMORY_SIZE);
+    }
+
+    /**
+     * Instantiates the pass for programs with a memory of the given size.
+     * @param memorySize    The number of memory cells. Must be positive.
+     */
+    public ConstantOutputPass(int memorySize) {
+        if (memorySize <= 0) {
+            throw new IllegalArgumentException("Memory size must be a positive value.");
+        }
+        this.memorySize = memorySize;
+    }
+
+    @Override
+    public void apply(Block program) {
+        apply(program, Values.atProgramStart(memorySize, new StepBudget()));
+    }
+
+    private static void apply(Block block, Values values) {
+        Block optimized = new Block();
+        // The nodes run ahead of time since the last replacement.
+        Block run = new Block();
+        for (Node node : block.getNodes()) {
+            if (node instanceof Loop) {
+                Loop loop = (Loop) node;
+                if (values.get(0) != null && values.hasSteps()) {
+                    // The loop may not finish within the limit, so it is run on an attempt first.
+                    Values attempt = values.attempt();
+                    if (run(loop, attempt)) {
+                        values.accept(attempt);
+                        run.add(loop);
+                        continue;
+                    }
+                }
+                replace(run, values, optimized);
+                apply(loop.getBody(), values.forLoopBody());
+                optimized.add(loop);
+                // The loop ends where the current memory cell is zero.
+                values.forget();
+                values.assume(0, 0);
+                continue;
+            }
+            for (Instruction instruction : ((BasicBlock) node).getInstructions()) {
+                if (run(instruction, values)) {
+                    run.add(instruction);
+                    continue;
+                }
+                replace(run, values, optimized);
+                optimized.add(instruction);
+                values.forget(instruction);
+            }
+        }
+        replace(run, values, optimized);
+        block.getNodes().clear();
+        block.getNodes().addAll(optimized.getNodes());
+    }
+
+    /**
+     * Appends the instructions which replace a run to the optimized block,
+     * or the run itself where it takes fewer instructions.
+     */
+    private static void replace(Block run, Values values, Block optimized) {
+        List<Instruction> replacement = values.endRun();
+        if (replacement.size() < run.size()) {
+            for (Instruction instruction : replacement) {
+                optimized.add(instruction);
+            }
+        } else {
+            optimized.getNodes().addAll(run.getNodes());
+        }
+        run.getNodes().clear();
+    }
+
+    /**
+     * Runs a loop ahead of time.
+     * @return  {@code true} if the loop finished, {@code false} if it uses
+     *          an unknown value or doesn't finish within the limit.
+     */
+    private static boolean run(Loop loop, Values values) {
+        while (true) {
+            Integer condition = values.get(0);
+            if (condition == null) {
+                return false;
+            }
+            if (condition == 0) {
+                return true;
+            }
+            if (!values.spend(loop.size())) {
+                return false;
+            }
+            for (Node node : loop.getBody().getNodes()) {
+                if (node instanceof Loop) {
+                    if (!run((Loop) node, values)) {
+                        return false;
+                    }
+                    continue;
+                }
+                for (Instruction instruction : ((BasicBlock) node).getInstructions()) {
+                    if (!run(instruction, values)) {
+                        return false;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs an instruction ahead of time. The values are left unchanged
+     * where the instruction can't be run.
+     * @return  {@code true} if the instruction was run, {@code false} otherwise.
+     */
+    private static boolean run(Instruction instruction, Values values) {
+        int operand = instruction.getOperand();
+        int offset = instruction.getOffset();
+        Integer value;
+        switch (instruction.getOpcode()) {
+            case MOVE:
+                return values.move(operand);
+            case SET:
+                return values.set(offset, (byte) operand);
+            case ADD:
+                value = values.get(offset);
+                return value != null && values.set(offset, (byte) (value + operand));
+            case MUL:
+                Integer factor = values.get(0);
+                if (factor == null) {
+                    return false;
+                }
+                if (factor == 0) {
+                    return true;
+                }
+                value = values.get(offset);
+                return value != null && values.set(offset, (byte) (value + factor * operand));
+            case SCAN:
+                return values.scan(operand);
+            case WRITE:
+                value = values.get(offset);
+                if (value == null) {
+                    return false;
+                }
+                values.write(value);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The number of instructions which may still be run ahead of time in
+     * loops, which is shared by all loops of a program.
+     */
+    private static final class StepBudget {
+        private int remaining = MAX_STEPS;
+    }
+
+    /**
+     * The values of memory cells, by their position relative to the memory
+     * cell pointer where the values started being tracked, and the effects
+     * of the run of instructions since the last replacement.
+     */
+    private static final class Values {
+        // A value of null is unknown.
+        private final Map<Integer, Integer> values = new HashMap<>();
+        // The values of memory cells changed by the run, before they were changed.
+        private final Map<Integer, Integer> originalValues = new LinkedHashMap<>();
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final StepBudget budget;
+        private boolean isZeroElsewhere;
+        // The range of positions which are known to be within memory.
+        private int lowest;
+        private int highest;
+        private int position = 0;
+        // The position at the start of the run.
+        private int start = 0;
+
+        private Values(boolean isZeroElsewhere, int lowest, int highest, StepBudget budget) {
+            this.isZeroElsewhere = isZeroElsewhere;
+            this.lowest = lowest;
+            this.highest = highest;
+            this.budget = budget;
+        }
+
+        private static Values atProgramStart(int memorySize, StepBudget budget) {
+            return new Values(true, 0, memorySize - 1, budget);
+        }
+
+        /**
+         * Returns the values at the start of a loop's body, where only the
+         * current memory cell is known to be within memory.
+         */
+        private Values forLoopBody() {
+            return new Values(false, 0, 0, budget);
+        }
+
+        /**
+         * Returns values to run instructions on, which are only kept if
+         * {@link #accept(Values)}ed. The run's output and changes so far
+         * aren't copied.
+         */
+        private Values attempt() {
+            Values attempt = new Values(isZeroElsewhere, lowest, highest, budget);
+            attempt.values.putAll(values);
+            attempt.position = position;
+            attempt.start = start;
+            return attempt;
+        }
+
+        /**
+         * Keeps the values and the effects of an attempt.
+         */
+        private void accept(Values attempt) {
+            values.clear();
+            values.putAll(attempt.values);
+            for (Map.Entry<Integer, Integer> originalValue : attempt.originalValues.entrySet()) {
+                // Memory cells which the run hadn't changed before the attempt held their original values.
+                originalValues.putIfAbsent(originalValue.getKey(), originalValue.getValue());
+            }
+            output.write(attempt.output.toByteArray(), 0, attempt.output.size());
+            position = attempt.position;
+        }
+
+        private boolean hasSteps() {
+            return budget.remaining > 0;
+        }
+
+        /**
+         * Takes steps from the budget.
+         * @return  {@code true} if there were enough steps left, {@code false}
+         *          otherwise, after which no more steps are left.
+         */
+        private boolean spend(int steps) {
+            if (steps > budget.remaining) {
+                budget.remaining = 0;
+                return false;
+            }
+            budget.remaining -= steps;
+            return true;
+        }
+
+        private boolean isAccessible(int target) {
+            return lowest <= target && target <= highest;
+        }
+
+        private Integer get(int offset) {
+            return valueAt(position + offset);
+        }
+
+        private Integer valueAt(int target) {
+            if (!isAccessible(target)) {
+                return null;
+            }
+            if (values.containsKey(target)) {
+                return values.get(target);
+            }
+            return isZeroElsewhere ? 0 : null;
+        }
+
+        private boolean set(int offset, int value) {
+            int target = position + offset;
+            if (!isAccessible(target)) {
+                return false;
+            }
+            if (!originalValues.containsKey(target)) {
+                originalValues.put(target, get(offset));
+            }
+            values.put(target, value);
+            return true;
+        }
+
+        private boolean move(int amount) {
+            if (!isAccessible(position + amount)) {
+                return false;
+            }
+            position += amount;
+            return true;
+        }
+
+        private boolean scan(int stride) {
+            int target = position;
+            while (true) {
+                Integer value = valueAt(target);
+                if (value == null) {
+                    return false;
+                }
+                if (value == 0) {
+                    position = target;
+                    return true;
+                }
+                target += stride;
+            }
+        }
+
+        private void write(int value) {
+            output.write(value);
+        }
+
+        /**
+         * Records the value of a memory cell which the program already holds.
+         */
+        private void assume(int offset, int value) {
+            values.put(position + offset, value);
+        }
+
+        /**
+         * Forgets the values which an instruction which couldn't be run may change.
+         */
+        private void forget(Instruction instruction) {
+            switch (instruction.getOpcode()) {
+                case SCAN:
+                    forget();
+                    assume(0, 0);
+                    break;
+                case MOVE:
+                    forget();
+                    break;
+                case MUL:
+                    // The memory cell at the offset is only used where the current memory cell isn't zero.
+                    values.put(position + instruction.getOffset(), null);
+                    break;
+                default:
+                    int target = position + instruction.getOffset();
+                    values.put(target, null);
+                    // Execution only continues if the memory cell was within memory.
+                    lowest = Math.min(lowest, target);
+                    highest = Math.max(highest, target);
+            }
+        }
+
+        /**
+         * Forgets every value, as the memory cell pointer has moved by an
+         * amount which isn't known.
+         */
+        private void forget() {
+            values.clear();
+            isZeroElsewhere = false;
+            lowest = 0;
+            highest = 0;
+            position = 0;
+            start = 0;
+        }
+
+        /**
+         * Ends the run, returning the instructions which have the same
+         * effects as the run.
+         */
+        private List<Instruction> endRun() {
+            List<Instruction> instructions = new ArrayList<>();
+            if (output.size() > 0) {
+                instructions.add(new Instruction(Opcode.WRITE_CONST, output.toByteArray()));
+            }
+            for (Map.Entry<Integer, Integer> originalValue : originalValues.entrySet()) {
+                Integer value = values.get(originalValue.getKey());
+                if (!value.equals(originalValue.getValue())) {
+                    instructions.add(new Instruction(Opcode.SET, value, originalValue.getKey() - start));
+                }
+            }
+            if (position != start) {
+                instructions.add(new Instruction(Opcode.MOVE, position - start));
+            }
+            originalValues.clear();
+            output.reset();
+            start = position;
+            return instructions;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
+
+/**
+ * A loop, corresponding to brainfuck's {@code [} and {@code ]}.
+ * The body is executed while the current memory cell is nonzero.
+ * <p>
+ * The addresses of the {@code [} and {@code ]} in the brainfuck program are
+ * kept, so that the compiled jump instructions can be mapped back to them.
+ */
+public final class Loop implements Node {
+    private final Block body;
+    private final int openingAddress;
+    private final int closingAddress;
+
+    public Loop(Block body) {
+        this(body, Bytecode.NO_SOURCE_ADDRESS, Bytecode.NO_SOURCE_ADDRESS);
+    }
+
+    public Loop(Block body, int openingAddress, int closingAddress) {
+        this.body = body;
+        this.openingAddress = openingAddress;
+        this.closingAddress = closingAddress;
+    }
+
+    public Block getBody() {
+        return body;
+    }
+
+    /**
+     * Returns the address of the {@code [} in the brainfuck program.
+     * @return  The address, or {@link Bytecode#NO_SOURCE_ADDRESS} if not known.
+     */
+    public int getOpeningAddress() {
+        return openingAddress;
+    }
+
+    /**
+     * Returns the address of the {@code ]} in the brainfuck program.
+     * @return  The address, or {@link Bytecode#NO_SOURCE_ADDRESS} if not known.
+     */
+    public int getClosingAddress() {
+        return closingAddress;
+    }
+
+    /**
+     * Returns the number of instructions of the body, and the two jump
+     * instructions which enclose it.
+     * @return  The number of instructions.
+     */
+    @Override
+    public int size() {
+        return body.size() + 2;
+    }
+
+    @Override
+    public String toString() {
+        return "Loop{" +
+                "body=" + body +
+                ", openingAddress=" + openingAddress +
+                ", closingAddress=" + closingAddress +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+
+import java.util.List;
+
+/**
+ * An optimization pass which replaces loops with straight-line instructions.
+ * <p>
+ * Loops are visited innermost first, so a loop whose inner loops were all
+ * replaced can itself be replaced.
+ */
+public abstract class LoopReplacementPass implements Pass {
+    @Override
+    public void apply(Block program) {
+        List<Node> nodes = program.getNodes();
+        for (int i = 0; i < nodes.size(); i++) {
+            if (!(nodes.get(i) instanceof Loop)) {
+                continue;
+            }
+            Loop loop = (Loop) nodes.get(i);
+            apply(loop.getBody());
+            loop.getBody().normalize();
+
+            List<Node> body = loop.getBody().getNodes();
+            if (body.size() == 1 && body.get(0) instanceof BasicBlock) {
+                List<Instruction> replacement = replace(((BasicBlock) body.get(0)).getInstructions());
+                if (replacement != null) {
+                    nodes.set(i, new BasicBlock(replacement));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the instructions to replace a loop with, given the body of a
+     * loop which doesn't contain other loops.
+     * @param body  The instructions of the loop body.
+     * @return  The replacement instructions, or {@code null} to keep the loop.
+     */
+    protected abstract List<Instruction> replace(List<Instruction> body);
+}
@@ -0,0 +1,80 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+import net.coobird.labs.brainfuccuccino.vm.model.Opcode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Replaces loops which move or multiply the current memory cell into other
+ * memory cells, such as {@code [->+>++<<]}, with {@link Opcode#MUL}
+ * instructions followed by a {@link Opcode#SET} to clear the current
+ * memory cell.
+ * <p>
+ * A loop is replaced when its body only changes memory cell values and
+ * the pointer, returns the pointer to where it started, and changes the
+ * current memory cell by exactly {@code -1} or {@code +1}. The loop then
+ * runs as many times as the initial value of the memory cell (or its
+ * negation), so each other memory cell changes by a fixed multiple of it.
+ */
+public final class MultiplyLoopPass extends LoopReplacementPass {
+    @Override
+    protected List<Instruction> replace(List<Instruction> body) {
+        // Net change of the memory cells in one iteration, by offset from the loop's memory cell.
+        Map<Integer, Integer> changes = new TreeMap<>();
+        int offset = 0;
+        for (Instruction instruction : body) {
+            if (instruction.getOpcode() == Opcode.MOVE) {
+                offset += instruction.getOperand();
+            } else if (instruction.getOpcode() == Opcode.ADD) {
+                changes.merge(offset + instruction.getOffset(), instruction.getOperand(), Integer::sum);
+            } else {
+                return null;
+            }
+        }
+        Integer counterChange = changes.remove(0);
+        if (offset != 0 || counterChange == null || Math.abs(counterChange) != 1) {
+            return null;
+        }
+
+        List<Instruction> replacement = new ArrayList<>(changes.size() + 1);
+        for (Map.Entry<Integer, Integer> change : changes.entrySet()) {
+            if (change.getValue() != 0) {
+                // When counting up, the loop runs for the negated value of the memory cell.
+                int factor = -counterChange * change.getValue();
+                replacement.add(new Instruction(Opcode.MUL, factor, change.getKey()));
+            }
+        }
+        replacement.add(new Instruction(Opcode.SET, 0));
+        return replacement;
+    }
+}
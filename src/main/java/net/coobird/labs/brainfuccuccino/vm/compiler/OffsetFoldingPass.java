@@ -0,0 +1,101 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+import net.coobird.labs.brainfuccuccino.vm.model.Opcode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds pointer moves into the offsets of the instructions which follow
+ * them, so {@code >+>++<<-} becomes {@code ADD 1 @1, ADD 2 @2, ADD -1}.
+ * Changes to each memory cell are also summed across the basic block, so
+ * {@code +>+<+} becomes {@code ADD 2, ADD 1 @1}.
+ * Changes and moves which sum to zero are dropped.
+ * <p>
+ * The summed changes are applied before input and output. They are
+ * applied together with the net pointer move before an instruction which
+ * depends on the pointer itself, such as {@link Opcode#SCAN}, and at the
+ * end of the basic block.
+ */
+public final class OffsetFoldingPass extends BasicBlockPass {
+    @Override
+    protected List<Instruction> transform(List<Instruction> instructions) {
+        List<Instruction> optimized = new ArrayList<>(instructions.size());
+        // Changes to memory cells by offset, in the order they were first changed.
+        Map<Integer, Integer> pendingChanges = new LinkedHashMap<>();
+        int pendingMove = 0;
+        for (Instruction instruction : instructions) {
+            int offset = instruction.getOffset() + pendingMove;
+            switch (instruction.getOpcode()) {
+                case MOVE:
+                    pendingMove += instruction.getOperand();
+                    break;
+                case ADD:
+                    pendingChanges.merge(offset, instruction.getOperand(), Integer::sum);
+                    break;
+                case SET:
+                    // Changes before setting the memory cell are overwritten.
+                    pendingChanges.remove(offset);
+                    optimized.add(new Instruction(Opcode.SET, instruction.getOperand(), offset));
+                    break;
+                case READ:
+                case WRITE:
+                    applyChanges(optimized, pendingChanges);
+                    optimized.add(new Instruction(instruction.getOpcode(), instruction.getOperand(), offset));
+                    break;
+                default:
+                    applyChanges(optimized, pendingChanges);
+                    applyPointerMove(optimized, pendingMove);
+                    pendingMove = 0;
+                    optimized.add(instruction);
+            }
+        }
+        applyChanges(optimized, pendingChanges);
+        applyPointerMove(optimized, pendingMove);
+        return optimized;
+    }
+
+    private static void applyChanges(List<Instruction> instructions, Map<Integer, Integer> changes) {
+        for (Map.Entry<Integer, Integer> change : changes.entrySet()) {
+            if (change.getValue() != 0) {
+                instructions.add(new Instruction(Opcode.ADD, change.getValue(), change.getKey()));
+            }
+        }
+        changes.clear();
+    }
+
+    private static void applyPointerMove(List<Instruction> instructions, int move) {
+        if (move != 0) {
+            instructions.add(new Instruction(Opcode.MOVE, move));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * An ordered list of optimization {@link Pass}es.
+ * <p>
+ * Pipelines for the optimization levels of the
+ * {@link net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachineCompiler}
+ * are obtained through {@link #forOptimizationLevel(int)}:
+ * <ol>
+ *     <li>Clears memory cells with {@code SET} in place of loops such as
+ *     {@code [-]}, and folds changes around them.</li>
+ *     <li>Additionally replaces scan loops such as {@code [>]} and multiply
+ *     loops such as {@code [->++<]}.</li>
+ *     <li>Additionally folds pointer moves into instruction offsets, and
+ *     sums changes across basic blocks.</li>
+ *     <li>Additionally runs instructions which only use known values ahead
+ *     of time, writing their output with a single {@code WRITE_CONST}.
+ *     This assumes byte memory cells.</li>
+ * </ol>
+ * Higher levels produce faster programs, at the cost of compile time.
+ */
+public final class OptimizationPipeline {
+    /**
+     * The highest optimization level. Higher levels are treated as this level.
+     */
+    public static final int MAX_OPTIMIZATION_LEVEL = 4;
+
+    private final List<Pass> passes;
+
+    /**
+     * Instantiates a pipeline which runs the given passes in order.
+     * @param passes    The passes to run.
+     */
+    public OptimizationPipeline(List<Pass> passes) {
+        this.passes = Collections.unmodifiableList(new ArrayList<>(passes));
+    }
+
+    /**
+     * Instantiates a pipeline which runs the given passes in order.
+     * @param passes    The passes to run.
+     */
+    public OptimizationPipeline(Pass... passes) {
+        this(Arrays.asList(passes));
+    }
+
+    /**
+     * Returns the pipeline for an optimization level.
+     * @param optimizationLevel The optimization level. Must be positive.
+     * @return  The pipeline for the optimization level.
+     */
+    public static OptimizationPipeline forOptimizationLevel(int optimizationLevel) {
+        if (optimizationLevel <= 0) {
+            throw new IllegalArgumentException("Optimization level must be a positive value.");
+        }
+
+        List<Pass> passes = new ArrayList<>();
+        if (optimizationLevel >= 2) {
+            passes.add(new ScanLoopPass());
+            passes.add(new MultiplyLoopPass());
+        }
+        passes.add(new ClearLoopPass());
+        passes.add(new SetFoldingPass());
+        if (optimizationLevel >= 3) {
+            passes.add(new OffsetFoldingPass());
+        }
+        if (optimizationLevel >= 4) {
+            passes.add(new ConstantOutputPass());
+        }
+        return new OptimizationPipeline(passes);
+    }
+
+    /**
+     * Returns the pipeline for programs compiled with checked semantics,
+     * where memory cells throw rather than wrap around on over- and underflow.
+     * Only scan loops are replaced, as other loops change memory cells one
+     * step at a time, and overflow checks which can't fail are removed.
+     * @return  The pipeline for checked semantics.
+     */
+    public static OptimizationPipeline forCheckedSemantics() {
+        return new OptimizationPipeline(new ScanLoopPass(), new OverflowCheckEliminationPass());
+    }
+
+    public List<Pass> getPasses() {
+        return passes;
+    }
+
+    /**
+     * Runs the passes on a program in order.
+     * @param program   The program to optimize.
+     * @return  The statistics of each pass, in the order they were run.
+     */
+    public List<PassStatistics> run(Block program) {
+        List<PassStatistics> statistics = new ArrayList<>(passes.size());
+        for (Pass pass : passes) {
+            int instructionsBefore = program.size();
+            long startTime = System.nanoTime();
+            pass.apply(program);
+            program.normalize();
+            long compileTime = System.nanoTime() - startTime;
+            statistics.add(new PassStatistics(pass.getName(), compileTime, instructionsBefore, program.size()));
+        }
+        return Collections.unmodifiableList(statistics);
+    }
+
+    @Override
+    public String toString() {
+        return "OptimizationPipeline{" +
+                "passes=" + passes.stream().map(Pass::getName).collect(Collectors.toList()) +
+                '}';
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+import net.coobird.labs.brainfuccuccino.vm.model.Opcode;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces {@link Opcode#CHECKED_ADD} instructions which can't overflow with
+ * {@link Opcode#ADD}, by tracking the range of values of memory cells.
+ * <p>
+ * Every memory cell holds zero at the start of the program, and the
+ * current memory cell holds zero after a loop. Ranges are followed through
+ * the instructions after these points, so the changes in {@code ++>+<-}
+ * are all unchecked at the start of the program. As a loop body may run
+ * any number of times, nothing is known at its start, nor about memory
+ * cells other than the current one after the loop.
+ */
+public final class OverflowCheckEliminationPass implements Pass {
+    @Override
+    public void apply(Block program) {
+        apply(program, new Ranges(true));
+    }
+
+    private static void apply(Block block, Ranges ranges) {
+        for (Node node : block.getNodes()) {
+            if (node instanceof Loop) {
+                apply(((Loop) node).getBody(), new Ranges(false));
+                // The loop ends where the current memory cell is zero.
+                ranges.forget();
+                ranges.set(0, 0, 0);
+                continue;
+            }
+            List<Instruction> instructions = ((BasicBlock) node).getInstructions();
+            for (int i = 0; i < instructions.size(); i++) {
+                instructions.set(i, transform(instructions.get(i), ranges));
+            }
+        }
+    }
+
+    private static Instruction transform(Instruction instruction, Ranges ranges) {
+        int operand = instruction.getOperand();
+        int offset = instruction.getOffset();
+        switch (instruction.getOpcode()) {
+            case MOVE:
+                ranges.move(operand);
+                return instruction;
+            case CHECKED_ADD:
+                long lowest = ranges.getLowest(offset) + (long) operand;
+                long highest = ranges.getHighest(offset) + (long) operand;
+                // Values past the end of the range throw, so those that remain are within it.
+                ranges.set(
+                        offset,
+                        (int) Math.max(lowest, Byte.MIN_VALUE),
+                        (int) Math.min(highest, Byte.MAX_VALUE)
+                );
+                if (lowest >= Byte.MIN_VALUE && highest <= Byte.MAX_VALUE) {
+                    return new Instruction(Opcode.ADD, operand, offset);
+                }
+                return instruction;
+            case SET:
+                ranges.set(offset, (byte) operand, (byte) operand);
+                return instruction;
+            case WRITE:
+                return instruction;
+            case MUL:
+                // The current memory cell holds the factor, which isn't changed.
+                ranges.set(offset, Byte.MIN_VALUE, Byte.MAX_VALUE);
+                return instruction;
+            case SCAN:
+                ranges.forget();
+                ranges.set(0, 0, 0);
+                return instruction;
+            default:
+                ranges.set(offset, Byte.MIN_VALUE, Byte.MAX_VALUE);
+                return instruction;
+        }
+    }
+
+    /**
+     * The ranges of values of memory cells, by their position relative to
+     * the memory cell pointer where the ranges started being tracked.
+     */
+    private static final class Ranges {
+        private final Map<Integer, int[]> ranges = new HashMap<>();
+        private boolean isZeroElsewhere;
+        private int position = 0;
+
+        private Ranges(boolean isZeroElsewhere) {
+            this.isZeroElsewhere = isZeroElsewhere;
+        }
+
+        private int getLowest(int offset) {
+            int[] range = ranges.get(position + offset);
+            return range != null ? range[0] : isZeroElsewhere ? 0 : Byte.MIN_VALUE;
+        }
+
+        private int getHighest(int offset) {
+            int[] range = ranges.get(position + offset);
+            return range != null ? range[1] : isZeroElsewhere ? 0 : Byte.MAX_VALUE;
+        }
+
+        private void set(int offset, int lowest, int highest) {
+            ranges.put(position + offset, new int[] {lowest, highest});
+        }
+
+        private void move(int amount) {
+            position += amount;
+        }
+
+        /**
+         * Forgets every range, as the memory cell pointer has moved by an
+         * amount which isn't known.
+         */
+        private void forget() {
+            ranges.clear();
+            isZeroElsewhere = false;
+            position = 0;
+        }
+    }
+}
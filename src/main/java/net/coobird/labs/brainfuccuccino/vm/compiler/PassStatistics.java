@@ -0,0 +1,101 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+/**
+ * Statistics of an optimization pass run by an {@link OptimizationPipeline}.
+ */
+public final class PassStatistics {
+    private final String name;
+    private final long compileTimeNanos;
+    private final int instructionsBefore;
+    private final int instructionsAfter;
+
+    /**
+     * Instantiates the statistics of an optimization pass.
+     * @param name                  Name of the pass.
+     * @param compileTimeNanos      Time taken by the pass, in nanoseconds.
+     * @param instructionsBefore    Number of instructions before the pass.
+     * @param instructionsAfter     Number of instructions after the pass.
+     */
+    public PassStatistics(String name, long compileTimeNanos, int instructionsBefore, int instructionsAfter) {
+        this.name = name;
+        this.compileTimeNanos = compileTimeNanos;
+        this.instructionsBefore = instructionsBefore;
+        this.instructionsAfter = instructionsAfter;
+    }
+
+    /**
+     * Name of the optimization pass.
+     * @return  Name of the pass.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Time taken by the optimization pass, in nanoseconds.
+     * @return  Time taken by the pass.
+     */
+    public long getCompileTimeNanos() {
+        return compileTimeNanos;
+    }
+
+    /**
+     * Number of instructions in the program before the optimization pass.
+     * @return  Number of instructions before the pass.
+     */
+    public int getInstructionsBefore() {
+        return instructionsBefore;
+    }
+
+    /**
+     * Number of instructions in the program after the optimization pass.
+     * @return  Number of instructions after the pass.
+     */
+    public int getInstructionsAfter() {
+        return instructionsAfter;
+    }
+
+    /**
+     * Number of instructions eliminated by the optimization pass.
+     * @return  Number of instructions eliminated.
+     */
+    public int getInstructionsEliminated() {
+        return instructionsBefore - instructionsAfter;
+    }
+
+    @Override
+    public String toString() {
+        return "PassStatistics{" +
+                "name='" + name + '\'' +
+                ", compileTimeNanos=" + compileTimeNanos +
+                ", instructionsBefore=" + instructionsBefore +
+                ", instructionsAfter=" + instructionsAfter +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+import net.coobird.labs.brainfuccuccino.vm.model.Opcode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Folds changes to a memory cell around {@link Opcode#SET} instructions.
+ * <p>
+ * Changes immediately before a {@code SET} are overwritten, so they are
+ * discarded. Changes immediately after a {@code SET} are folded into the
+ * value to set, so {@code [-]+++} becomes {@code SET 3}.
+ */
+public final class SetFoldingPass extends BasicBlockPass {
+    @Override
+    protected List<Instruction> transform(List<Instruction> instructions) {
+        List<Instruction> optimized = new ArrayList<>(instructions.size());
+        for (Instruction instruction : instructions) {
+            int last = optimized.size() - 1;
+            Instruction previous = last >= 0 ? optimized.get(last) : null;
+
+            if (instruction.getOpcode() == Opcode.SET) {
+                // Values set before setting the memory cell are overwritten.
+                while (previous != null && isOverwrittenBy(previous, instruction)) {
+                    optimized.remove(last--);
+                    previous = last >= 0 ? optimized.get(last) : null;
+                }
+
+            } else if (instruction.getOpcode() == Opcode.ADD
+                    && previous != null
+                    && previous.getOpcode() == Opcode.SET
+                    && previous.getOffset() == instruction.getOffset()) {
+                optimized.set(last, new Instruction(
+                        Opcode.SET,
+                        previous.getOperand() + instruction.getOperand(),
+                        previous.getOffset()
+                ));
+                continue;
+            }
+            optimized.add(instruction);
+        }
+        return optimized;
+    }
+
+    private static boolean isOverwrittenBy(Instruction previous, Instruction set) {
+        return (previous.getOpcode() == Opcode.ADD || previous.getOpcode() == Opcode.SET)
+                && previous.getOffset() == set.getOffset();
+    }
+}
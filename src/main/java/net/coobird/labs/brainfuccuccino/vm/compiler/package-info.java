@@ -0,0 +1,36 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+/**
+ * This package provides the intermediate representation and optimization
+ * passes used by the {@link net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachineCompiler}.
+ * <p>
+ * A program is represented as a tree of {@link net.coobird.labs.brainfuccuccino.vm.compiler.Loop}s
+ * and {@link net.coobird.labs.brainfuccuccino.vm.compiler.BasicBlock}s, which
+ * is transformed by the {@link net.coobird.labs.brainfuccuccino.vm.compiler.Pass}es
+ * of an {@link net.coobird.labs.brainfuccuccino.vm.compiler.OptimizationPipeline}.
+ */
+package net.coobird.labs.brainfuccuccino.vm.compiler;
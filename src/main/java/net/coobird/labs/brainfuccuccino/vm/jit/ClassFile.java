@@ -0,0 +1,238 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.jit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal writer for JVM class files.
+ * <p>
+ * Only the parts of the class file format needed by the {@link JitCompiler}
+ * are supported. Class files are written as version 49 (Java 5), which is
+ * verified by type inference and therefore doesn't need stack map frames.
+ * <p>
+ * Adding more constants, fields or methods than a class file can hold throws an
+ * {@link UnsupportedOperationException}, rather than writing a class which
+ * the JVM rejects.
+ */
+final class ClassFile {
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int MAJOR_VERSION = 49;
+    // Constant pool indexes and the numbers of fields and methods are written as unsigned 16-bit values.
+    private static final int MAX_COUNT = 0xFFFF;
+
+    private final ByteArrayOutputStream constantPool = new ByteArrayOutputStream();
+    private final DataOutputStream constants = new DataOutputStream(constantPool);
+    private final Map<String, Integer> constantIndexes = new HashMap<>();
+    private int constantCount = 1;
+
+    private final int thisClass;
+    private final int superClass;
+    private final List<Integer> interfaces = new ArrayList<>();
+    private final List<int[]> fields = new ArrayList<>();
+    private final List<byte[]> methods = new ArrayList<>();
+
+    ClassFile(String name, String superName, String... interfaceNames) {
+        this.thisClass = classRef(name);
+        this.superClass = classRef(superName);
+        for (String interfaceName : interfaceNames) {
+            interfaces.add(classRef(interfaceName));
+        }
+    }
+
+    private int constant(String key, ConstantWriter writer) {
+        Integer index = constantIndexes.get(key);
+        if (index != null) {
+            return index;
+        }
+        if (constantCount == MAX_COUNT) {
+            throw new UnsupportedOperationException("Too many constants for a class file.");
+        }
+        try {
+            writer.write(constants);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        constantIndexes.put(key, constantCount);
+        return constantCount++;
+    }
+
+    int utf8(String value) {
+        return constant("Utf8:" + value, out -> {
+            out.writeByte(1);
+            out.writeUTF(value);
+        });
+    }
+
+    int integer(int value) {
+        return constant("Integer:" + value, out -> {
+            out.writeByte(3);
+            out.writeInt(value);
+        });
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return constant("Class:" + internalName, out -> {
+            out.writeByte(7);
+            out.writeShort(name);
+        });
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        return constant("NameAndType:" + name + ":" + descriptor, out -> {
+            out.writeByte(12);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        int classIndex = classRef(owner);
+        int nameAndTypeIndex = nameAndType(name, descriptor);
+        return constant("Fieldref:" + owner + "." + name + ":" + descriptor, out -> {
+            out.writeByte(9);
+            out.writeShort(classIndex);
+            out.writeShort(nameAndTypeIndex);
+        });
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        int classIndex = classRef(owner);
+        int nameAndTypeIndex = nameAndType(name, descriptor);
+        return constant("Methodref:" + owner + "." + name + ":" + descriptor, out -> {
+            out.writeByte(10);
+            out.writeShort(classIndex);
+            out.writeShort(nameAndTypeIndex);
+        });
+    }
+
+    /**
+     * Adds a field.
+     * @param access        Access flags of the field.
+     * @param name          Name of the field.
+     * @param descriptor    Descriptor of the field.
+     * @throws UnsupportedOperationException    If the class has as many
+     *                                          fields as a class file allows.
+     */
+    void addField(int access, String name, String descriptor) {
+        if (fields.size() == MAX_COUNT) {
+            throw new UnsupportedOperationException("Too many fields for a class file.");
+        }
+        fields.add(new int[] {access, utf8(name), utf8(descriptor)});
+    }
+
+    /**
+     * Adds a method with the given code.
+     * @param access        Access flags of the method.
+     * @param name          Name of the method.
+     * @param descriptor    Descriptor of the method.
+     * @param code          The code of the method.
+     * @throws UnsupportedOperationException    If the class has as many
+     *                                          methods as a class file allows.
+     */
+    void addMethod(int access, String name, String descriptor, Code code) {
+        if (methods.size() == MAX_COUNT) {
+            throw new UnsupportedOperationException("Too many methods for a class file.");
+        }
+        byte[] bytecode = code.toByteArray();
+        ByteArrayOutputStream method = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(method);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(1);
+            out.writeShort(utf8("Code"));
+            out.writeInt(12 + bytecode.length);
+            out.writeShort(code.getMaxStack());
+            out.writeShort(code.getMaxLocals());
+            out.writeInt(bytecode.length);
+            out.write(bytecode);
+            // No exception table and no attributes.
+            out.writeShort(0);
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methods.add(method.toByteArray());
+    }
+
+    byte[] toByteArray() {
+        ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(classFile);
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(constantCount);
+            constantPool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.size());
+            for (int interfaceIndex : interfaces) {
+                out.writeShort(interfaceIndex);
+            }
+            out.writeShort(fields.size());
+            for (int[] field : fields) {
+                out.writeShort(field[0]);
+                out.writeShort(field[1]);
+                out.writeShort(field[2]);
+                // No attributes.
+                out.writeShort(0);
+            }
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            // No attributes.
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return classFile.toByteArray();
+    }
+
+    private interface ConstantWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
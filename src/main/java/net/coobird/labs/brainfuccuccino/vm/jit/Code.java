@@ -0,0 +1,218 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.jit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The code of a method in a {@link ClassFile}.
+ * <p>
+ * Branches are written with 16-bit offsets, so the code of a method must
+ * be kept well below the 64KB method size limit.
+ */
+final class Code {
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int ILOAD = 0x15;
+    static final int ALOAD = 0x19;
+    static final int AALOAD = 0x32;
+    static final int BALOAD = 0x33;
+    static final int ISTORE = 0x36;
+    static final int BASTORE = 0x54;
+    static final int DUP = 0x59;
+    static final int DUP2 = 0x5C;
+    static final int IADD = 0x60;
+    static final int IMUL = 0x68;
+    static final int LSHL = 0x79;
+    static final int LOR = 0x81;
+    static final int IINC = 0x84;
+    static final int I2L = 0x85;
+    static final int I2B = 0x91;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9A;
+    static final int IFLT = 0x9B;
+    static final int IF_ICMPGE = 0xA2;
+    static final int GOTO = 0xA7;
+    static final int IRETURN = 0xAC;
+    static final int LRETURN = 0xAD;
+    static final int RETURN = 0xB1;
+    static final int GETSTATIC = 0xB2;
+    static final int INVOKEVIRTUAL = 0xB6;
+    static final int INVOKESPECIAL = 0xB7;
+    static final int INVOKESTATIC = 0xB8;
+    static final int ARRAYLENGTH = 0xBE;
+    static final int ATHROW = 0xBF;
+    static final int WIDE = 0xC4;
+
+    private final ClassFile classFile;
+    private final int maxStack;
+    private final int maxLocals;
+    private byte[] code = new byte[256];
+    private int length = 0;
+    private final List<Branch> branches = new ArrayList<>();
+
+    /**
+     * A position in the code, which is the target of branches.
+     */
+    static final class Label {
+        private int position = -1;
+    }
+
+    private static final class Branch {
+        private final int position;
+        private final Label target;
+
+        private Branch(int position, Label target) {
+            this.position = position;
+            this.target = target;
+        }
+    }
+
+    Code(ClassFile classFile, int maxStack, int maxLocals) {
+        this.classFile = classFile;
+        this.maxStack = maxStack;
+        this.maxLocals = maxLocals;
+    }
+
+    int getMaxStack() {
+        return maxStack;
+    }
+
+    int getMaxLocals() {
+        return maxLocals;
+    }
+
+    int size() {
+        return length;
+    }
+
+    void op(int opcode) {
+        if (length + 1 > code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+        code[length++] = (byte) opcode;
+    }
+
+    private void u2(int value) {
+        op(value >>> 8);
+        op(value);
+    }
+
+    void load(int opcode, int local) {
+        // iload_<n>, aload_<n> and so on follow iload and aload respectively.
+        if (local <= 3) {
+            op(0x1A + (opcode - ILOAD) * 4 + local);
+        } else {
+            op(opcode);
+            op(local);
+        }
+    }
+
+    void store(int opcode, int local) {
+        // istore_<n> follows istore.
+        if (local <= 3) {
+            op(0x3B + (opcode - ISTORE) * 4 + local);
+        } else {
+            op(opcode);
+            op(local);
+        }
+    }
+
+    void push(int value) {
+        if (value >= -1 && value <= 5) {
+            op(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            op(BIPUSH);
+            op(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            op(SIPUSH);
+            u2(value);
+        } else {
+            op(LDC_W);
+            u2(classFile.integer(value));
+        }
+    }
+
+    void getStatic(String owner, String name, String descriptor) {
+        op(GETSTATIC);
+        u2(classFile.fieldRef(owner, name, descriptor));
+    }
+
+    void iinc(int local, int amount) {
+        if (amount >= Byte.MIN_VALUE && amount <= Byte.MAX_VALUE) {
+            op(IINC);
+            op(local);
+            op(amount);
+        } else if (amount >= Short.MIN_VALUE && amount <= Short.MAX_VALUE) {
+            op(WIDE);
+            op(IINC);
+            u2(local);
+            u2(amount);
+        } else {
+            load(ILOAD, local);
+            push(amount);
+            op(IADD);
+            store(ISTORE, local);
+        }
+    }
+
+    void invoke(int opcode, String owner, String name, String descriptor) {
+        op(opcode);
+        u2(classFile.methodRef(owner, name, descriptor));
+    }
+
+    void jump(int opcode, Label target) {
+        branches.add(new Branch(length, target));
+        op(opcode);
+        // The offset is filled in by toByteArray, once the target is known.
+        u2(0);
+    }
+
+    void mark(Label label) {
+        label.position = length;
+    }
+
+    byte[] toByteArray() {
+        for (Branch branch : branches) {
+            int position = branch.position;
+            if (branch.target.position < 0) {
+                throw new IllegalStateException("Branch to unmarked label.");
+            }
+            int offset = branch.target.position - position;
+            if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                throw new IllegalStateException("Branch offset out of range: " + offset);
+            }
+            code[position + 1] = (byte) (offset >>> 8);
+            code[position + 2] = (byte) offset;
+        }
+        return Arrays.copyOf(code, length);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.jit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A trace through a loop compiled into a JVM class by the {@link JitCompiler}.
+ * <p>
+ * The trace repeats while the loop continues along the recorded path.
+ * When a jump would leave the recorded path, or the loop ends, the trace
+ * exits with the address of the jump instruction, from where the program
+ * continues in the interpreter.
+ *
+ * @see Trace
+ */
+public interface CompiledTrace {
+    /**
+     * Runs the trace on the given memory until it exits.
+     * @param memory        Memory cells of the brainfuck machine.
+     * @param dataPointer   Initial position of the memory cell pointer.
+     * @param is    An {@link InputStream} for inputs.
+     * @param os    An {@link OutputStream} for outputs.
+     * @return  The exit, which holds the address to continue from and the
+     *          position of the memory cell pointer.
+     * @throws IOException  When an exception is thrown during execution.
+     */
+    long execute(byte[] memory, int dataPointer, InputStream is, OutputStream os) throws IOException;
+
+    /**
+     * Returns the address to continue from after an exit.
+     * @param exit  The exit returned by {@link #execute(byte[], int, InputStream, OutputStream)}.
+     * @return  The address of the instruction to continue from.
+     */
+    static int exitAddress(long exit) {
+        return (int) (exit >>> 32);
+    }
+
+    /**
+     * Returns the position of the memory cell pointer after an exit.
+     * @param exit  The exit returned by {@link #execute(byte[], int, InputStream, OutputStream)}.
+     * @return  Position of the memory cell pointer.
+     */
+    static int dataPointer(long exit) {
+        return (int) exit;
+    }
+}
@@ -0,0 +1,646 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.jit;
+
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles {@link Bytecode} for the {@link net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachine}
+ * into a JVM class, which is then optimized by the JVM's own just-in-time
+ * compiler.
+ * <p>
+ * Loops are compiled into JVM loops, and memory is accessed through a
+ * local {@code byte[]}. Each compiled program is loaded by its own class
+ * loader, so that it can be unloaded once it is no longer used.
+ * <p>
+ * The JVM doesn't compile methods larger than 8,000 bytes of bytecode, and
+ * doesn't load methods larger than 64KB. When a program doesn't fit into a
+ * single method, loops (and if necessary, straight-line code) are moved
+ * into methods of their own.
+ * <p>
+ * Balanced loops, whose memory accesses are at known offsets from the
+ * memory cell pointer at their start, are compiled twice. When a single
+ * check at the start of the loop finds that all of its memory accesses are
+ * within memory, the loop runs without checking each access. Otherwise, it
+ * runs with each access checked, so that the same exception is thrown at
+ * the same point as without the analysis.
+ * <p>
+ * A {@link Trace} recorded by an interpreter is compiled as straight-line
+ * code, in which each jump instruction becomes a guard that exits the trace
+ * when the program leaves the recorded path.
+ * <p>
+ * Output computed ahead of time is held in a static field of the compiled
+ * class and written by index, rather than as constants of the class file,
+ * so that the number of outputs isn't limited by the size of the constant
+ * pool.
+ */
+public final class JitCompiler {
+    private static final String PACKAGE = "net/coobird/labs/brainfuccuccino/vm/jit/generated/";
+    private static final String RUNTIME = "net/coobird/labs/brainfuccuccino/vm/jit/JitRuntime";
+    private static final String COMPILED_PROGRAM = "net/coobird/labs/brainfuccuccino/vm/jit/CompiledProgram";
+    private static final String COMPILED_TRACE = "net/coobird/labs/brainfuccuccino/vm/jit/CompiledTrace";
+    private static final String EXECUTE_DESCRIPTOR = "([BILjava/io/InputStream;Ljava/io/OutputStream;)I";
+    private static final String TRACE_DESCRIPTOR = "([BILjava/io/InputStream;Ljava/io/OutputStream;)J";
+
+    // Methods are kept below the JVM's limit for compiling methods.
+    private static final int METHOD_SIZE_LIMIT = 7900;
+    // Upper bounds of the JVM bytecode emitted for each instruction, used to decide how to split methods.
+    private static final int INSTRUCTION_SIZE = 48;
+    private static final int JUMP_SIZE = 8;
+    private static final int RANGE_CHECK_SIZE = 24;
+    private static final int RESERVED_SIZE = 32;
+    // Static field holding the output written by WRITE_CONST instructions, set once the class is loaded.
+    private static final String OUTPUTS = "outputs";
+    private static final String OUTPUTS_DESCRIPTOR = "[[B";
+    // Loops larger than this are moved into their own methods when a method has to be split.
+    private static final int LOOP_OUTLINE_SIZE = METHOD_SIZE_LIMIT / 4;
+
+    // Local variables of the generated methods.
+    private static final int MEMORY = 0;
+    private static final int DATA_POINTER = 1;
+    private static final int INPUT = 2;
+    private static final int OUTPUT = 3;
+    private static final int POSITION = 4;
+    private static final int VALUE = 5;
+
+    private static final AtomicInteger classCount = new AtomicInteger();
+
+    /**
+     * Compiles a program into a JVM class, and loads it.
+     * @param bytecode  The program to compile.
+     * @return  The compiled program.
+     * @throws UnsupportedOperationException    If the program is too large
+     *                                          for a class file.
+     */
+    public CompiledProgram compile(Bytecode bytecode) {
+        return compile(bytecode, 0, bytecode.size());
+    }
+
+    /**
+     * Compiles part of a program into a JVM class, and loads it.
+     * <p>
+     * The part of the program must consist of whole loops, such as a single
+     * loop from its {@code JMZ} to its {@code JMN} instruction. The compiled
+     * program returns once the instruction before the end has been executed.
+     * @param bytecode  The program to compile.
+     * @param start     The address of the first instruction to compile.
+     * @param end       The address after the last instruction to compile.
+     * @return  The compiled part of the program.
+     * @throws SecurityException    If the host doesn't permit defining classes.
+     * @throws UnsupportedOperationException    If the program is too large
+     *                                          for a class file.
+     */
+    public CompiledProgram compile(Bytecode bytecode, int start, int end) {
+        if (start < 0 || end > bytecode.size() || start > end) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid range: <%s> to <%s>", start, end)
+            );
+        }
+        String className = PACKAGE + "Program" + classCount.incrementAndGet();
+        Generator generator = new Generator(bytecode, className, COMPILED_PROGRAM);
+        byte[] classFile = generator.generate(start, end);
+        return (CompiledProgram) load(className, classFile, generator.getOutputs());
+    }
+
+    /**
+     * Compiles a trace through a loop of a program into a JVM class, and
+     * loads it.
+     * @param bytecode  The program the trace was recorded from.
+     * @param trace     The trace to compile.
+     * @return  The compiled trace.
+     * @throws IllegalArgumentException If the trace is too long to compile.
+     */
+    public CompiledTrace compile(Bytecode bytecode, Trace trace) {
+        String className = PACKAGE + "Trace" + classCount.incrementAndGet();
+        Generator generator = new Generator(bytecode, className, COMPILED_TRACE);
+        byte[] classFile = generator.generate(trace);
+        return (CompiledTrace) load(className, classFile, generator.getOutputs());
+    }
+
+    private static Object load(String className, byte[] classFile, byte[][] outputs) {
+        ProgramClassLoader classLoader = new ProgramClassLoader(JitCompiler.class.getClassLoader());
+        try {
+            Class<?> programClass = classLoader.define(className.replace('/', '.'), classFile);
+            if (outputs.length > 0) {
+                programClass.getField(OUTPUTS).set(null, outputs);
+            }
+            return programClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Couldn't load compiled program.", e);
+        }
+    }
+
+    private static final class ProgramClassLoader extends ClassLoader {
+        private ProgramClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(String name, byte[] classFile) {
+            return defineClass(name, classFile, 0, classFile.length);
+        }
+    }
+
+    /**
+     * A range of the program to compile into a method of its own, which is
+     * either a single loop or a sequence of instructions and loops.
+     * <p>
+     * A range outlined from a balanced loop is written as part of that loop,
+     * without checks where the loop's range was checked at its start.
+     */
+    private static final class Outline {
+        private final String name;
+        private final int start;
+        private final int end;
+        private final boolean isLoop;
+        private final boolean isInBalancedLoop;
+        private final boolean isRangeChecked;
+
+        private Outline(String name, int start, int end, boolean isLoop, boolean isInBalancedLoop, boolean isRangeChecked) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+            this.isLoop = isLoop;
+            this.isInBalancedLoop = isInBalancedLoop;
+            this.isRangeChecked = isRangeChecked;
+        }
+    }
+
+    private static final class Generator {
+        private final Bytecode bytecode;
+        private final byte[] opcodes;
+        private final int[] operands;
+        private final int[] offsets;
+        private final byte[][] constants;
+        // Estimated size of the JVM bytecode for the instructions before each address.
+        private final long[] estimatedSizes;
+        private final String className;
+        private final ClassFile classFile;
+        private final Deque<Outline> outlines = new ArrayDeque<>();
+        // The names of the methods of the ranges outlined so far, so that each is only written once.
+        private final Map<String, String> outlinedNames = new HashMap<>();
+        // The output written by WRITE_CONST instructions, and the index of each instruction's output.
+        private final List<byte[]> outputs = new ArrayList<>();
+        private final Map<Integer, Integer> outputIndexes = new HashMap<>();
+        private int methodCount = 0;
+
+        private Generator(Bytecode bytecode, String className, String interfaceName) {
+            this.bytecode = bytecode;
+            this.opcodes = bytecode.getOpcodes();
+            this.operands = bytecode.getOperands();
+            this.offsets = bytecode.getOffsets();
+            this.constants = bytecode.getConstants();
+            this.className = className;
+            this.classFile = new ClassFile(className, "java/lang/Object", interfaceName);
+
+            estimatedSizes = new long[opcodes.length + 1];
+            // Instructions of balanced loops are written twice, once with and once without checks.
+            int balancedEnd = -1;
+            for (int i = 0; i < opcodes.length; i++) {
+                boolean isJump = opcodes[i] == Bytecode.JMZ || opcodes[i] == Bytecode.JMN;
+                long size = isJump ? JUMP_SIZE : INSTRUCTION_SIZE;
+                if (i > balancedEnd && opcodes[i] == Bytecode.JMZ && bytecode.isBalancedLoop(i)) {
+                    balancedEnd = operands[i];
+                    size += RANGE_CHECK_SIZE;
+                }
+                estimatedSizes[i + 1] = estimatedSizes[i] + (i <= balancedEnd ? size * 2 : size);
+            }
+        }
+
+        private byte[] generate(int start, int end) {
+            addConstructor();
+            addExecute(EXECUTE_DESCRIPTOR, Code.IRETURN);
+
+            outlines.add(new Outline("run", start, end, false, false, false));
+            while (!outlines.isEmpty()) {
+                Outline outline = outlines.poll();
+                MethodWriter method = new MethodWriter(outline.isInBalancedLoop, outline.isRangeChecked);
+                if (outline.isLoop) {
+                    method.writeLoop(outline.start, operands[outline.start]);
+                } else {
+                    method.writeRange(outline.start, outline.end);
+                }
+                method.finish();
+                classFile.addMethod(ClassFile.ACC_STATIC, outline.name, EXECUTE_DESCRIPTOR, method.code);
+            }
+            addOutputs();
+            return classFile.toByteArray();
+        }
+
+        private byte[] generate(Trace trace) {
+            addConstructor();
+            addExecute(TRACE_DESCRIPTOR, Code.LRETURN);
+
+            MethodWriter method = new MethodWriter(false, false);
+            method.writeTrace(trace);
+            if (!method.fits(0)) {
+                throw new IllegalArgumentException("Trace too long to compile: " + trace.size());
+            }
+            classFile.addMethod(ClassFile.ACC_STATIC, "run", TRACE_DESCRIPTOR, method.code);
+            addOutputs();
+            return classFile.toByteArray();
+        }
+
+        private byte[][] getOutputs() {
+            return outputs.toArray(new byte[0][]);
+        }
+
+        private void addOutputs() {
+            if (!outputs.isEmpty()) {
+                classFile.addField(ClassFile.ACC_PUBLIC | ClassFile.ACC_STATIC, OUTPUTS, OUTPUTS_DESCRIPTOR);
+            }
+        }
+
+        /**
+         * Returns the index in the outputs of the output written at the given address.
+         */
+        private int output(int address) {
+            Integer index = outputIndexes.get(address);
+            if (index == null) {
+                index = outputs.size();
+                outputs.add(constants[address]);
+                outputIndexes.put(address, index);
+            }
+            return index;
+        }
+
+        private void addConstructor() {
+            Code constructor = new Code(classFile, 1, 1);
+            constructor.load(Code.ALOAD, 0);
+            constructor.invoke(Code.INVOKESPECIAL, "java/lang/Object", "<init>", "()V");
+            constructor.op(Code.RETURN);
+            classFile.addMethod(ClassFile.ACC_PUBLIC, "<init>", "()V", constructor);
+        }
+
+        private void addExecute(String descriptor, int returnOpcode) {
+            Code execute = new Code(classFile, 4, 5);
+            execute.load(Code.ALOAD, 1);
+            execute.load(Code.ILOAD, 2);
+            execute.load(Code.ALOAD, 3);
+            execute.load(Code.ALOAD, 4);
+            execute.invoke(Code.INVOKESTATIC, className, "run", descriptor);
+            execute.op(returnOpcode);
+            classFile.addMethod(ClassFile.ACC_PUBLIC, "execute", descriptor, execute);
+        }
+
+        private long estimatedSize(int start, int end) {
+            return estimatedSizes[end] - estimatedSizes[start];
+        }
+
+        /**
+         * Returns the address after the instruction or loop at the given address.
+         */
+        private int next(int address) {
+            return opcodes[address] == Bytecode.JMZ ? operands[address] + 1 : address + 1;
+        }
+
+        private String outline(int start, int end, boolean isLoop, boolean isInBalancedLoop, boolean isRangeChecked) {
+            String key = start + ":" + end + ":" + isLoop + ":" + isInBalancedLoop + ":" + isRangeChecked;
+            String name = outlinedNames.get(key);
+            if (name == null) {
+                name = (isLoop ? "loop" : "continuation") + methodCount++;
+                outlinedNames.put(key, name);
+                outlines.add(new Outline(name, start, end, isLoop, isInBalancedLoop, isRangeChecked));
+            }
+            return name;
+        }
+
+        private final class MethodWriter {
+            private final Code code = new Code(classFile, 6, 6);
+            private final Code.Label outOfBounds = new Code.Label();
+            private boolean isOutOfBoundsUsed = false;
+            // Set while writing a balanced loop, whose inner loops are written as part of it.
+            private boolean isInBalancedLoop;
+            // Set while writing the copy of a balanced loop whose range was checked at its start.
+            private boolean isRangeChecked;
+
+            private MethodWriter(boolean isInBalancedLoop, boolean isRangeChecked) {
+                this.isInBalancedLoop = isInBalancedLoop;
+                this.isRangeChecked = isRangeChecked;
+            }
+
+            private boolean fits(long size) {
+                return code.size() + size + RESERVED_SIZE <= METHOD_SIZE_LIMIT;
+            }
+
+            /**
+             * Writes the instructions and loops from start (inclusive) to end (exclusive).
+             */
+            private void writeRange(int start, int end) {
+                if (fits(estimatedSize(start, end))) {
+                    for (int address = start; address < end; address = next(address)) {
+                        writeItem(address);
+                    }
+                    return;
+                }
+
+                for (int address = start; address < end; address = next(address)) {
+                    long size = estimatedSize(address, next(address));
+                    if (opcodes[address] == Bytecode.JMZ && size > LOOP_OUTLINE_SIZE) {
+                        call(outline(address, next(address), true, isInBalancedLoop, isRangeChecked));
+                    } else if (fits(size)) {
+                        writeItem(address);
+                    } else {
+                        // The rest doesn't fit, so continue in another method.
+                        call(outline(address, end, false, isInBalancedLoop, isRangeChecked));
+                        return;
+                    }
+                }
+            }
+
+            private void writeItem(int address) {
+                if (opcodes[address] == Bytecode.JMZ) {
+                    writeLoop(address, operands[address]);
+                } else {
+                    writeInstruction(address);
+                }
+            }
+
+            private void writeLoop(int opening, int closing) {
+                Code.Label end = new Code.Label();
+                loadCurrentValue();
+                code.jump(Code.IFEQ, end);
+                if (isInBalancedLoop || !bytecode.isBalancedLoop(opening)) {
+                    writeBody(opening, closing);
+                    code.mark(end);
+                    return;
+                }
+
+                Code.Label checked = new Code.Label();
+                isInBalancedLoop = true;
+                checkRange(bytecode.getLowestOffset(opening), checked, Code.IFLT);
+                checkRange(bytecode.getHighestOffset(opening), checked, Code.IF_ICMPGE);
+                isRangeChecked = true;
+                writeBody(opening, closing);
+                isRangeChecked = false;
+                code.jump(Code.GOTO, end);
+                code.mark(checked);
+                writeBody(opening, closing);
+                isInBalancedLoop = false;
+                code.mark(end);
+            }
+
+            /**
+             * Writes the body of a loop, which repeats while the current
+             * memory cell is not zero.
+             */
+            private void writeBody(int opening, int closing) {
+                Code.Label body = new Code.Label();
+                code.mark(body);
+                writeRange(opening + 1, closing);
+                loadCurrentValue();
+                code.jump(Code.IFNE, body);
+            }
+
+            /**
+             * Jumps to the given label when the memory cell at the offset
+             * from the start of a balanced loop is outside of memory.
+             */
+            private void checkRange(int offset, Code.Label outside, int opcode) {
+                if (offset == 0) {
+                    return;
+                }
+                code.load(Code.ILOAD, DATA_POINTER);
+                code.push(offset);
+                code.op(Code.IADD);
+                if (opcode == Code.IF_ICMPGE) {
+                    code.load(Code.ALOAD, MEMORY);
+                    code.op(Code.ARRAYLENGTH);
+                }
+                code.jump(opcode, outside);
+            }
+
+            /**
+             * Writes a trace, which repeats until the loop ends or a guard
+             * fails, then returns the exit address in the upper 32 bits and
+             * the memory cell pointer in the lower 32 bits.
+             */
+            private void writeTrace(Trace trace) {
+                Code.Label start = new Code.Label();
+                Code.Label exit = new Code.Label();
+                Deque<Code.Label> guards = new ArrayDeque<>();
+                Deque<Integer> guardAddresses = new ArrayDeque<>();
+
+                code.mark(start);
+                for (int i = 0; i < trace.size(); i++) {
+                    int address = trace.getAddress(i);
+                    if (opcodes[address] == Bytecode.JMZ || opcodes[address] == Bytecode.JMN) {
+                        // Leaves the trace when the jump would go another way than recorded.
+                        Code.Label guard = new Code.Label();
+                        loadCurrentValue();
+                        code.jump(trace.isZero(i) ? Code.IFNE : Code.IFEQ, guard);
+                        guards.add(guard);
+                        guardAddresses.add(address);
+                    } else {
+                        writeInstruction(address);
+                    }
+                }
+                loadCurrentValue();
+                code.jump(Code.IFNE, start);
+                code.push(trace.getClosing());
+                code.jump(Code.GOTO, exit);
+
+                // The jump instruction of a failed guard is executed again by the interpreter.
+                while (!guards.isEmpty()) {
+                    code.mark(guards.poll());
+                    code.push(guardAddresses.poll());
+                    code.jump(Code.GOTO, exit);
+                }
+
+                code.mark(exit);
+                code.op(Code.I2L);
+                code.push(32);
+                code.op(Code.LSHL);
+                code.load(Code.ILOAD, DATA_POINTER);
+                code.op(Code.I2L);
+                code.op(Code.LOR);
+                code.op(Code.LRETURN);
+                writeOutOfBounds();
+            }
+
+            private void call(String name) {
+                code.load(Code.ALOAD, MEMORY);
+                code.load(Code.ILOAD, DATA_POINTER);
+                code.load(Code.ALOAD, INPUT);
+                code.load(Code.ALOAD, OUTPUT);
+                code.invoke(Code.INVOKESTATIC, className, name, EXECUTE_DESCRIPTOR);
+                code.store(Code.ISTORE, DATA_POINTER);
+            }
+
+            private void loadCurrentValue() {
+                code.load(Code.ALOAD, MEMORY);
+                code.load(Code.ILOAD, DATA_POINTER);
+                code.op(Code.BALOAD);
+            }
+
+            /**
+             * Checks that the memory cell at the offset is within memory,
+             * unless it was checked at the start of a balanced loop.
+             * The current memory cell is always within memory.
+             */
+            private void checkOffset(int offset) {
+                if (offset == 0) {
+                    return;
+                }
+                code.load(Code.ILOAD, DATA_POINTER);
+                code.push(offset);
+                code.op(Code.IADD);
+                code.store(Code.ISTORE, POSITION);
+                if (!isRangeChecked) {
+                    checkPosition();
+                }
+            }
+
+            private void checkPosition() {
+                isOutOfBoundsUsed = true;
+                code.load(Code.ILOAD, POSITION);
+                code.jump(Code.IFLT, outOfBounds);
+                code.load(Code.ILOAD, POSITION);
+                code.load(Code.ALOAD, MEMORY);
+                code.op(Code.ARRAYLENGTH);
+                code.jump(Code.IF_ICMPGE, outOfBounds);
+            }
+
+            /**
+             * Pushes the memory and the index of the memory cell at the
+             * offset, which was checked by {@link #checkOffset(int)}.
+             */
+            private void loadCell(int offset) {
+                code.load(Code.ALOAD, MEMORY);
+                code.load(Code.ILOAD, offset == 0 ? DATA_POINTER : POSITION);
+            }
+
+            private void writeInstruction(int address) {
+                int operand = operands[address];
+                int offset = offsets[address];
+                switch (opcodes[address]) {
+                    case Bytecode.ADD:
+                        checkOffset(offset);
+                        loadCell(offset);
+                        code.op(Code.DUP2);
+                        code.op(Code.BALOAD);
+                        code.push(operand);
+                        code.op(Code.IADD);
+                        code.op(Code.I2B);
+                        code.op(Code.BASTORE);
+                        break;
+                    case Bytecode.MOVE:
+                        code.iinc(DATA_POINTER, operand);
+                        if (!isRangeChecked) {
+                            code.load(Code.ILOAD, DATA_POINTER);
+                            code.store(Code.ISTORE, POSITION);
+                            checkPosition();
+                        }
+                        break;
+                    case Bytecode.READ:
+                        checkOffset(offset);
+                        loadCell(offset);
+                        code.load(Code.ALOAD, INPUT);
+                        code.invoke(Code.INVOKESTATIC, RUNTIME, "read", "(Ljava/io/InputStream;)I");
+                        code.op(Code.BASTORE);
+                        break;
+                    case Bytecode.WRITE:
+                        checkOffset(offset);
+                        code.load(Code.ALOAD, OUTPUT);
+                        loadCell(offset);
+                        code.op(Code.BALOAD);
+                        code.invoke(Code.INVOKEVIRTUAL, "java/io/OutputStream", "write", "(I)V");
+                        break;
+                    case Bytecode.SET:
+                        checkOffset(offset);
+                        loadCell(offset);
+                        code.push((byte) operand);
+                        code.op(Code.BASTORE);
+                        break;
+                    case Bytecode.MUL:
+                        Code.Label skip = new Code.Label();
+                        loadCurrentValue();
+                        code.op(Code.DUP);
+                        code.store(Code.ISTORE, VALUE);
+                        code.jump(Code.IFEQ, skip);
+                        checkOffset(offset);
+                        loadCell(offset);
+                        code.op(Code.DUP2);
+                        code.op(Code.BALOAD);
+                        code.load(Code.ILOAD, VALUE);
+                        code.push(operand);
+                        code.op(Code.IMUL);
+                        code.op(Code.I2B);
+                        code.op(Code.IADD);
+                        code.op(Code.I2B);
+                        code.op(Code.BASTORE);
+                        code.mark(skip);
+                        break;
+                    case Bytecode.SCAN:
+                        code.load(Code.ALOAD, MEMORY);
+                        code.load(Code.ILOAD, DATA_POINTER);
+                        code.push(operand);
+                        code.invoke(Code.INVOKESTATIC, RUNTIME, "scan", "([BII)I");
+                        code.store(Code.ISTORE, DATA_POINTER);
+                        break;
+                    case Bytecode.CHECKED_ADD:
+                        checkOffset(offset);
+                        loadCell(offset);
+                        code.push(operand);
+                        code.invoke(Code.INVOKESTATIC, RUNTIME, "add", "([BII)V");
+                        break;
+                    case Bytecode.WRITE_CONST:
+                        code.load(Code.ALOAD, OUTPUT);
+                        code.getStatic(className, OUTPUTS, OUTPUTS_DESCRIPTOR);
+                        code.push(output(address));
+                        code.op(Code.AALOAD);
+                        code.invoke(Code.INVOKESTATIC, RUNTIME, "write", "(Ljava/io/OutputStream;[B)V");
+                        break;
+                    default:
+                        throw new IllegalStateException("Unexpected opcode: " + opcodes[address]);
+                }
+            }
+
+            private void finish() {
+                code.load(Code.ILOAD, DATA_POINTER);
+                code.op(Code.IRETURN);
+                writeOutOfBounds();
+            }
+
+            private void writeOutOfBounds() {
+                if (isOutOfBoundsUsed) {
+                    code.mark(outOfBounds);
+                    code.load(Code.ILOAD, POSITION);
+                    code.invoke(Code.INVOKESTATIC, RUNTIME, "outOfBounds", "(I)Ljava/lang/RuntimeException;");
+                    code.op(Code.ATHROW);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.jit;
+
+import net.coobird.labs.brainfuccuccino.machine.MemoryCellOverflowException;
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Support methods called by programs compiled by the {@link JitCompiler}.
+ * <p>
+ * These methods are public so that compiled programs, which are loaded by
+ * their own class loader, can call them. They are not intended to be
+ * called directly.
+ */
+public final class JitRuntime {
+    private JitRuntime() {}
+
+    /**
+     * Reads a byte from the input, where end-of-stream reads as {@code 0}.
+     * @param is    An {@link InputStream} for inputs.
+     * @return  The byte which was read.
+     * @throws IOException  When reading fails.
+     */
+    public static int read(InputStream is) throws IOException {
+        byte inData = (byte) is.read();
+        return inData == -1 ? 0 : inData;
+    }
+
+    /**
+     * Writes output computed ahead of time.
+     * @param os        An {@link OutputStream} for outputs.
+     * @param output    The bytes to write.
+     * @throws IOException  When writing fails.
+     */
+    public static void write(OutputStream os, byte[] output) throws IOException {
+        os.write(output, 0, output.length);
+    }
+
+    /**
+     * Moves from the given position by the stride until a memory cell
+     * containing zero is found.
+     * @param memory    Memory cells of the brainfuck machine.
+     * @param position  Position to start from.
+     * @param stride    Number of cells to move by at each step.
+     * @return  Position of the memory cell containing zero.
+     */
+    public static int scan(byte[] memory, int position, int stride) {
+        while (true) {
+            if (position < 0 || position >= memory.length) {
+                throw outOfBounds(position);
+            }
+            if (memory[position] == 0) {
+                return position;
+            }
+            position += stride;
+        }
+    }
+
+    /**
+     * Adds an amount to a memory cell as a signed byte, throwing where
+     * the value would leave the range of a signed byte.
+     * @param memory    Memory cells of the brainfuck machine.
+     * @param position  Position of the memory cell.
+     * @param amount    Amount to add, which is negative to subtract.
+     */
+    public static void add(byte[] memory, int position, int amount) {
+        int value = memory[position] + amount;
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+            // Adding one at a time stops at the end of the range.
+            byte limit = value < Byte.MIN_VALUE ? Byte.MIN_VALUE : Byte.MAX_VALUE;
+            memory[position] = limit;
+            throw new MemoryCellOverflowException(
+                    String.format(
+                            "Value <%s> out of bounds at <%s>",
+                            limit, position
+                    )
+            );
+        }
+        memory[position] = (byte) value;
+    }
+
+    /**
+     * Returns the exception to throw for an access outside the memory.
+     * @param position  Position of the memory cell which was accessed.
+     * @return  The exception to throw.
+     */
+    public static RuntimeException outOfBounds(int position) {
+        return new MemoryRangeOutOfBoundsException(
+                String.format(
+                        "Memory cell out of bounds: <%s>",
+                        position
+                )
+        );
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.jit;
+
+/**
+ * The path taken through one iteration of a loop, as recorded by an
+ * interpreter.
+ * <p>
+ * The path consists of the addresses of the instructions executed after the
+ * loop's {@code JMZ} instruction, up to but excluding its {@code JMN}
+ * instruction. Inner loops appear as many times as they were repeated. For
+ * each jump instruction, whether the current memory cell was zero is
+ * recorded, which determines the direction of the jump.
+ */
+public final class Trace {
+    private final int closing;
+    private final int[] addresses;
+    private final boolean[] isZero;
+
+    /**
+     * Instantiates a trace.
+     * @param closing   Address of the loop's {@code JMN} instruction.
+     * @param addresses Addresses of the instructions executed, in order.
+     * @param isZero    Whether the current memory cell was zero when each
+     *                  instruction was executed.
+     */
+    public Trace(int closing, int[] addresses, boolean[] isZero) {
+        if (addresses.length != isZero.length) {
+            throw new IllegalArgumentException("Addresses and conditions differ in length.");
+        }
+        this.closing = closing;
+        this.addresses = addresses.clone();
+        this.isZero = isZero.clone();
+    }
+
+    /**
+     * Returns the address of the loop's {@code JMN} instruction.
+     * @return  The address.
+     */
+    public int getClosing() {
+        return closing;
+    }
+
+    /**
+     * Returns the number of instructions in the trace.
+     * @return  The number of instructions.
+     */
+    public int size() {
+        return addresses.length;
+    }
+
+    /**
+     * Returns the address of an instruction in the trace.
+     * @param index Position in the trace.
+     * @return  The address.
+     */
+    public int getAddress(int index) {
+        return addresses[index];
+    }
+
+    /**
+     * Returns whether the current memory cell was zero when an instruction
+     * in the trace was executed.
+     * @param index Position in the trace.
+     * @return  {@code true} if the memory cell was zero, {@code false} otherwise.
+     */
+    public boolean isZero(int index) {
+        return isZero[index];
+    }
+
+    @Override
+    public String toString() {
+        return "Trace{" +
+                "closing=" + closing +
+                ", size=" + addresses.length +
+                '}';
+    }
+}
@@ -0,0 +1,637 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A program for the {@link net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachine}
+ * in packed form.
+ * <p>
+ * Rather than holding an {@link Instruction} object for each instruction,
+ * the opcodes, operands and offsets are held in parallel arrays, where the
+ * address of an instruction is its index into the arrays. Opcodes are
+ * encoded as the {@code byte} constants defined in this class, allowing the
+ * virtual machine to dispatch on them directly.
+ * <p>
+ * The arrays returned by {@link #getOpcodes()}, {@link #getOperands()},
+ * {@link #getOffsets()} and {@link #getConstants()} are not copied, and must
+ * not be modified.
+ * <p>
+ * Instructions may record the address in the brainfuck program they were
+ * compiled from, which allows execution to be mapped back to the program.
+ * <p>
+ * Frequent sequences of instructions can be fused into {@link Superinstruction}s
+ * through the {@link #fuse(Set)} method. These only change the opcodes which
+ * the virtual machine dispatches on, given by {@link #getDispatchOpcodes()}.
+ * A list of {@link Instruction}s can be obtained through the
+ * {@link #toInstructions()} method for debugging and introspection.
+ * <p>
+ * When a program is packed, its loops are analyzed for the range of memory
+ * cells they access. A loop is balanced when each iteration ends with the
+ * memory cell pointer where it started, in which case the range is known
+ * relative to the memory cell pointer at the start of the loop. A single
+ * check at the start of a balanced loop then covers every memory access
+ * made by the loop. See {@link #isBalancedLoop(int)}.
+ * <p>
+ * Likewise, when every loop of a program is balanced, the memory cells
+ * accessed by the whole program are known, which allows a virtual machine
+ * to allocate only as many memory cells as the program uses. See
+ * {@link #getFootprint()}.
+ */
+public final class Bytecode {
+    public static final byte ADD = 0;
+    public static final byte MOVE = 1;
+    public static final byte JMZ = 2;
+    public static final byte JMN = 3;
+    public static final byte READ = 4;
+    public static final byte WRITE = 5;
+    public static final byte SET = 6;
+    public static final byte MUL = 7;
+    public static final byte SCAN = 8;
+    public static final byte CHECKED_ADD = 9;
+    public static final byte WRITE_CONST = 10;
+
+    // Encodings of superinstructions, which only appear in the dispatch opcodes.
+    public static final byte MOVE_JMZ = 11;
+    public static final byte MOVE_JMN = 12;
+    public static final byte ADD_MOVE = 13;
+    public static final byte MOVE_ADD = 14;
+    public static final byte WRITE_MOVE = 15;
+    public static final byte ADD_JMN = 16;
+    public static final byte MOVE_ADD_MOVE = 17;
+
+    /**
+     * The source address of instructions which weren't compiled from a
+     * single address in the brainfuck program.
+     */
+    public static final int NO_SOURCE_ADDRESS = -1;
+
+    /**
+     * The footprint of a program whose memory accesses aren't known ahead
+     * of time.
+     */
+    public static final int UNKNOWN_FOOTPRINT = -1;
+
+    private static final Opcode[] OPCODES = new Opcode[Opcode.values().length];
+
+    static {
+        for (Opcode opcode : Opcode.values()) {
+            OPCODES[encode(opcode)] = opcode;
+        }
+    }
+
+    private final byte[] opcodes;
+    private final int[] operands;
+    private final int[] offsets;
+    private final byte[][] constants;
+    private final int[] sourceAddresses;
+    private final byte[] dispatchOpcodes;
+    // The range of offsets accessed by each balanced loop, indexed by the address of its JMZ instruction.
+    private final boolean[] balancedLoops;
+    private final int[] lowestOffsets;
+    private final int[] highestOffsets;
+    private final int footprint;
+
+    private Bytecode(byte[] opcodes, int[] operands, int[] offsets, byte[][] constants, int[] sourceAddresses, byte[] dispatchOpcodes) {
+        this.opcodes = opcodes;
+        this.dispatchOpcodes = dispatchOpcodes;
+        this.operands = operands;
+        this.offsets = offsets;
+        this.constants = constants;
+        this.sourceAddresses = sourceAddresses;
+        this.balancedLoops = new boolean[opcodes.length];
+        this.lowestOffsets = new int[opcodes.length];
+        this.highestOffsets = new int[opcodes.length];
+
+        // Inner loops end before their outer loops, so they are analyzed first.
+        for (int address = 0; address < opcodes.length; address++) {
+            int opening = operands[address];
+            if (opcodes[address] == JMN && opening >= 0 && opening < address
+                    && opcodes[opening] == JMZ && operands[opening] == address) {
+                analyzeLoop(opening, address);
+            }
+        }
+        this.footprint = analyzeFootprint();
+    }
+
+    private Bytecode(Bytecode bytecode, byte[] dispatchOpcodes) {
+        this.opcodes = bytecode.opcodes;
+        this.dispatchOpcodes = dispatchOpcodes;
+        this.operands = bytecode.operands;
+        this.offsets = bytecode.offsets;
+        this.constants = bytecode.constants;
+        this.sourceAddresses = bytecode.sourceAddresses;
+        this.balancedLoops = bytecode.balancedLoops;
+        this.lowestOffsets = bytecode.lowestOffsets;
+        this.highestOffsets = bytecode.highestOffsets;
+        this.footprint = bytecode.footprint;
+    }
+
+    /**
+     * Finds the range of offsets accessed by a loop, if it is balanced.
+     */
+    private void analyzeLoop(int opening, int closing) {
+        long[] reach = reach(opening + 1, closing);
+        if (reach == null || reach[0] != 0 || reach[1] < Integer.MIN_VALUE || reach[2] > Integer.MAX_VALUE) {
+            return;
+        }
+        balancedLoops[opening] = true;
+        lowestOffsets[opening] = (int) reach[1];
+        highestOffsets[opening] = (int) reach[2];
+    }
+
+    /**
+     * Finds the number of memory cells from position {@code 0} accessed by
+     * the program, if known. Programs which may access a memory cell before
+     * position {@code 0} have an unknown footprint, so that the access
+     * fails as it would otherwise.
+     */
+    private int analyzeFootprint() {
+        long[] reach = reach(0, opcodes.length);
+        if (reach == null || reach[1] < 0 || reach[2] >= Integer.MAX_VALUE) {
+            return UNKNOWN_FOOTPRINT;
+        }
+        return (int) reach[2] + 1;
+    }
+
+    /**
+     * Finds the memory cells accessed by the instructions from start
+     * (inclusive) to end (exclusive), relative to the memory cell pointer
+     * at the start. Instructions with a {@code SCAN} instruction or an
+     * unbalanced loop move the memory cell pointer by an amount which isn't
+     * known, so their memory accesses aren't known either.
+     * @return  The position at the end, and the lowest and highest
+     *          positions accessed, or {@code null} if not known.
+     */
+    private long[] reach(int start, int end) {
+        long position = 0;
+        long lowest = 0;
+        long highest = 0;
+        for (int address = start; address < end; address++) {
+            long reached;
+            switch (opcodes[address]) {
+                case ADD:
+                case CHECKED_ADD:
+                case READ:
+                case WRITE:
+                case SET:
+                case MUL:
+                    // The current memory cell read by MUL was reached when moving to it.
+                    reached = position + offsets[address];
+                    break;
+                case WRITE_CONST:
+                    // Output computed ahead of time doesn't access memory.
+                    continue;
+                case MOVE:
+                    position += operands[address];
+                    reached = position;
+                    break;
+                case JMZ:
+                    int closing = operands[address];
+                    if (closing <= address || closing >= end || !balancedLoops[address]) {
+                        return null;
+                    }
+                    lowest = Math.min(lowest, position + lowestOffsets[address]);
+                    highest = Math.max(highest, position + highestOffsets[address]);
+                    address = closing;
+                    continue;
+                default:
+                    return null;
+            }
+            lowest = Math.min(lowest, reached);
+            highest = Math.max(highest, reached);
+        }
+        return new long[] {position, lowest, highest};
+    }
+
+    /**
+     * Returns the {@code byte} encoding of an opcode.
+     * @param opcode    The opcode.
+     * @return  The encoded opcode.
+     */
+    public static byte encode(Opcode opcode) {
+        switch (opcode) {
+            case ADD:
+                return ADD;
+            case MOVE:
+                return MOVE;
+            case JMZ:
+                return JMZ;
+            case JMN:
+                return JMN;
+            case READ:
+                return READ;
+            case WRITE:
+                return WRITE;
+            case SET:
+                return SET;
+            case MUL:
+                return MUL;
+            case SCAN:
+                return SCAN;
+            case CHECKED_ADD:
+                return CHECKED_ADD;
+            case WRITE_CONST:
+                return WRITE_CONST;
+            default:
+                throw new IllegalArgumentException("Unknown opcode: " + opcode);
+        }
+    }
+
+    /**
+     * Returns the {@code byte} encoding of a superinstruction.
+     * @param superinstruction  The superinstruction.
+     * @return  The encoded superinstruction.
+     */
+    public static byte encode(Superinstruction superinstruction) {
+        switch (superinstruction) {
+            case MOVE_JMZ:
+                return MOVE_JMZ;
+            case MOVE_JMN:
+                return MOVE_JMN;
+            case ADD_MOVE:
+                return ADD_MOVE;
+            case MOVE_ADD:
+                return MOVE_ADD;
+            case WRITE_MOVE:
+                return WRITE_MOVE;
+            case ADD_JMN:
+                return ADD_JMN;
+            case MOVE_ADD_MOVE:
+                return MOVE_ADD_MOVE;
+            default:
+                throw new IllegalArgumentException("Unknown superinstruction: " + superinstruction);
+        }
+    }
+
+    /**
+     * Returns the opcode for its {@code byte} encoding.
+     * @param code  The encoded opcode.
+     * @return  The opcode.
+     */
+    public static Opcode decode(byte code) {
+        if (code < 0 || code >= OPCODES.length) {
+            throw new IllegalArgumentException("Unknown opcode: " + code);
+        }
+        return OPCODES[code];
+    }
+
+    /**
+     * Packs a list of {@link Instruction}s.
+     * @param instructions  Instructions to pack.
+     * @return  The packed program.
+     */
+    public static Bytecode of(List<Instruction> instructions) {
+        Builder builder = new Builder(instructions.size());
+        for (Instruction instruction : instructions) {
+            int address = builder.add(instruction.getOpcode(), instruction.getOperand(), instruction.getOffset());
+            if (instruction.getConstant() != null) {
+                builder.setConstant(address, instruction.getConstant());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the encoded opcodes of the program.
+     * @return  The encoded opcodes.
+     */
+    public byte[] getOpcodes() {
+        return opcodes;
+    }
+
+    /**
+     * Returns the encoded opcodes which the virtual machine dispatches on.
+     * <p>
+     * These are the same as {@link #getOpcodes()}, except that the first
+     * instruction of each fused sequence is replaced by the encoding of its
+     * {@link Superinstruction}.
+     * @return  The encoded opcodes to dispatch on.
+     */
+    public byte[] getDispatchOpcodes() {
+        return dispatchOpcodes;
+    }
+
+    /**
+     * Returns the operands of the program.
+     * @return  The operands.
+     */
+    public int[] getOperands() {
+        return operands;
+    }
+
+    /**
+     * Returns the offsets of the program.
+     * @return  The offsets.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the constants of the program, such as the bytes written by
+     * {@link Opcode#WRITE_CONST} instructions.
+     * @return  The constants, which are {@code null} for instructions without one.
+     */
+    public byte[][] getConstants() {
+        return constants;
+    }
+
+    /**
+     * Returns the address in the brainfuck program each instruction was
+     * compiled from, or {@link #NO_SOURCE_ADDRESS} when not known.
+     * @return  The source addresses.
+     */
+    public int[] getSourceAddresses() {
+        return sourceAddresses;
+    }
+
+    /**
+     * Returns whether the loop starting at the given address is balanced,
+     * so that each of its iterations ends with the memory cell pointer where
+     * it started, and the memory cells it accesses are at known offsets.
+     * @param opening   The address of the loop's {@code JMZ} instruction.
+     * @return  {@code true} if the loop is balanced, {@code false} otherwise,
+     *          including when there is no loop at the address.
+     */
+    public boolean isBalancedLoop(int opening) {
+        return balancedLoops[opening];
+    }
+
+    /**
+     * Returns the lowest offset from the memory cell pointer at the start of
+     * a balanced loop which the loop accesses, including inner loops.
+     * @param opening   The address of the loop's {@code JMZ} instruction.
+     * @return  The lowest offset, which is zero or negative.
+     * @throws IllegalArgumentException When the loop is not balanced.
+     */
+    public int getLowestOffset(int opening) {
+        if (!balancedLoops[opening]) {
+            throw new IllegalArgumentException("Not a balanced loop: " + opening);
+        }
+        return lowestOffsets[opening];
+    }
+
+    /**
+     * Returns the highest offset from the memory cell pointer at the start
+     * of a balanced loop which the loop accesses, including inner loops.
+     * @param opening   The address of the loop's {@code JMZ} instruction.
+     * @return  The highest offset, which is zero or positive.
+     * @throws IllegalArgumentException When the loop is not balanced.
+     */
+    public int getHighestOffset(int opening) {
+        if (!balancedLoops[opening]) {
+            throw new IllegalArgumentException("Not a balanced loop: " + opening);
+        }
+        return highestOffsets[opening];
+    }
+
+    /**
+     * Returns the number of memory cells from position {@code 0} which the
+     * program may access, when known ahead of time.
+     * <p>
+     * The footprint is known when all loops of the program are balanced, so
+     * that every memory access is at a known position, and no memory cell
+     * before position {@code 0} is accessed.
+     * @return  The number of memory cells, or {@link #UNKNOWN_FOOTPRINT}.
+     */
+    public int getFootprint() {
+        return footprint;
+    }
+
+    /**
+     * Returns the number of memory cells to allocate for the program, out
+     * of a memory of the given size.
+     * @param size  The number of memory cells of the memory.
+     * @return  The footprint of the program when known and within the
+     *          memory, or the size of the memory otherwise.
+     */
+    public int getMemorySize(int size) {
+        return footprint != UNKNOWN_FOOTPRINT && footprint <= size ? footprint : size;
+    }
+
+    /**
+     * Returns the number of instructions in the program.
+     * @return  The number of instructions.
+     */
+    public int size() {
+        return opcodes.length;
+    }
+
+    /**
+     * Returns this program with sequences of instructions fused into the
+     * given superinstructions, where they appear.
+     * <p>
+     * The program is scanned from the beginning, fusing the longest
+     * sequence found at each address. Any superinstructions which were
+     * already fused are replaced.
+     * @param superinstructions The superinstructions to fuse.
+     * @return  The program with superinstructions.
+     */
+    public Bytecode fuse(Set<Superinstruction> superinstructions) {
+        List<Superinstruction> candidates = new ArrayList<>(superinstructions);
+        candidates.sort((a, b) -> b.getOpcodes().size() - a.getOpcodes().size());
+
+        byte[] fused = opcodes.clone();
+        int address = 0;
+        while (address < opcodes.length) {
+            int length = 1;
+            for (Superinstruction candidate : candidates) {
+                if (matches(candidate, address)) {
+                    fused[address] = encode(candidate);
+                    length = candidate.getOpcodes().size();
+                    break;
+                }
+            }
+            address += length;
+        }
+        return new Bytecode(this, fused);
+    }
+
+    private boolean matches(Superinstruction superinstruction, int address) {
+        List<Opcode> sequence = superinstruction.getOpcodes();
+        if (address + sequence.size() > opcodes.length) {
+            return false;
+        }
+        for (int i = 0; i < sequence.size(); i++) {
+            if (opcodes[address + i] != encode(sequence.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Unpacks this program into a list of {@link Instruction}s.
+     * @return  An unmodifiable list of instructions.
+     */
+    public List<Instruction> toInstructions() {
+        List<Instruction> instructions = new ArrayList<>(opcodes.length);
+        for (int i = 0; i < opcodes.length; i++) {
+            instructions.add(constants[i] != null
+                    ? new Instruction(decode(opcodes[i]), constants[i])
+                    : new Instruction(decode(opcodes[i]), operands[i], offsets[i]));
+        }
+        return Collections.unmodifiableList(instructions);
+    }
+
+    @Override
+    public String toString() {
+        return "Bytecode{" +
+                "size=" + opcodes.length +
+                '}';
+    }
+
+    /**
+     * Builds a {@link Bytecode} one instruction at a time.
+     */
+    public static final class Builder {
+        private byte[] opcodes;
+        private int[] operands;
+        private int[] offsets;
+        private byte[][] constants;
+        private int[] sourceAddresses;
+        private int size = 0;
+
+        public Builder() {
+            this(16);
+        }
+
+        public Builder(int initialCapacity) {
+            opcodes = new byte[Math.max(initialCapacity, 1)];
+            operands = new int[opcodes.length];
+            offsets = new int[opcodes.length];
+            constants = new byte[opcodes.length][];
+            sourceAddresses = new int[opcodes.length];
+            Arrays.fill(sourceAddresses, NO_SOURCE_ADDRESS);
+        }
+
+        /**
+         * Appends an instruction.
+         * @param opcode    The opcode.
+         * @param operand   The operand.
+         * @param offset    The offset from the current memory cell.
+         * @return  The address of the appended instruction.
+         */
+        public int add(Opcode opcode, int operand, int offset) {
+            if (size == opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, size * 2);
+                operands = Arrays.copyOf(operands, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+                constants = Arrays.copyOf(constants, size * 2);
+                sourceAddresses = Arrays.copyOf(sourceAddresses, size * 2);
+                Arrays.fill(sourceAddresses, size, size * 2, NO_SOURCE_ADDRESS);
+            }
+            opcodes[size] = encode(opcode);
+            operands[size] = operand;
+            offsets[size] = offset;
+            return size++;
+        }
+
+        /**
+         * Appends an instruction which operates on the current memory cell.
+         * @param opcode    The opcode.
+         * @param operand   The operand.
+         * @return  The address of the appended instruction.
+         */
+        public int add(Opcode opcode, int operand) {
+            return add(opcode, operand, 0);
+        }
+
+        /**
+         * Appends an instruction which ignores its operand.
+         * @param opcode    The opcode.
+         * @return  The address of the appended instruction.
+         */
+        public int add(Opcode opcode) {
+            return add(opcode, -1);
+        }
+
+        /**
+         * Changes the operand of an instruction which was already appended.
+         * @param address   The address of the instruction.
+         * @param operand   The new operand.
+         */
+        public void setOperand(int address, int operand) {
+            if (address < 0 || address >= size) {
+                throw new IndexOutOfBoundsException("Address out of range: " + address);
+            }
+            operands[address] = operand;
+        }
+
+        /**
+         * Sets the constant of an instruction which was already appended.
+         * @param address   The address of the instruction.
+         * @param constant  The constant, which must not be modified afterwards.
+         */
+        public void setConstant(int address, byte[] constant) {
+            if (address < 0 || address >= size) {
+                throw new IndexOutOfBoundsException("Address out of range: " + address);
+            }
+            constants[address] = constant;
+        }
+
+        /**
+         * Records the address in the brainfuck program which an instruction
+         * was compiled from.
+         * @param address   The address of the instruction.
+         * @param sourceAddress The address in the brainfuck program.
+         */
+        public void setSourceAddress(int address, int sourceAddress) {
+            if (address < 0 || address >= size) {
+                throw new IndexOutOfBoundsException("Address out of range: " + address);
+            }
+            sourceAddresses[address] = sourceAddress;
+        }
+
+        /**
+         * Returns the number of instructions appended so far, which is also
+         * the address of the next instruction.
+         * @return  The number of instructions.
+         */
+        public int size() {
+            return size;
+        }
+
+        public Bytecode build() {
+            byte[] builtOpcodes = Arrays.copyOf(opcodes, size);
+            return new Bytecode(
+                    builtOpcodes,
+                    Arrays.copyOf(operands, size),
+                    Arrays.copyOf(offsets, size),
+                    Arrays.copyOf(constants, size),
+                    Arrays.copyOf(sourceAddresses, size),
+                    builtOpcodes
+            );
+        }
+    }
+}
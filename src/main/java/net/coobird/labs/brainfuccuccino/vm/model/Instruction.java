@@ -26,10 +26,16 @@
 
 package net.coobird.labs.brainfuccuccino.vm.model;
 
+import java.util.Arrays;
+
 /**
  * Instruction of the {@link net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachine}.
  * <p>
- * An instruction consists of an {@link Opcode} and operand.
+ * An instruction consists of an {@link Opcode}, an operand, and an offset.
+ * The offset is relative to the memory cell pointer, and is {@code 0} for
+ * opcodes which do not use it.
+ * Instructions which write output computed ahead of time, such as
+ * {@link Opcode#WRITE_CONST}, also hold the bytes to write as a constant.
  * <p>
  * The operand is mutable to allow changes by the compiler.
  * It is not intended to be mutable at runtime.
@@ -37,14 +43,30 @@ package net.coobird.labs.brainfuccuccino.vm.model;
 public class Instruction {
     private final Opcode opcode;
     private int operand;
+    private final int offset;
+    private final byte[] constant;
 
     public Instruction(Opcode opcode) {
         this(opcode, -1);
     }
 
+    public Instruction(Opcode opcode, byte[] constant) {
+        this(opcode, -1, 0, constant);
+    }
+
     public Instruction(Opcode opcode, int operand) {
+        this(opcode, operand, 0);
+    }
+
+    public Instruction(Opcode opcode, int operand, int offset) {
+        this(opcode, operand, offset, null);
+    }
+
+    private Instruction(Opcode opcode, int operand, int offset, byte[] constant) {
         this.opcode = opcode;
         this.operand = operand;
+        this.offset = offset;
+        this.constant = constant;
     }
 
     public Opcode getOpcode() {
@@ -59,6 +81,18 @@ public class Instruction {
         this.operand = operand;
     }
 
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the constant of this instruction, which must not be modified.
+     * @return  The constant, or {@code null} for instructions without one.
+     */
+    public byte[] getConstant() {
+        return constant;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -67,6 +101,8 @@ public class Instruction {
         Instruction that = (Instruction) o;
 
         if (operand != that.operand) return false;
+        if (offset != that.offset) return false;
+        if (!Arrays.equals(constant, that.constant)) return false;
         return opcode == that.opcode;
     }
 
@@ -74,6 +110,8 @@ public class Instruction {
     public int hashCode() {
         int result = opcode != null ? opcode.hashCode() : 0;
         result = 31 * result + operand;
+        result = 31 * result + offset;
+        result = 31 * result + Arrays.hashCode(constant);
         return result;
     }
 
@@ -82,6 +120,8 @@ public class Instruction {
         return "Instruction{" +
                 "opcode=" + opcode +
                 ", operand=" + operand +
+                ", offset=" + offset +
+                (constant != null ? ", constant=" + Arrays.toString(constant) : "") +
                 '}';
     }
 }
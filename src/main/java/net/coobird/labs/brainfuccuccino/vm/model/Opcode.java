@@ -31,13 +31,15 @@ package net.coobird.labs.brainfuccuccino.vm.model;
  */
 public enum Opcode {
     /**
-     * Adds the operand value from the current memory cell.
+     * Adds the operand value to the memory cell at the offset from the
+     * current memory cell. The operand is negative to subtract.
      */
     ADD,
     /**
-     * Subtracts the operand value from the current memory cell.
+     * Move memory cell pointer by operand locations.
+     * The operand is negative to move backward.
      */
-    SUB,
+    MOVE,
     /**
      * Jump to operand location when the current memory cell value is zero.
      */
@@ -47,21 +49,48 @@ public enum Opcode {
      */
     JMN,
     /**
-     * Move memory cell pointer forward by operand locations.
+     * Read a value from the input port and stores in the memory cell at the
+     * offset from the current memory cell.
+     * An {@link Instruction} with this opcode will ignore the operand.
      */
-    MADD,
+    READ,
     /**
-     * Move memory cell pointer backward by operand locations.
+     * Write a value from the memory cell at the offset from the current
+     * memory cell to the output port.
+     * An {@link Instruction} with this opcode will ignore the operand.
      */
-    MSUB,
+    WRITE,
     /**
-     * Read a value from the input port and stores in the current memory cell.
-     * An {@link Instruction} with this opcode will ignore the operand.
+     * Sets the memory cell at the offset from the current memory cell to the
+     * operand value.
      */
-    READ,
+    SET,
     /**
-     * Write a value from the current memory cell to the output port.
+     * Adds the current memory cell value multiplied by the operand to the
+     * memory cell at the offset from the current memory cell.
+     * The current memory cell is left unchanged.
+     */
+    MUL,
+    /**
+     * Move memory cell pointer by operand locations until the current memory
+     * cell value is zero. The operand is negative to move backward.
+     */
+    SCAN,
+    /**
+     * Adds the operand value to the memory cell at the offset from the
+     * current memory cell, as a signed byte which doesn't wrap around.
+     * The operand is negative to subtract.
+     * <p>
+     * A {@link net.coobird.labs.brainfuccuccino.machine.MemoryCellOverflowException}
+     * is thrown where adding the operand one at a time would leave the range
+     * of a signed byte, with the memory cell at the end of the range.
+     */
+    CHECKED_ADD,
+    /**
+     * Writes the bytes of the instruction's constant to the output port at
+     * once. The output is computed by the compiler ahead of time.
      * An {@link Instruction} with this opcode will ignore the operand.
+     * @see Instruction#getConstant()
      */
-    WRITE,
+    WRITE_CONST,
 }
@@ -0,0 +1,88 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sequences of instructions which the
+ * {@link net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachine} can
+ * execute as a single instruction, reducing the number of dispatches.
+ * <p>
+ * A superinstruction takes the place of the first instruction of the
+ * sequence, while the following instructions are left in place. Jumps to
+ * the following instructions therefore continue to execute them one at a time.
+ *
+ * @see Bytecode#fuse(java.util.Set)
+ */
+public enum Superinstruction {
+    /**
+     * {@link Opcode#MOVE} followed by {@link Opcode#JMZ}.
+     */
+    MOVE_JMZ(Opcode.MOVE, Opcode.JMZ),
+    /**
+     * {@link Opcode#MOVE} followed by {@link Opcode#JMN}.
+     */
+    MOVE_JMN(Opcode.MOVE, Opcode.JMN),
+    /**
+     * {@link Opcode#ADD} followed by {@link Opcode#MOVE}.
+     */
+    ADD_MOVE(Opcode.ADD, Opcode.MOVE),
+    /**
+     * {@link Opcode#MOVE} followed by {@link Opcode#ADD}.
+     */
+    MOVE_ADD(Opcode.MOVE, Opcode.ADD),
+    /**
+     * {@link Opcode#WRITE} followed by {@link Opcode#MOVE}.
+     */
+    WRITE_MOVE(Opcode.WRITE, Opcode.MOVE),
+    /**
+     * {@link Opcode#ADD} followed by {@link Opcode#JMN}.
+     */
+    ADD_JMN(Opcode.ADD, Opcode.JMN),
+    /**
+     * {@link Opcode#MOVE} followed by {@link Opcode#ADD} and {@link Opcode#MOVE}.
+     */
+    MOVE_ADD_MOVE(Opcode.MOVE, Opcode.ADD, Opcode.MOVE),
+    ;
+
+    private final List<Opcode> opcodes;
+
+    Superinstruction(Opcode... opcodes) {
+        this.opcodes = Collections.unmodifiableList(Arrays.asList(opcodes));
+    }
+
+    /**
+     * Returns the opcodes of the sequence of instructions, in order.
+     * @return  The opcodes.
+     */
+    public List<Opcode> getOpcodes() {
+        return opcodes;
+    }
+}
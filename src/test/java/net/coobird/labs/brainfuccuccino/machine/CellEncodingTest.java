@@ -0,0 +1,105 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CellEncodingTest {
+    @Test
+    public void bytesReadUnsigned() throws IOException {
+        InputStream is = new ByteArrayInputStream(new byte[] {65, (byte) 0xFF});
+
+        assertEquals(65, CellEncoding.BYTES.read(is));
+        assertEquals(255, CellEncoding.BYTES.read(is));
+        assertEquals(0, CellEncoding.BYTES.read(is));
+    }
+
+    @Test
+    public void bytesWriteLowestBits() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        CellEncoding.BYTES.write(os, 65);
+        CellEncoding.BYTES.write(os, 0x1FF);
+        CellEncoding.BYTES.write(os, 0xFFFFFFFFL);
+
+        assertArrayEquals(new byte[] {65, (byte) 0xFF, (byte) 0xFF}, os.toByteArray());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Hello World!", "こんにちは世界！", "\u00e9\ud83d\ude00"})
+    public void utf8RoundTrip(String text) throws IOException {
+        InputStream is = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        int codePoint;
+        while ((codePoint = CellEncoding.UTF_8.read(is)) != 0) {
+            CellEncoding.UTF_8.write(os, codePoint);
+        }
+
+        assertEquals(text, new String(os.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void utf8ReadCodePoints() throws IOException {
+        InputStream is = new ByteArrayInputStream("aé世😀".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals('a', CellEncoding.UTF_8.read(is));
+        assertEquals(0xE9, CellEncoding.UTF_8.read(is));
+        assertEquals(0x4E16, CellEncoding.UTF_8.read(is));
+        assertEquals(0x1F600, CellEncoding.UTF_8.read(is));
+        assertEquals(0, CellEncoding.UTF_8.read(is));
+    }
+
+    @Test
+    public void utf8MalformedInputReadAsReplacementCharacter() throws IOException {
+        InputStream is = new ByteArrayInputStream(new byte[] {(byte) 0x80, (byte) 0xE3, 0x41});
+
+        assertEquals(0xFFFD, CellEncoding.UTF_8.read(is));
+        assertEquals(0xFFFD, CellEncoding.UTF_8.read(is));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0xD800, 0x110000, 0xFFFFFFFFL})
+    public void utf8InvalidCodePointWrittenAsReplacementCharacter(long value) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        CellEncoding.UTF_8.write(os, value);
+
+        assertEquals("\uFFFD", new String(os.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
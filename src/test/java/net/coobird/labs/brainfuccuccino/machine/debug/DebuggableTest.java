@@ -27,8 +27,10 @@
 package net.coobird.labs.brainfuccuccino.machine.debug;
 
 import net.coobird.labs.brainfuccuccino.Utils;
+import net.coobird.labs.brainfuccuccino.machine.ProgramRangeOutOfBoundsException;
 import net.coobird.labs.brainfuccuccino.machine.impl.ClassicBrainfuckMachine;
 import net.coobird.labs.brainfuccuccino.machine.impl.SignedByteBrainfuckMachine;
+import net.coobird.labs.brainfuccuccino.vm.DebuggableBrainfuckVirtualMachine;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -46,7 +48,8 @@ public class DebuggableTest {
     public static Stream<Arguments> debuggableMachines() {
         return Stream.of(
                 Arguments.of(new SignedByteBrainfuckMachine()),
-                Arguments.of(new ClassicBrainfuckMachine())
+                Arguments.of(new ClassicBrainfuckMachine()),
+                Arguments.of(new DebuggableBrainfuckVirtualMachine())
         );
     }
 
@@ -181,4 +184,22 @@ public class DebuggableTest {
                 () -> machine.execute()
         );
     }
+
+    public static Stream<Arguments> unbalancedPrograms() {
+        return Stream.of(
+                Arguments.of(new SignedByteBrainfuckMachine(), "]"),
+                Arguments.of(new SignedByteBrainfuckMachine(), "[[]"),
+                Arguments.of(new ClassicBrainfuckMachine(), "]"),
+                Arguments.of(new ClassicBrainfuckMachine(), "[[]")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("unbalancedPrograms")
+    public void unbalancedLoopsRejectedOnLoad(Debuggable machine, String program) {
+        assertThrows(
+                ProgramRangeOutOfBoundsException.class,
+                () -> machine.load(program.getBytes(), null, null)
+        );
+    }
 }
@@ -132,6 +132,43 @@ public class ByteBasedDebuggableBrainfuckMachineTest {
         MachineMetrics metrics = machine.getMetrics();
         assertEquals(55, metrics.getInstructionsExecuted());
         assertEquals(0, metrics.getInstructionsSkipped());
-        assertEquals(59, metrics.getProgramCounterChanges());
+        assertEquals(57, metrics.getProgramCounterChanges());
+    }
+
+    @ParameterizedTest
+    @MethodSource("debuggableMachines")
+    public <T extends Debuggable & Introspectable<Byte>> void breakpointOnCommentInLoopTest(T machine) throws IOException {
+        machine.addBreakpoint(new Breakpoint(4, true));
+
+        machine.load("++[ab-]".getBytes(), null, null);
+        machine.execute();
+        assertEquals(4, machine.getState().getProgramCounter());
+        assertArrayEquals(new byte[] {2}, slice(machine.getState().getMemory(), 1));
+
+        machine.execute();
+        assertEquals(4, machine.getState().getProgramCounter());
+        assertArrayEquals(new byte[] {1}, slice(machine.getState().getMemory(), 1));
+
+        machine.execute();
+        assertEquals(7, machine.getState().getProgramCounter());
+        assertArrayEquals(new byte[] {0}, slice(machine.getState().getMemory(), 1));
+
+        MachineMetrics metrics = machine.getMetrics();
+        assertEquals(7, metrics.getInstructionsExecuted());
+        assertEquals(4, metrics.getInstructionsSkipped());
+        assertEquals(12, metrics.getProgramCounterChanges());
+    }
+
+    @ParameterizedTest
+    @MethodSource("debuggableMachines")
+    public <T extends Debuggable & Introspectable<Byte>> void commentsInLoopMetricsTest(T machine) throws IOException {
+        machine.load("++[ab-]cd".getBytes(), null, null);
+        machine.execute();
+        assertEquals(9, machine.getState().getProgramCounter());
+
+        MachineMetrics metrics = machine.getMetrics();
+        assertEquals(7, metrics.getInstructionsExecuted());
+        assertEquals(6, metrics.getInstructionsSkipped());
+        assertEquals(14, metrics.getProgramCounterChanges());
     }
 }
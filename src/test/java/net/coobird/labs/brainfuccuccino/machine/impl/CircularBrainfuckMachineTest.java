@@ -0,0 +1,83 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.impl;
+
+import net.coobird.labs.brainfuccuccino.machine.CellEncoding;
+import net.coobird.labs.brainfuccuccino.machine.tape.ByteTape;
+import net.coobird.labs.brainfuccuccino.machine.tape.ShortTape;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CircularBrainfuckMachineTest {
+    @Test
+    public void moveLeftOfFirstCellWrapsAround() throws IOException {
+        CircularBrainfuckMachine<Byte> machine = new CircularBrainfuckMachine<>(new ByteTape(16), CellEncoding.BYTES);
+
+        machine.evaluate("<+<++".getBytes(), null, null);
+
+        assertEquals(14, machine.getState().getDataPointer());
+        assertEquals((byte) 1, (byte) machine.getState().getMemory()[15]);
+        assertEquals((byte) 2, (byte) machine.getState().getMemory()[14]);
+    }
+
+    @Test
+    public void moveRightOfLastCellWrapsAround() throws IOException {
+        CircularBrainfuckMachine<Short> machine = new CircularBrainfuckMachine<>(new ShortTape(4), CellEncoding.BYTES);
+
+        // Adds one to each cell until returning to the first.
+        machine.evaluate("+>+>+>+>+".getBytes(), null, null);
+
+        assertEquals(0, machine.getState().getDataPointer());
+        assertEquals((short) 2, (short) machine.getState().getMemory()[0]);
+        assertEquals((short) 1, (short) machine.getState().getMemory()[3]);
+    }
+
+    @Test
+    public void scanAroundTape() throws IOException {
+        CircularBrainfuckMachine<Byte> machine = new CircularBrainfuckMachine<>(new ByteTape(8), CellEncoding.BYTES);
+
+        // Moves right from the second to last cell, past the end of the tape.
+        machine.evaluate("+<+<+[>]".getBytes(), null, null);
+
+        assertEquals(1, machine.getState().getDataPointer());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 3, 100, 30000})
+    public void whenSizeNotPowerOfTwoThenExceptionThrown(int size) {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new CircularBrainfuckMachine<>(new ByteTape(size), CellEncoding.BYTES)
+        );
+    }
+}
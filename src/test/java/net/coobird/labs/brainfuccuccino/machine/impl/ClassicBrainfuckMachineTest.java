@@ -0,0 +1,99 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.impl;
+
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClassicBrainfuckMachineTest {
+    public static Stream<Arguments> memoryOutOfRangeCases() {
+        final String moveToLastCell = String.join("", Collections.nCopies(29999, ">"));
+        return Stream.of(
+                Arguments.of("<", -1, new byte[0]),
+                Arguments.of("+.<", -1, new byte[] {1}),
+                // Leaves the memory before coming back within the same block.
+                Arguments.of("+.<>", -1, new byte[] {1}),
+                Arguments.of(">>+[<.<<]", -1, new byte[] {0}),
+                Arguments.of(moveToLastCell + "+.>", 30000, new byte[] {1}),
+                Arguments.of(moveToLastCell + "<+[>+.>]", 30000, new byte[] {1})
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("memoryOutOfRangeCases")
+    public void whenMemoryOutOfRangeThenExceptionThrown(String program, int position, byte[] expectedOutput) {
+        ClassicBrainfuckMachine machine = new ClassicBrainfuckMachine();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        MemoryRangeOutOfBoundsException e = assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> machine.evaluate(program.getBytes(), null, os)
+        );
+
+        assertEquals(String.format("Memory cell out of bounds: <%s>", position), e.getMessage());
+        assertArrayEquals(expectedOutput, os.toByteArray());
+    }
+
+    @Test
+    public void movesWithinMemoryAcrossBlocks() throws IOException {
+        ClassicBrainfuckMachine machine = new ClassicBrainfuckMachine();
+
+        machine.evaluate("+++[>+++[>++<-]<-]>>[<<+>>-]<<>><<".getBytes(), null, null);
+
+        assertEquals(0, machine.getState().getDataPointer());
+        assertEquals((byte) 18, (byte) machine.getState().getMemory()[0]);
+    }
+
+    @Test
+    public void restoredWithinBlockNearStartOfMemory() {
+        ClassicBrainfuckMachine machine = new ClassicBrainfuckMachine();
+        machine.load(">>>><<<<".getBytes(), null, null);
+        Byte[] memory = new Byte[30000];
+        Arrays.fill(memory, (byte) 0);
+        machine.restoreState(new MachineState<>(5, 1, memory));
+
+        MemoryRangeOutOfBoundsException e = assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                machine::execute
+        );
+        assertEquals("Memory cell out of bounds: <-1>", e.getMessage());
+    }
+}
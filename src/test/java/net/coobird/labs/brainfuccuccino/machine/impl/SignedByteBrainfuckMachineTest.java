@@ -27,6 +27,7 @@
 package net.coobird.labs.brainfuccuccino.machine.impl;
 
 import net.coobird.labs.brainfuccuccino.machine.BrainfuckMachine;
+import net.coobird.labs.brainfuccuccino.machine.Instruction;
 import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
 import net.coobird.labs.brainfuccuccino.machine.state.MachineMetrics;
 import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
@@ -36,6 +37,9 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -87,4 +91,31 @@ public class SignedByteBrainfuckMachineTest {
         assertEquals(0, metrics.getInstructionsSkipped());
         assertEquals(8, metrics.getProgramCounterChanges());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void listenerReceivesSourceAddresses() throws IOException {
+        List<Integer> addresses = new ArrayList<>();
+        List<Instruction> instructions = new ArrayList<>();
+        SignedByteBrainfuckMachine machine = new SignedByteBrainfuckMachine(
+                3,
+                (pc, pi, instruction, dp, content) -> {
+                    addresses.add(pc);
+                    instructions.add(instruction);
+                }
+        );
+        machine.evaluate("+a[-]b".getBytes(), null, null);
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), addresses);
+        assertEquals(
+                Arrays.asList(
+                        Instruction.INCREMENT_VALUE,
+                        Instruction.NOP,
+                        Instruction.BEGIN_LOOP,
+                        Instruction.DECREMENT_VALUE,
+                        Instruction.END_LOOP,
+                        Instruction.NOP
+                ),
+                instructions
+        );
+    }
+}
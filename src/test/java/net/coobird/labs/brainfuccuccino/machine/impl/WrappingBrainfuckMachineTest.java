@@ -0,0 +1,138 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.impl;
+
+import net.coobird.labs.brainfuccuccino.machine.CellEncoding;
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+import net.coobird.labs.brainfuccuccino.machine.tape.ByteTape;
+import net.coobird.labs.brainfuccuccino.machine.tape.IntTape;
+import net.coobird.labs.brainfuccuccino.machine.tape.PagedByteTape;
+import net.coobird.labs.brainfuccuccino.machine.tape.ShortTape;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WrappingBrainfuckMachineTest {
+    // Sets the first memory cell to 16 * 16 * 16 = 4096.
+    private static final String COUNT_TO_4096 = "++++++++++++++++[>++++++++++++++++[>++++++++++++++++<-]<-]>>[<<+>>-]<<";
+
+    @Test
+    public void byteCellsWrapAround() throws IOException {
+        WrappingBrainfuckMachine<Byte> machine = new WrappingBrainfuckMachine<>(new ByteTape(10), CellEncoding.BYTES);
+
+        machine.evaluate(COUNT_TO_4096.getBytes(), null, null);
+
+        assertEquals((byte) 0, (byte) machine.getState().getMemory()[0]);
+    }
+
+    @Test
+    public void shortCellsCountBeyondByte() throws IOException {
+        WrappingBrainfuckMachine<Short> machine = new WrappingBrainfuckMachine<>(new ShortTape(10), CellEncoding.BYTES);
+
+        machine.evaluate((COUNT_TO_4096 + ">-").getBytes(), null, null);
+
+        assertEquals((short) 4096, (short) machine.getState().getMemory()[0]);
+        assertEquals((short) -1, (short) machine.getState().getMemory()[1]);
+    }
+
+    @Test
+    public void intCellsCountBeyondShort() throws IOException {
+        WrappingBrainfuckMachine<Integer> machine = new WrappingBrainfuckMachine<>(new IntTape(10), CellEncoding.BYTES);
+
+        // Multiplies 4096 by 16 twice.
+        String program = COUNT_TO_4096 + "[>++++++++++++++++<-]>[>++++++++++++++++<-]";
+        machine.evaluate(program.getBytes(), null, null);
+
+        assertEquals(1 << 20, (int) machine.getState().getMemory()[2]);
+    }
+
+    @Test
+    public void pagedCellsBeforeStartAndBeyond30000() throws IOException {
+        WrappingBrainfuckMachine<Byte> machine = new WrappingBrainfuckMachine<>(new PagedByteTape(), CellEncoding.BYTES);
+        StringBuilder program = new StringBuilder("<<+");
+        for (int i = 0; i < 40002; i++) {
+            program.append('>');
+        }
+        program.append('+');
+
+        machine.evaluate(program.toString().getBytes(), null, null);
+
+        assertEquals(40000, machine.getState().getDataPointer());
+        assertEquals((byte) 1, (byte) machine.getState().getMemory()[40000]);
+        assertEquals(1, machine.tape.get(-2));
+    }
+
+    @Test
+    public void shortCellsClearLoopWrapsAround() throws IOException {
+        WrappingBrainfuckMachine<Short> machine = new WrappingBrainfuckMachine<>(new ShortTape(10), CellEncoding.BYTES);
+
+        // Counts up from 1 until the cell wraps around to zero, 65,535 times.
+        machine.evaluate("+[+>+<]".getBytes(), null, null);
+
+        assertEquals((short) 0, (short) machine.getState().getMemory()[0]);
+        assertEquals((short) -1, (short) machine.getState().getMemory()[1]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Hello World!", "こんにちは世界！"})
+    public void catInputAsCodePoints(String input) throws IOException {
+        WrappingBrainfuckMachine<Integer> machine = new WrappingBrainfuckMachine<>(new IntTape(10), CellEncoding.UTF_8);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        machine.evaluate(",[.,]".getBytes(), new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), os);
+
+        assertEquals(input, new String(os.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(0, (int) machine.getState().getMemory()[0]);
+    }
+
+    @Test
+    public void readCodePointIntoCell() throws IOException {
+        WrappingBrainfuckMachine<Short> machine = new WrappingBrainfuckMachine<>(new ShortTape(10), CellEncoding.UTF_8);
+
+        machine.evaluate(",".getBytes(), new ByteArrayInputStream("世".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals((short) 0x4E16, (short) machine.getState().getMemory()[0]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"<", ">>>>>>>>>>"})
+    public void whenMemoryOutOfRangeThenExceptionThrown(String program) {
+        WrappingBrainfuckMachine<Short> machine = new WrappingBrainfuckMachine<>(new ShortTape(10), CellEncoding.BYTES);
+        assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> machine.evaluate(program.getBytes(), null, null)
+        );
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.tape;
+
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MappedByteTapeTest {
+    @Test
+    public void sizeRoundedUpToPages() {
+        assertEquals(4096, new MappedByteTape(1).size());
+        assertEquals(4096, new MappedByteTape(4096).size());
+        assertEquals(8192, new MappedByteTape(4097).size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, Integer.MAX_VALUE})
+    public void invalidSizeThenExceptionThrown(int size) {
+        assertThrows(IllegalArgumentException.class, () -> new MappedByteTape(size));
+    }
+
+    @Test
+    public void setAndAdd() {
+        MappedByteTape tape = new MappedByteTape(100);
+        tape.set(3, 127);
+        tape.add(3, 1);
+        tape.add(4, -1);
+
+        assertEquals(-128, tape.get(3));
+        assertEquals(255, tape.getUnsigned(4));
+        assertEquals(0, tape.get(5));
+    }
+
+    @Test
+    public void scanOutOfRangeThenExceptionThrown() {
+        MappedByteTape tape = new MappedByteTape(4096);
+        for (int i = 0; i < 4096; i++) {
+            tape.set(i, 1);
+        }
+        tape.set(2000, 0);
+
+        assertEquals(2000, tape.scan(0, 1));
+        assertEquals(2000, tape.scan(4000, -1));
+        assertThrows(MemoryRangeOutOfBoundsException.class, () -> tape.scan(2001, 1));
+        assertThrows(MemoryRangeOutOfBoundsException.class, () -> tape.scan(1999, -1));
+    }
+
+    @Test
+    public void memoryKeptInFile() throws IOException {
+        Path file = Files.createTempFile("tape", ".bin");
+        try {
+            MappedByteTape tape = new MappedByteTape(file, 5000);
+            tape.set(0, 42);
+            tape.set(4999, -1);
+            tape.force();
+
+            assertEquals(8192, Files.size(file));
+            MappedByteTape reopened = new MappedByteTape(file, 8192);
+            assertEquals(42, reopened.get(0));
+            assertEquals(-1, reopened.get(4999));
+            assertEquals(0, reopened.get(8191));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.tape;
+
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PagedByteTapeTest {
+    @Test
+    public void pagesAllocatedOnWrite() {
+        PagedByteTape tape = new PagedByteTape();
+        assertEquals(0, tape.getPageCount());
+        assertEquals(0, tape.size());
+
+        assertEquals(0, tape.get(100000));
+        assertEquals(0, tape.getPageCount());
+
+        tape.set(100000, 42);
+        tape.add(100001, -1);
+        assertEquals(1, tape.getPageCount());
+        assertEquals(42, tape.get(100000));
+        assertEquals(-1, tape.get(100001));
+        assertEquals(0, tape.get(0));
+    }
+
+    @Test
+    public void sizeEndsAtLastPageWritten() {
+        PagedByteTape tape = new PagedByteTape();
+        tape.set(5000, 1);
+        tape.set(-5000, 2);
+
+        assertEquals(8192, tape.size());
+        Byte[] values = tape.toArray();
+        assertEquals(8192, values.length);
+        assertEquals(1, (byte) values[5000]);
+        assertEquals(0, (byte) values[0]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-1, -4096, -4097, -70000})
+    public void negativePositions(int position) {
+        PagedByteTape tape = new PagedByteTape();
+        tape.set(position, 7);
+        tape.add(position, 1);
+        tape.set(position + 4096, 9);
+
+        assertEquals(8, tape.get(position));
+        assertEquals(9, tape.get(position + 4096));
+        assertEquals(0, tape.get(position - 1));
+        assertEquals(2, tape.getPageCount());
+    }
+
+    @Test
+    public void limitRoundedUpToPages() {
+        PagedByteTape tape = new PagedByteTape(100);
+
+        assertTrue(tape.contains(4095));
+        assertTrue(tape.contains(-4096));
+        assertFalse(tape.contains(4096));
+        assertFalse(tape.contains(-4097));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {4096, -4097, Integer.MAX_VALUE, Integer.MIN_VALUE})
+    public void beyondLimitThenExceptionThrown(int position) {
+        PagedByteTape tape = new PagedByteTape(4096);
+        tape.set(4095, 1);
+
+        assertThrows(MemoryRangeOutOfBoundsException.class, () -> tape.get(position));
+        assertThrows(MemoryRangeOutOfBoundsException.class, () -> tape.set(position, 1));
+        assertThrows(MemoryRangeOutOfBoundsException.class, () -> tape.add(position, 1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, PagedByteTape.MAX_LIMIT + 1})
+    public void invalidLimitThenExceptionThrown(int limit) {
+        assertThrows(IllegalArgumentException.class, () -> new PagedByteTape(limit));
+    }
+
+    @Test
+    public void scanAcrossPages() {
+        PagedByteTape tape = new PagedByteTape();
+        for (int i = -5000; i < 5000; i++) {
+            tape.set(i, 1);
+        }
+
+        assertEquals(5000, tape.scan(0, 1));
+        assertEquals(-5001, tape.scan(0, -1));
+        assertEquals(-5001, tape.scan(4999, -2));
+    }
+
+    @Test
+    public void scanBeyondLimitThenExceptionThrown() {
+        PagedByteTape tape = new PagedByteTape(4096);
+        for (int i = -4096; i < 4096; i++) {
+            tape.set(i, 1);
+        }
+
+        assertThrows(MemoryRangeOutOfBoundsException.class, () -> tape.scan(0, 1));
+        assertThrows(MemoryRangeOutOfBoundsException.class, () -> tape.scan(0, -1));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.machine.tape;
+
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TapeTest {
+    public static Stream<Arguments> tapes() {
+        return Stream.of(
+                Arguments.of(new ByteTape(100)),
+                Arguments.of(new ShortTape(100)),
+                Arguments.of(new IntTape(100))
+        );
+    }
+
+    public static Stream<Arguments> wrapAroundCases() {
+        return Stream.of(
+                Arguments.of(new ByteTape(10), Byte.MAX_VALUE, Byte.MIN_VALUE),
+                Arguments.of(new ShortTape(10), Short.MAX_VALUE, Short.MIN_VALUE),
+                Arguments.of(new IntTape(10), Integer.MAX_VALUE, Integer.MIN_VALUE)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("tapes")
+    public void initiallyZero(Tape<?> tape) {
+        assertEquals(100, tape.size());
+        for (int i = 0; i < tape.size(); i++) {
+            assertEquals(0, tape.get(i));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("tapes")
+    public void setAndAdd(Tape<?> tape) {
+        tape.set(3, 42);
+        tape.add(3, 2);
+        tape.add(4, -1);
+
+        assertEquals(44, tape.get(3));
+        assertEquals(-1, tape.get(4));
+        assertEquals(0, tape.get(5));
+    }
+
+    @ParameterizedTest
+    @MethodSource("wrapAroundCases")
+    public void valuesWrapAround(Tape<?> tape, int maxValue, int minValue) {
+        tape.set(0, maxValue);
+        tape.add(0, 1);
+        tape.set(1, minValue);
+        tape.add(1, -1);
+
+        assertEquals(minValue, tape.get(0));
+        assertEquals(maxValue, tape.get(1));
+    }
+
+    @ParameterizedTest
+    @MethodSource("wrapAroundCases")
+    public void unsignedValues(Tape<?> tape, int maxValue, int minValue) {
+        tape.set(0, -1);
+        tape.set(1, maxValue);
+        tape.set(2, minValue);
+
+        assertEquals(2L * maxValue + 1, tape.getUnsigned(0));
+        assertEquals(maxValue, tape.getUnsigned(1));
+        assertEquals(maxValue + 1L, tape.getUnsigned(2));
+    }
+
+    @ParameterizedTest
+    @MethodSource("tapes")
+    public void scanForward(Tape<?> tape) {
+        for (int i = 0; i < 50; i++) {
+            tape.set(i, i + 1);
+        }
+
+        assertEquals(50, tape.scan(0, 1));
+        assertEquals(50, tape.scan(13, 1));
+        assertEquals(51, tape.scan(1, 2));
+        assertEquals(60, tape.scan(60, 1));
+    }
+
+    @ParameterizedTest
+    @MethodSource("tapes")
+    public void scanBackward(Tape<?> tape) {
+        for (int i = 50; i < 100; i++) {
+            tape.set(i, i);
+        }
+
+        assertEquals(49, tape.scan(99, -1));
+        assertEquals(49, tape.scan(70, -1));
+        assertEquals(48, tape.scan(98, -2));
+    }
+
+    @ParameterizedTest
+    @MethodSource("tapes")
+    public void scanOutOfRangeThenExceptionThrown(Tape<?> tape) {
+        for (int i = 0; i < tape.size(); i++) {
+            tape.set(i, 1);
+        }
+
+        assertThrows(MemoryRangeOutOfBoundsException.class, () -> tape.scan(0, 1));
+        assertThrows(MemoryRangeOutOfBoundsException.class, () -> tape.scan(99, -1));
+        assertThrows(MemoryRangeOutOfBoundsException.class, () -> tape.scan(50, 3));
+    }
+
+    @ParameterizedTest
+    @MethodSource("tapes")
+    public void boxedValues(Tape<?> tape) {
+        tape.set(1, 7);
+
+        Object[] values = tape.toArray();
+        assertEquals(tape.size(), values.length);
+        assertEquals(tape.getBoxed(1), values[1]);
+        assertEquals(7, ((Number) values[1]).intValue());
+        assertEquals(0, ((Number) values[0]).intValue());
+    }
+
+    @Test
+    public void byteTapeSharesArray() {
+        ByteTape tape = new ByteTape(10);
+        tape.array()[2] = 5;
+        tape.set(3, 6);
+
+        assertEquals(5, tape.get(2));
+        assertArrayEquals(new byte[] {0, 0, 5, 6}, Arrays.copyOf(tape.array(), 4));
+    }
+}
@@ -26,15 +26,23 @@
 
 package net.coobird.labs.brainfuccuccino.vm;
 
+import net.coobird.labs.brainfuccuccino.Utils;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
 import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
 import net.coobird.labs.brainfuccuccino.vm.model.Opcode;
+import net.coobird.labs.brainfuccuccino.vm.model.Superinstruction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BrainfuckVirtualMachineCompilerTest {
     private BrainfuckVirtualMachineCompiler compiler;
@@ -53,10 +61,10 @@ public class BrainfuckVirtualMachineCompilerTest {
         assertEquals(
                 Arrays.asList(
                         new Instruction(Opcode.ADD, 1),
-                        new Instruction(Opcode.MADD, 1),
+                        new Instruction(Opcode.MOVE, 1),
                         new Instruction(Opcode.ADD, 1),
                         new Instruction(Opcode.ADD, 1),
-                        new Instruction(Opcode.MADD, 1),
+                        new Instruction(Opcode.MOVE, 1),
                         new Instruction(Opcode.ADD, 1),
                         new Instruction(Opcode.ADD, 1),
                         new Instruction(Opcode.ADD, 1)
@@ -67,17 +75,353 @@ public class BrainfuckVirtualMachineCompilerTest {
     @Test
     public void setMemoryValuesWithOptimization() {
         List<Instruction> instructions = compiler.compile(
-                "+>++>+++", 1
+                "+>++>+++", 3
         );
 
         assertEquals(
                 Arrays.asList(
-                        new Instruction(Opcode.ADD, 1),
-                        new Instruction(Opcode.MADD, 1),
-                        new Instruction(Opcode.ADD, 2),
-                        new Instruction(Opcode.MADD, 1),
-                        new Instruction(Opcode.ADD, 3)
+                        new Instruction(Opcode.ADD, 1, 0),
+                        new Instruction(Opcode.ADD, 2, 1),
+                        new Instruction(Opcode.ADD, 3, 2),
+                        new Instruction(Opcode.MOVE, 2)
+                ), instructions
+        );
+    }
+
+    @Test
+    public void pointerMovesFoldedIntoOffsets() {
+        List<Instruction> instructions = compiler.compile(
+                ">+>++<<-,.>>[<.>]", 3
+        );
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.ADD, 1, 1),
+                        new Instruction(Opcode.ADD, 2, 2),
+                        new Instruction(Opcode.ADD, -1, 0),
+                        new Instruction(Opcode.READ, -1, 0),
+                        new Instruction(Opcode.WRITE, -1, 0),
+                        new Instruction(Opcode.MOVE, 2),
+                        new Instruction(Opcode.JMZ, 8),
+                        new Instruction(Opcode.WRITE, -1, -1),
+                        new Instruction(Opcode.JMN, 6)
                 ), instructions
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void cancellingChangesDropped() {
+        List<Instruction> instructions = compiler.compile(
+                "+-+-><+++--.>+<+>-<<>[-+]", 3
+        );
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.ADD, 1, 0),
+                        new Instruction(Opcode.WRITE, -1, 0),
+                        new Instruction(Opcode.ADD, 1, 0),
+                        new Instruction(Opcode.JMZ, 4),
+                        new Instruction(Opcode.JMN, 3)
+                ), instructions
+        );
+    }
+
+    @Test
+    public void loopsWithOptimizationAsBytecode() {
+        Bytecode bytecode = compiler.compileToBytecode(
+                "++[>+.<-]", 3
+        );
+
+        assertArrayEquals(
+                new byte[] {
+                        Bytecode.ADD,
+                        Bytecode.JMZ,
+                        Bytecode.ADD,
+                        Bytecode.WRITE,
+                        Bytecode.ADD,
+                        Bytecode.JMN
+                },
+                bytecode.getOpcodes()
+        );
+        assertArrayEquals(
+                new int[] {2, 5, 1, -1, -1, 1},
+                bytecode.getOperands()
+        );
+        assertArrayEquals(
+                new int[] {0, 0, 1, 1, 0, 0},
+                bytecode.getOffsets()
+        );
+    }
+
+    @Test
+    public void bytecodeRoundTripsInstructions() {
+        List<Instruction> instructions = compiler.compile(
+                Utils.getScriptFromResources("hello_world.bf"), 1
+        );
+
+        assertEquals(instructions, Bytecode.of(instructions).toInstructions());
+    }
+
+    @Test
+    public void clearLoopsWithOptimization() {
+        List<Instruction> instructions = compiler.compile(
+                "+++[-]>[+]<[-]+++>[---]--", 3
+        );
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.SET, 0, 0),
+                        new Instruction(Opcode.SET, 0, 1),
+                        new Instruction(Opcode.SET, 3, 0),
+                        new Instruction(Opcode.SET, -2, 1),
+                        new Instruction(Opcode.MOVE, 1)
+                ), instructions
+        );
+    }
+
+    @Test
+    public void evenClearLoopsNotReplaced() {
+        List<Instruction> instructions = compiler.compile(
+                "[--]", 1
+        );
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.JMZ, 2),
+                        new Instruction(Opcode.ADD, -2),
+                        new Instruction(Opcode.JMN, 0)
+                ), instructions
+        );
+    }
+
+    @Test
+    public void multiplyLoopsWithOptimization() {
+        List<Instruction> instructions = compiler.compile(
+                "[->+>++<<]>>[<<+>>-]<[+>---<]", 2
+        );
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.MUL, 1, 1),
+                        new Instruction(Opcode.MUL, 2, 2),
+                        new Instruction(Opcode.SET, 0),
+                        new Instruction(Opcode.MOVE, 2),
+                        new Instruction(Opcode.MUL, 1, -2),
+                        new Instruction(Opcode.SET, 0),
+                        new Instruction(Opcode.MOVE, -1),
+                        new Instruction(Opcode.MUL, 3, 1),
+                        new Instruction(Opcode.SET, 0)
+                ), instructions
+        );
+    }
+
+    @Test
+    public void unbalancedMultiplyLoopsNotReplaced() {
+        List<Instruction> instructions = compiler.compile(
+                "[->+]", 3
+        );
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.JMZ, 4),
+                        new Instruction(Opcode.ADD, -1),
+                        new Instruction(Opcode.ADD, 1, 1),
+                        new Instruction(Opcode.MOVE, 1),
+                        new Instruction(Opcode.JMN, 0)
+                ), instructions
+        );
+    }
+
+    @Test
+    public void scanLoopsWithOptimization() {
+        List<Instruction> instructions = compiler.compile(
+                "[>][<<][>>>]", 2
+        );
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.SCAN, 1),
+                        new Instruction(Opcode.SCAN, -2),
+                        new Instruction(Opcode.SCAN, 3)
+                ), instructions
+        );
+    }
+
+    @Test
+    public void balancedLoopRanges() {
+        Bytecode bytecode = compiler.compileToBytecode("+[>[-<+>]<-]", 0);
+
+        assertTrue(bytecode.isBalancedLoop(1));
+        assertEquals(0, bytecode.getLowestOffset(1));
+        assertEquals(1, bytecode.getHighestOffset(1));
+        assertTrue(bytecode.isBalancedLoop(3));
+        assertEquals(-1, bytecode.getLowestOffset(3));
+        assertEquals(0, bytecode.getHighestOffset(3));
+        assertFalse(bytecode.isBalancedLoop(0));
+    }
+
+    @Test
+    public void balancedLoopRangesWithOffsets() {
+        Bytecode bytecode = compiler.compileToBytecode("+[<<+>>>>.<<-]", 3);
+
+        assertEquals(Bytecode.JMZ, bytecode.getOpcodes()[1]);
+        assertTrue(bytecode.isBalancedLoop(1));
+        assertEquals(-2, bytecode.getLowestOffset(1));
+        assertEquals(2, bytecode.getHighestOffset(1));
+    }
+
+    @Test
+    public void unbalancedLoopsHaveNoRange() {
+        Bytecode bytecode = compiler.compileToBytecode("+[>+][-[<]>]", 0);
+
+        for (int address = 0; address < bytecode.size(); address++) {
+            assertFalse(bytecode.isBalancedLoop(address));
+        }
+        assertThrows(IllegalArgumentException.class, () -> bytecode.getLowestOffset(1));
+    }
+
+    @Test
+    public void loopRangesKeptWhenFused() {
+        Bytecode bytecode = compiler.compileToBytecode("+[>.<-]", 0)
+                .fuse(EnumSet.allOf(Superinstruction.class));
+
+        assertTrue(bytecode.isBalancedLoop(1));
+        assertEquals(1, bytecode.getHighestOffset(1));
+    }
+
+    @Test
+    public void footprintOfBalancedPrograms() {
+        assertEquals(1, compiler.compileToBytecode("", 0).getFootprint());
+        assertEquals(3, compiler.compileToBytecode("+>++>+++", 0).getFootprint());
+        assertEquals(3, compiler.compileToBytecode(">>+<<", 3).getFootprint());
+        assertEquals(5, compiler.compileToBytecode("++[>+>>>+<<<<-]>.", 3).getFootprint());
+        assertEquals(3, compiler.compileToBytecode("+[>[-]>.<<-]", 0).getFootprint());
+    }
+
+    @Test
+    public void footprintUnknownWhenNotProvable() {
+        assertEquals(Bytecode.UNKNOWN_FOOTPRINT, compiler.compileToBytecode("+[>+]", 0).getFootprint());
+        assertEquals(Bytecode.UNKNOWN_FOOTPRINT, compiler.compileToBytecode(">+[<]", 3).getFootprint());
+        assertEquals(Bytecode.UNKNOWN_FOOTPRINT, compiler.compileToBytecode("<+>", 3).getFootprint());
+        assertEquals(Bytecode.UNKNOWN_FOOTPRINT, compiler.compileToBytecode("+[<+>-]", 0).getFootprint());
+    }
+
+    @Test
+    public void memorySizeFallsBackToGivenSize() {
+        assertEquals(3, compiler.compileToBytecode("+>++>+++", 0).getMemorySize(30000));
+        assertEquals(2, compiler.compileToBytecode("+>++>+++", 0).getMemorySize(2));
+        assertEquals(30000, compiler.compileToBytecode("+[>+]", 0).getMemorySize(30000));
+    }
+
+    @Test
+    public void sourceAddressesNoOptimization() {
+        Bytecode bytecode = compiler.compileToBytecode("a+[>.<-]b", 0);
+
+        assertArrayEquals(
+                new int[] {1, 2, 3, 4, 5, 6, 7},
+                bytecode.getSourceAddresses()
+        );
+    }
+
+    @Test
+    public void sourceAddressesWithOptimization() {
+        Bytecode bytecode = compiler.compileToBytecode("a+[>.<-]b[-]", 3);
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.ADD, 1),
+                        new Instruction(Opcode.JMZ, 4),
+                        new Instruction(Opcode.WRITE, -1, 1),
+                        new Instruction(Opcode.ADD, -1),
+                        new Instruction(Opcode.JMN, 1),
+                        new Instruction(Opcode.SET, 0)
+                ), bytecode.toInstructions()
+        );
+        // Only the jump instructions correspond to a single address.
+        assertArrayEquals(
+                new int[] {-1, 2, -1, -1, 7, -1},
+                bytecode.getSourceAddresses()
+        );
+    }
+
+    @Test
+    public void superinstructionsFused() {
+        BrainfuckVirtualMachineCompiler compiler =
+                new BrainfuckVirtualMachineCompiler(EnumSet.allOf(Superinstruction.class));
+        Bytecode bytecode = compiler.compileToBytecode(">+<[>.<-]", 0);
+
+        assertArrayEquals(
+                new byte[] {
+                        Bytecode.MOVE_ADD_MOVE, Bytecode.ADD, Bytecode.MOVE,
+                        Bytecode.JMZ,
+                        Bytecode.MOVE, Bytecode.WRITE_MOVE, Bytecode.MOVE,
+                        Bytecode.ADD_JMN, Bytecode.JMN
+                },
+                bytecode.getDispatchOpcodes()
+        );
+        // The instructions themselves are left unchanged.
+        assertEquals(this.compiler.compile(">+<[>.<-]", 0), bytecode.toInstructions());
+    }
+
+    @Test
+    public void onlyGivenSuperinstructionsFused() {
+        BrainfuckVirtualMachineCompiler compiler =
+                new BrainfuckVirtualMachineCompiler(EnumSet.of(Superinstruction.MOVE_ADD));
+        Bytecode bytecode = compiler.compileToBytecode(">+<[>.<-]", 0);
+
+        assertArrayEquals(
+                new byte[] {
+                        Bytecode.MOVE_ADD, Bytecode.ADD, Bytecode.MOVE,
+                        Bytecode.JMZ,
+                        Bytecode.MOVE, Bytecode.WRITE, Bytecode.MOVE_ADD,
+                        Bytecode.ADD, Bytecode.JMN
+                },
+                bytecode.getDispatchOpcodes()
+        );
+    }
+
+    @Test
+    public void noSuperinstructionsByDefault() {
+        Bytecode bytecode = compiler.compileToBytecode(">+<[>.<-]", 0);
+
+        assertArrayEquals(bytecode.getOpcodes(), bytecode.getDispatchOpcodes());
+    }
+
+    @Test
+    public void checkedChangesCombinedInSameDirection() {
+        Bytecode bytecode = compiler.compileToCheckedBytecode(",+++--[>+<-]");
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.READ),
+                        new Instruction(Opcode.CHECKED_ADD, 3),
+                        // A read value is in range after adding 3, so subtracting 2 can't overflow.
+                        new Instruction(Opcode.ADD, -2),
+                        new Instruction(Opcode.JMZ, 8),
+                        new Instruction(Opcode.MOVE, 1),
+                        new Instruction(Opcode.CHECKED_ADD, 1),
+                        new Instruction(Opcode.MOVE, -1),
+                        new Instruction(Opcode.CHECKED_ADD, -1),
+                        new Instruction(Opcode.JMN, 3)
+                ), bytecode.toInstructions()
+        );
+    }
+
+    @Test
+    public void checksWhichCannotOverflowEliminated() {
+        Bytecode bytecode = compiler.compileToCheckedBytecode("++++>-<[-]+");
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.ADD, 4),
+                        new Instruction(Opcode.MOVE, 1),
+                        new Instruction(Opcode.ADD, -1),
+                        new Instruction(Opcode.MOVE, -1),
+                        new Instruction(Opcode.JMZ, 6),
+                        new Instruction(Opcode.CHECKED_ADD, -1),
+                        new Instruction(Opcode.JMN, 4),
+                        new Instruction(Opcode.ADD, 1)
+                ), bytecode.toInstructions()
+        );
+    }
+}
@@ -27,14 +27,18 @@
 package net.coobird.labs.brainfuccuccino.vm;
 
 import net.coobird.labs.brainfuccuccino.Utils;
+import net.coobird.labs.brainfuccuccino.machine.MemoryCellOverflowException;
 import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
 import net.coobird.labs.brainfuccuccino.machine.state.MachineMetrics;
 import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
 import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+import net.coobird.labs.brainfuccuccino.vm.model.Superinstruction;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -42,12 +46,14 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BrainfuckVirtualMachineTest {
     private final BrainfuckVirtualMachineCompiler compiler = new BrainfuckVirtualMachineCompiler();
@@ -55,7 +61,9 @@ public class BrainfuckVirtualMachineTest {
     static Stream<Arguments> optimizationLevels() {
         return Stream.of(
                 Arguments.of(0),
-                Arguments.of(1)
+                Arguments.of(1),
+                Arguments.of(2),
+                Arguments.of(3)
         );
     }
 
@@ -156,10 +164,13 @@ public class BrainfuckVirtualMachineTest {
         return Stream.of(
                 Arguments.of("+.", 0),
                 Arguments.of("+.", 1),
+                Arguments.of("+.", 3),
                 Arguments.of(">+.", 0),
                 Arguments.of(">+.", 1),
+                Arguments.of(">+.", 3),
                 Arguments.of(">>+.", 0),
-                Arguments.of(">>+.", 1)
+                Arguments.of(">>+.", 1),
+                Arguments.of(">>+.", 3)
         );
     }
 
@@ -181,8 +192,16 @@ public class BrainfuckVirtualMachineTest {
         return Stream.of(
                 Arguments.of("<", 0),
                 Arguments.of("<", 1),
+                Arguments.of("<", 3),
                 Arguments.of(moveRightOutOfRange, 0),
-                Arguments.of(moveRightOutOfRange, 1)
+                Arguments.of(moveRightOutOfRange, 1),
+                Arguments.of(moveRightOutOfRange, 3),
+                Arguments.of("<+>", 0),
+                Arguments.of("<+>", 1),
+                Arguments.of("<+>", 3),
+                Arguments.of(moveRightOutOfRange + ".<", 0),
+                Arguments.of(moveRightOutOfRange + ".<", 1),
+                Arguments.of(moveRightOutOfRange + ".<", 3)
         );
     }
 
@@ -215,6 +234,23 @@ public class BrainfuckVirtualMachineTest {
         );
     }
 
+    @Test
+    public void stateOfFullMemoryWhenFootprintKnown() throws IOException {
+        BrainfuckVirtualMachineCompiler compiler = new BrainfuckVirtualMachineCompiler();
+        Bytecode bytecode = compiler.compileToBytecode("+>++>+++[<+>-]", 3);
+        assertEquals(3, bytecode.getFootprint());
+
+        BrainfuckVirtualMachine machine = new BrainfuckVirtualMachine(bytecode, null, null);
+        machine.execute();
+
+        MachineState<Byte> state = machine.getState();
+        assertEquals(30000, state.getMemory().length);
+        assertArrayEquals(
+                new Byte[] {1, 5, 0, 0},
+                Arrays.stream(state.getMemory()).limit(4).toArray()
+        );
+    }
+
     @Test
     public void inspectionTest() throws IOException {
         BrainfuckVirtualMachineCompiler compiler = new BrainfuckVirtualMachineCompiler();
@@ -226,8 +262,333 @@ public class BrainfuckVirtualMachineTest {
         machine.execute();
 
         MachineMetrics metrics = machine.getMetrics();
-        assertEquals(5, metrics.getInstructionsExecuted());
+        assertEquals(4, metrics.getInstructionsExecuted());
         assertEquals(0, metrics.getInstructionsSkipped());
-        assertEquals(5, metrics.getProgramCounterChanges());
+        assertEquals(4, metrics.getProgramCounterChanges());
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void clearLoops(int optimizationLevel) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        List<Instruction> instructions = compiler.compile("+++++[-]++.>-[+]-.", optimizationLevel);
+
+        new BrainfuckVirtualMachine(instructions, null, baos).execute();
+
+        assertArrayEquals(new byte[] {2, -1}, baos.toByteArray());
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void multiplyLoops(int optimizationLevel) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        List<Instruction> instructions = compiler.compile("+++[->++>+++<<]>.>.<<.>>[-<<->>]<<.", optimizationLevel);
+
+        new BrainfuckVirtualMachine(instructions, null, baos).execute();
+
+        assertArrayEquals(new byte[] {6, 9, 0, -9}, baos.toByteArray());
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void multiplyLoopOutOfRangeThenExceptionThrown(int optimizationLevel) {
+        List<Instruction> instructions = compiler.compile("+[-<+>]", optimizationLevel);
+        assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> new BrainfuckVirtualMachine(instructions, null, null).execute()
+        );
+    }
+
+    public static Stream<Arguments> scanCases() {
+        final String twentyCells = String.join("", Collections.nCopies(20, "+>"));
+        return Stream.of(
+                Arguments.of(twentyCells + "<<<<<<<<<<[>]", 0, 20),
+                Arguments.of(twentyCells + "<<<<<<<<<<[>]", 2, 20),
+                Arguments.of(">" + twentyCells + "<[<]", 0, 0),
+                Arguments.of(">" + twentyCells + "<[<]", 2, 0),
+                Arguments.of(twentyCells + "+<<<<<<<<<<<<<<<<<<<<[>>>]", 0, 21),
+                Arguments.of(twentyCells + "+<<<<<<<<<<<<<<<<<<<<[>>>]", 2, 21)
+        );
+    }
+
+    @ParameterizedTest(name = "program = {0}, optimizationLevel = {1}")
+    @MethodSource("scanCases")
+    public void scanLoops(String program, int optimizationLevel, int expectedDataPointer) throws IOException {
+        List<Instruction> instructions = compiler.compile(program, optimizationLevel);
+
+        BrainfuckVirtualMachine machine = new BrainfuckVirtualMachine(instructions, null, null);
+        machine.execute();
+
+        assertEquals(expectedDataPointer, machine.getState().getDataPointer());
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void scanLoopOutOfRangeThenExceptionThrown(int optimizationLevel) {
+        List<Instruction> instructions = compiler.compile(
+                String.join("", Collections.nCopies(20, "+>")) + "<[<]",
+                optimizationLevel
+        );
+        assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> new BrainfuckVirtualMachine(instructions, null, null).execute()
+        );
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void printHelloWorldTiered(int optimizationLevel) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Bytecode bytecode = compiler.compileToBytecode(Utils.getScriptFromResources("hello_world.bf"), optimizationLevel);
+
+        new BrainfuckVirtualMachine(bytecode, null, baos, true).execute();
+
+        assertEquals("Hello World!\n", baos.toString());
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void sameResultsWhenTiered(int optimizationLevel) throws IOException {
+        String program = "-[>-[>-[>+>+<<-]>[-<+>]<<-]>.<<-]>>>.";
+        Bytecode bytecode = compiler.compileToBytecode(program, optimizationLevel);
+
+        ByteArrayOutputStream interpreted = new ByteArrayOutputStream();
+        BrainfuckVirtualMachine interpreter = new BrainfuckVirtualMachine(bytecode, null, interpreted);
+        interpreter.execute();
+
+        ByteArrayOutputStream tiered = new ByteArrayOutputStream();
+        BrainfuckVirtualMachine machine = new BrainfuckVirtualMachine(bytecode, null, tiered, true);
+        machine.execute();
+
+        assertArrayEquals(interpreted.toByteArray(), tiered.toByteArray());
+        MachineState<Byte> expected = interpreter.getState();
+        MachineState<Byte> actual = machine.getState();
+        assertEquals(expected.getProgramCounter(), actual.getProgramCounter());
+        assertEquals(expected.getDataPointer(), actual.getDataPointer());
+        assertArrayEquals(expected.getMemory(), actual.getMemory());
+    }
+
+    @Test
+    public void hotLoopsCompiledWhenTiered() throws IOException {
+        // Runs long enough for the loops to be compiled while running.
+        Bytecode bytecode = compiler.compileToBytecode("-[>-[>-[>+>+<<-]>[-<+>]<<-]<-]", 0);
+
+        BrainfuckVirtualMachine interpreter = new BrainfuckVirtualMachine(bytecode, null, null);
+        interpreter.execute();
+
+        BrainfuckVirtualMachine machine = new BrainfuckVirtualMachine(bytecode, null, null, true);
+        machine.execute();
+
+        // Instructions run by compiled code aren't counted.
+        assertTrue(
+                machine.getMetrics().getInstructionsExecuted()
+                        < interpreter.getMetrics().getInstructionsExecuted()
+        );
+        assertEquals(bytecode.size(), machine.getState().getProgramCounter());
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void hotLoopOutOfRangeThenExceptionThrownWhenTiered(int optimizationLevel) {
+        Bytecode bytecode = compiler.compileToBytecode("+[>+]", optimizationLevel);
+        assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> new BrainfuckVirtualMachine(bytecode, null, null, true).execute()
+        );
+    }
+
+    public static Stream<Arguments> tracingCases() {
+        // Runs long enough for the loops to be traced while running.
+        final String nestedLoops = "-[>-[>-[>+>+<<-]>[-<+>]<<-]>.<<-]>>>.";
+        // Increments a counter except when the value wraps around to zero, which leaves the trace.
+        final String rareBranch = "-[>-[>+[>+>>>+<<<<-]>>>>[<<<<+>>>>-]<<<[>+<[-]]<<-]<-]>>>>.";
+        return Stream.of(
+                Arguments.of(nestedLoops, 0),
+                Arguments.of(nestedLoops, 3),
+                Arguments.of(rareBranch, 0),
+                Arguments.of(rareBranch, 3)
+        );
+    }
+
+    @ParameterizedTest(name = "program = {0}, optimizationLevel = {1}")
+    @MethodSource("tracingCases")
+    public void sameResultsWhenTracing(String program, int optimizationLevel) throws IOException {
+        Bytecode bytecode = new BrainfuckVirtualMachineCompiler(EnumSet.allOf(Superinstruction.class))
+                .compileToBytecode(program, optimizationLevel);
+
+        ByteArrayOutputStream interpreted = new ByteArrayOutputStream();
+        BrainfuckVirtualMachine interpreter = new BrainfuckVirtualMachine(bytecode, null, interpreted);
+        interpreter.execute();
+
+        ByteArrayOutputStream traced = new ByteArrayOutputStream();
+        BrainfuckVirtualMachine machine = new BrainfuckVirtualMachine(bytecode, null, traced, CompilationMode.TRACES);
+        machine.execute();
+
+        assertArrayEquals(interpreted.toByteArray(), traced.toByteArray());
+        MachineState<Byte> expected = interpreter.getState();
+        MachineState<Byte> actual = machine.getState();
+        assertEquals(expected.getProgramCounter(), actual.getProgramCounter());
+        assertEquals(expected.getDataPointer(), actual.getDataPointer());
+        assertArrayEquals(expected.getMemory(), actual.getMemory());
+    }
+
+    @Test
+    public void hotLoopsTracedWhenTracing() throws IOException {
+        Bytecode bytecode = compiler.compileToBytecode("-[>-[>-[>+>+<<-]>[-<+>]<<-]<-]", 0);
+
+        BrainfuckVirtualMachine interpreter = new BrainfuckVirtualMachine(bytecode, null, null);
+        interpreter.execute();
+
+        BrainfuckVirtualMachine machine = new BrainfuckVirtualMachine(bytecode, null, null, CompilationMode.TRACES);
+        machine.execute();
+
+        // Instructions run by compiled traces aren't counted.
+        assertTrue(
+                machine.getMetrics().getInstructionsExecuted()
+                        < interpreter.getMetrics().getInstructionsExecuted()
+        );
+        assertEquals(bytecode.size(), machine.getState().getProgramCounter());
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void hotLoopOutOfRangeThenExceptionThrownWhenTracing(int optimizationLevel) {
+        Bytecode bytecode = compiler.compileToBytecode("+[>+]", optimizationLevel);
+        assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> new BrainfuckVirtualMachine(bytecode, null, null, CompilationMode.TRACES).execute()
+        );
+    }
+
+    public static Stream<Arguments> superinstructionCases() {
+        return Stream.of(
+                Arguments.of(Utils.getScriptFromResources("hello_world.bf"), 0),
+                Arguments.of(Utils.getScriptFromResources("hello_world.bf"), 3),
+                Arguments.of(Utils.getScriptFromResources("signed_hello_world.bf"), 0),
+                Arguments.of(Utils.getScriptFromResources("signed_hello_world.bf"), 3),
+                Arguments.of("++++[>+++[>+>.<<-]>.<<-]>>[>+<-]>.", 0),
+                Arguments.of("++++[>+++[>+>.<<-]>.<<-]>>[>+<-]>.", 1),
+                Arguments.of("++++[>+++[>+>.<<-]>.<<-]>>[>+<-]>.", 3)
+        );
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {1}")
+    @MethodSource("superinstructionCases")
+    public void sameResultsWithSuperinstructions(String program, int optimizationLevel) throws IOException {
+        BrainfuckVirtualMachineCompiler fusingCompiler =
+                new BrainfuckVirtualMachineCompiler(EnumSet.allOf(Superinstruction.class));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        BrainfuckVirtualMachine expectedMachine = new BrainfuckVirtualMachine(
+                compiler.compileToBytecode(program, optimizationLevel), null, expected
+        );
+        expectedMachine.execute();
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        BrainfuckVirtualMachine machine = new BrainfuckVirtualMachine(
+                fusingCompiler.compileToBytecode(program, optimizationLevel), null, actual
+        );
+        machine.execute();
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        assertEquals(expectedMachine.getState().getProgramCounter(), machine.getState().getProgramCounter());
+        assertEquals(expectedMachine.getState().getDataPointer(), machine.getState().getDataPointer());
+        assertArrayEquals(expectedMachine.getState().getMemory(), machine.getState().getMemory());
+        // Each instruction of a superinstruction is counted.
+        assertEquals(
+                expectedMachine.getMetrics().getInstructionsExecuted(),
+                machine.getMetrics().getInstructionsExecuted()
+        );
+        assertEquals(
+                expectedMachine.getMetrics().getProgramCounterChanges(),
+                machine.getMetrics().getProgramCounterChanges()
+        );
+    }
+
+    @ParameterizedTest(name = "program = {0}, optimizationLevel = {1}")
+    @MethodSource("memoryOutOfRangeCases")
+    public void whenMemoryOutOfRangeWithSuperinstructionsThenExceptionThrown(String program, int optimizationLevel) {
+        Bytecode bytecode = new BrainfuckVirtualMachineCompiler(EnumSet.allOf(Superinstruction.class))
+                .compileToBytecode(program, optimizationLevel);
+        assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> new BrainfuckVirtualMachine(bytecode, null, new ByteArrayOutputStream()).execute()
+        );
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {1}")
+    @MethodSource("outputBeforeMemoryOutOfRangeCases")
+    public void whenMemoryOutOfRangeThenOutputBeforeUnchanged(String program, int optimizationLevel) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        Bytecode bytecode = compiler.compileToBytecode(program, optimizationLevel);
+        Bytecode unoptimized = compiler.compileToBytecode(program, 1);
+
+        assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> new BrainfuckVirtualMachine(unoptimized, new ByteArrayInputStream(new byte[] {0}), expected).execute()
+        );
+        assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> new BrainfuckVirtualMachine(bytecode, new ByteArrayInputStream(new byte[] {0}), baos).execute()
+        );
+        assertArrayEquals(expected.toByteArray(), baos.toByteArray());
+    }
+
+    private static Stream<Arguments> outputBeforeMemoryOutOfRangeCases() {
+        String[] programs = {
+                "++[>+<-]>." + repeat('>', 30005) + ".",
+                "+." + repeat('>', 30005) + "+.",
+                "+." + repeat('<', 5) + "+.",
+                ",[>]" + repeat('>', 30005) + "[-]."
+        };
+        return Stream.of(programs).flatMap(program ->
+                Stream.of(3, 4).map(optimizationLevel -> Arguments.of(program, optimizationLevel))
+        );
+    }
+
+    @Test
+    public void printHelloWorldSignedBytesChecked() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Bytecode bytecode = compiler.compileToCheckedBytecode(Utils.getScriptFromResources("signed_hello_world.bf"));
+        new BrainfuckVirtualMachine(bytecode, null, baos).execute();
+
+        assertEquals("Hello World!\n", baos.toString());
+    }
+
+    @ParameterizedTest(name = "program = {0}")
+    @MethodSource("cellOverflowCases")
+    public void whenCheckedCellOverflowsThenExceptionThrown(String program, byte expectedValue) {
+        Bytecode bytecode = compiler.compileToCheckedBytecode(program);
+        BrainfuckVirtualMachine machine = new BrainfuckVirtualMachine(bytecode, null, null);
+
+        assertThrows(MemoryCellOverflowException.class, machine::execute);
+        // The memory cell is left at the end of the range, as when changed one at a time.
+        assertEquals(expectedValue, machine.getState().getMemory()[0]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"<>", "<>+", ">><<<>"})
+    public void whenCheckedMovesOutOfRangeAndBackThenExceptionThrown(String program) {
+        Bytecode bytecode = compiler.compileToCheckedBytecode(program);
+        BrainfuckVirtualMachine machine = new BrainfuckVirtualMachine(bytecode, null, null);
+
+        assertThrows(MemoryRangeOutOfBoundsException.class, machine::execute);
+    }
+
+    private static Stream<Arguments> cellOverflowCases() {
+        return Stream.of(
+                Arguments.of(repeat('+', 128), Byte.MAX_VALUE),
+                Arguments.of("-" + repeat('+', 129), Byte.MAX_VALUE),
+                Arguments.of(repeat('+', 10) + repeat('-', 139), Byte.MIN_VALUE),
+                Arguments.of("+[+]", Byte.MAX_VALUE),
+                Arguments.of("-[-]", Byte.MIN_VALUE)
+        );
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
     }
 }
@@ -0,0 +1,160 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm;
+
+import net.coobird.labs.brainfuccuccino.Utils;
+import net.coobird.labs.brainfuccuccino.machine.debug.Breakpoint;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DebuggableBrainfuckVirtualMachineTest {
+    static Stream<Arguments> optimizationLevels() {
+        return Stream.of(
+                Arguments.of(0),
+                Arguments.of(1),
+                Arguments.of(2),
+                Arguments.of(3),
+                Arguments.of(4)
+        );
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void printHelloWorld(int optimizationLevel) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] program = Utils.getScriptFromResources("hello_world.bf").getBytes(StandardCharsets.US_ASCII);
+        DebuggableBrainfuckVirtualMachine machine = new DebuggableBrainfuckVirtualMachine(optimizationLevel);
+
+        machine.evaluate(program, null, baos);
+
+        assertEquals("Hello World!\n", baos.toString());
+        assertTrue(machine.isComplete());
+        assertFalse(machine.isInterrupted());
+        assertEquals(program.length, machine.getState().getProgramCounter());
+    }
+
+    static Stream<Arguments> programsCompiledToNoInstructions() {
+        return Stream.of(
+                Arguments.of("+-"),
+                Arguments.of("[>]"),
+                Arguments.of("-[-]"),
+                Arguments.of("[-][[->+<].]")
+        );
+    }
+
+    @ParameterizedTest(name = "program = {0}")
+    @MethodSource("programsCompiledToNoInstructions")
+    public void programsCompiledToNoInstructionsExecuted(String program) throws IOException {
+        byte[] bytes = program.getBytes(StandardCharsets.US_ASCII);
+        DebuggableBrainfuckVirtualMachine machine = new DebuggableBrainfuckVirtualMachine();
+
+        machine.load(bytes, null, null);
+        assertFalse(machine.isComplete());
+        assertEquals(0, machine.getState().getProgramCounter());
+
+        machine.execute();
+        assertTrue(machine.isComplete());
+        assertFalse(machine.isInterrupted());
+        assertEquals(bytes.length, machine.getState().getProgramCounter());
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void deoptimizedWhenBreakpointAddedDuringExecution(int optimizationLevel) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DebuggableBrainfuckVirtualMachine machine = new DebuggableBrainfuckVirtualMachine(optimizationLevel);
+        // Adds a breakpoint on the output in the loop when the input is read.
+        InputStream is = new InputStream() {
+            @Override
+            public int read() {
+                machine.addBreakpoint(new Breakpoint(13, true));
+                return 3;
+            }
+        };
+
+        machine.load("+++[>+<-],[>+.<-]>.".getBytes(StandardCharsets.US_ASCII), is, baos);
+        machine.execute();
+
+        assertTrue(machine.isInterrupted());
+        assertFalse(machine.isComplete());
+        MachineState<Byte> state = machine.getState();
+        assertEquals(13, state.getProgramCounter());
+        assertEquals(1, state.getDataPointer());
+        assertEquals((byte) 3, (byte) state.getMemory()[0]);
+        assertEquals((byte) 4, (byte) state.getMemory()[1]);
+        assertEquals(0, baos.size());
+
+        machine.execute();
+        assertTrue(machine.isInterrupted());
+        assertArrayEquals(new byte[] {4}, baos.toByteArray());
+
+        machine.removeBreakpoint(new Breakpoint(13, true));
+        machine.execute();
+        assertTrue(machine.isComplete());
+        assertArrayEquals(new byte[] {4, 5, 6, 6}, baos.toByteArray());
+    }
+
+    @Test
+    public void deoptimizedWhenBreakpointAddedFromAnotherThread() throws Exception {
+        DebuggableBrainfuckVirtualMachine machine = new DebuggableBrainfuckVirtualMachine();
+        // Never terminates unless interrupted.
+        machine.load("+[>+<]".getBytes(StandardCharsets.US_ASCII), null, null);
+
+        Thread thread = new Thread(() -> {
+            try {
+                machine.execute();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        Thread.sleep(100);
+        machine.addBreakpoint(new Breakpoint(3, true));
+        thread.join(10000);
+
+        assertFalse(thread.isAlive());
+        assertTrue(machine.isInterrupted());
+        assertEquals(3, machine.getState().getProgramCounter());
+        assertEquals(1, machine.getState().getDataPointer());
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm;
+
+import net.coobird.labs.brainfuccuccino.Utils;
+import net.coobird.labs.brainfuccuccino.machine.CellEncoding;
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+import net.coobird.labs.brainfuccuccino.machine.impl.CircularBrainfuckMachine;
+import net.coobird.labs.brainfuccuccino.machine.impl.WrappingBrainfuckMachine;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
+import net.coobird.labs.brainfuccuccino.machine.tape.IntTape;
+import net.coobird.labs.brainfuccuccino.machine.tape.MappedByteTape;
+import net.coobird.labs.brainfuccuccino.machine.tape.ShortTape;
+import net.coobird.labs.brainfuccuccino.machine.tape.Tape;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WideBrainfuckVirtualMachineTest {
+    private final BrainfuckVirtualMachineCompiler compiler = new BrainfuckVirtualMachineCompiler();
+
+    static Stream<Arguments> optimizationLevels() {
+        return Stream.of(
+                Arguments.of(0),
+                Arguments.of(1),
+                Arguments.of(2),
+                Arguments.of(3)
+        );
+    }
+
+    public static Stream<Arguments> sameResultsCases() {
+        // Counts to 4096, then multiplies it by 3 into the next cell.
+        final String counting = "++++++++++++++++[>++++++++++++++++[>++++++++++++++++<-]<-]>>[<<+>>-]<<[->+++<]>";
+        // Counts up until the cell wraps around to zero, which takes too long for 32-bit cells.
+        final String countingUp = counting + "[+>+<]>";
+        final Supplier<Tape<?>> shortTape = () -> new ShortTape(100);
+        final Supplier<Tape<?>> intTape = () -> new IntTape(100);
+        final Supplier<Tape<?>> mappedTape = () -> new MappedByteTape(100);
+        return Stream.of(
+                Arguments.of(countingUp, shortTape, 0),
+                Arguments.of(countingUp, shortTape, 3),
+                Arguments.of(counting, intTape, 0),
+                Arguments.of(counting, intTape, 3),
+                Arguments.of(Utils.getScriptFromResources("hello_world.bf"), shortTape, 3),
+                Arguments.of(Utils.getScriptFromResources("signed_hello_world.bf"), intTape, 3),
+                Arguments.of(">>>>>+<<-[>+++<-]>[>+>>+<<<[-]]>>[<]", shortTape, 3),
+                Arguments.of(Utils.getScriptFromResources("hello_world.bf"), mappedTape, 0),
+                Arguments.of(Utils.getScriptFromResources("hello_world.bf"), mappedTape, 3)
+        );
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {2}")
+    @MethodSource("sameResultsCases")
+    public <T> void sameResultsAsInterpreter(String program, Supplier<Tape<T>> tapes, int optimizationLevel) throws IOException {
+        ByteArrayOutputStream interpreted = new ByteArrayOutputStream();
+        WrappingBrainfuckMachine<T> interpreter = new WrappingBrainfuckMachine<>(tapes.get(), CellEncoding.BYTES);
+        interpreter.evaluate(program.getBytes(StandardCharsets.US_ASCII), null, interpreted);
+
+        ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+        Bytecode bytecode = compiler.compileToBytecode(program, optimizationLevel);
+        WideBrainfuckVirtualMachine<T> machine = new WideBrainfuckVirtualMachine<>(
+                bytecode, tapes.get(), CellEncoding.BYTES, null, compiled
+        );
+        machine.execute();
+
+        assertArrayEquals(interpreted.toByteArray(), compiled.toByteArray());
+        MachineState<T> expected = interpreter.getState();
+        MachineState<T> actual = machine.getState();
+        assertEquals(expected.getDataPointer(), actual.getDataPointer());
+        assertArrayEquals(expected.getMemory(), actual.getMemory());
+    }
+
+    public static Stream<Arguments> circularCases() {
+        return Stream.of(
+                Arguments.of("<+<++", 0),
+                Arguments.of("<+<++", 3),
+                Arguments.of("+>+>+>+>+>+>+>+>+[-<+>]", 3),
+                Arguments.of("+[<+]", 0),
+                Arguments.of("+[<+]", 3),
+                Arguments.of(">+++[<<<<<+++>>>>>-]<<<<<[>>>]", 3),
+                Arguments.of(Utils.getScriptFromResources("hello_world.bf"), 3)
+        );
+    }
+
+    @ParameterizedTest(name = "program = {0}, optimizationLevel = {1}")
+    @MethodSource("circularCases")
+    public void sameResultsAsInterpreterWhenCircular(String program, int optimizationLevel) throws IOException {
+        ByteArrayOutputStream interpreted = new ByteArrayOutputStream();
+        CircularBrainfuckMachine<Short> interpreter = new CircularBrainfuckMachine<>(new ShortTape(8), CellEncoding.BYTES);
+        interpreter.evaluate(program.getBytes(StandardCharsets.US_ASCII), null, interpreted);
+
+        ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+        Bytecode bytecode = compiler.compileToBytecode(program, optimizationLevel);
+        WideBrainfuckVirtualMachine<Short> machine = new WideBrainfuckVirtualMachine<>(
+                bytecode, new ShortTape(8), CellEncoding.BYTES, null, compiled, true
+        );
+        machine.execute();
+
+        assertArrayEquals(interpreted.toByteArray(), compiled.toByteArray());
+        assertEquals(interpreter.getState().getDataPointer(), machine.getState().getDataPointer());
+        assertArrayEquals(interpreter.getState().getMemory(), machine.getState().getMemory());
+    }
+
+    @Test
+    public void whenCircularSizeNotPowerOfTwoThenExceptionThrown() {
+        Bytecode bytecode = compiler.compileToBytecode("+", 0);
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new WideBrainfuckVirtualMachine<>(bytecode, new ShortTape(100), CellEncoding.BYTES, null, null, true)
+        );
+    }
+
+    public static Stream<Arguments> byteCellPrograms() {
+        BrainfuckVirtualMachineCompiler compiler = new BrainfuckVirtualMachineCompiler();
+        return Stream.of(
+                Arguments.of(compiler.compileToBytecode("++++++++[>++++++++<-]>+.", 4)),
+                Arguments.of(compiler.compileToCheckedBytecode(",+."))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("byteCellPrograms")
+    public void whenProgramOnlyHoldsForByteCellsThenExceptionThrown(Bytecode bytecode) {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new WideBrainfuckVirtualMachine<>(bytecode, new ShortTape(100), CellEncoding.BYTES, null, null)
+        );
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void catInputAsCodePoints(int optimizationLevel) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Bytecode bytecode = compiler.compileToBytecode(Utils.getScriptFromResources("cat.bf"), optimizationLevel);
+
+        new WideBrainfuckVirtualMachine<>(
+                bytecode,
+                new ShortTape(100),
+                CellEncoding.UTF_8,
+                new ByteArrayInputStream("こんにちは世界！".getBytes(StandardCharsets.UTF_8)),
+                os
+        ).execute();
+
+        assertEquals("こんにちは世界！", new String(os.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    public static Stream<Arguments> memoryOutOfRangeCases() {
+        final String moveRightOutOfRange = String.join("", Collections.nCopies(100, ">"));
+        return Stream.of(
+                Arguments.of("<", 0),
+                Arguments.of("<", 3),
+                Arguments.of("<+>", 3),
+                Arguments.of(moveRightOutOfRange, 0),
+                Arguments.of(moveRightOutOfRange, 3),
+                Arguments.of("+[>+]", 3),
+                Arguments.of("+[<<+>>-]", 3)
+        );
+    }
+
+    @ParameterizedTest(name = "program = {0}, optimizationLevel = {1}")
+    @MethodSource("memoryOutOfRangeCases")
+    public void whenMemoryOutOfRangeThenExceptionThrown(String program, int optimizationLevel) {
+        Bytecode bytecode = compiler.compileToBytecode(program, optimizationLevel);
+        assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> new WideBrainfuckVirtualMachine<>(bytecode, new IntTape(100), CellEncoding.BYTES, null, null).execute()
+        );
+    }
+
+    @ParameterizedTest(name = "program = {0}")
+    @ValueSource(strings = {"<", "<+>", "+[<<+>>-]"})
+    public void whenMemoryOutOfRangeOfMappedTapeThenExceptionThrown(String program) {
+        Bytecode bytecode = compiler.compileToBytecode(program, 3);
+        assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> new WideBrainfuckVirtualMachine<>(bytecode, new MappedByteTape(100), CellEncoding.BYTES, null, null).execute()
+        );
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.closure;
+
+import net.coobird.labs.brainfuccuccino.Utils;
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
+import net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachine;
+import net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachineCompiler;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClosureBrainfuckMachineTest {
+    private final BrainfuckVirtualMachineCompiler compiler = new BrainfuckVirtualMachineCompiler();
+
+    static Stream<Arguments> optimizationLevels() {
+        return Stream.of(
+                Arguments.of(0),
+                Arguments.of(1),
+                Arguments.of(2),
+                Arguments.of(3),
+                Arguments.of(4)
+        );
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void printHelloWorld(int optimizationLevel) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Bytecode bytecode = compiler.compileToBytecode(Utils.getScriptFromResources("hello_world.bf"), optimizationLevel);
+
+        new ClosureBrainfuckMachine(bytecode, null, baos).execute();
+
+        assertEquals("Hello World!\n", baos.toString());
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void catInputUtf8(int optimizationLevel) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Bytecode bytecode = compiler.compileToBytecode(Utils.getScriptFromResources("cat.bf"), optimizationLevel);
+
+        new ClosureBrainfuckMachine(
+                bytecode,
+                new ByteArrayInputStream("こんにちは世界！".getBytes(StandardCharsets.UTF_8)),
+                baos
+        ).execute();
+
+        assertEquals("こんにちは世界！", baos.toString());
+    }
+
+    public static Stream<Arguments> memoryOutOfRangeCases() {
+        final String moveRightOutOfRange = String.join("", Collections.nCopies(30000, ">"));
+        return Stream.of(
+                Arguments.of("<", 0),
+                Arguments.of("<", 3),
+                Arguments.of(moveRightOutOfRange, 0),
+                Arguments.of(moveRightOutOfRange, 3),
+                Arguments.of("<+>", 3),
+                Arguments.of(moveRightOutOfRange + ".<", 3),
+                Arguments.of("+[-<+>]", 3),
+                Arguments.of(String.join("", Collections.nCopies(20, "+>")) + "<[<]", 3),
+                Arguments.of("+>+<<+>", 0),
+                Arguments.of(moveRightOutOfRange.substring(1) + "+[->+<]", 3)
+        );
+    }
+
+    @ParameterizedTest(name = "program = {0}, optimizationLevel = {1}")
+    @MethodSource("memoryOutOfRangeCases")
+    public void whenMemoryOutOfRangeThenExceptionThrown(String program, int optimizationLevel) {
+        Bytecode bytecode = compiler.compileToBytecode(program, optimizationLevel);
+        assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> new ClosureBrainfuckMachine(bytecode, null, new ByteArrayOutputStream()).execute()
+        );
+    }
+
+    @Test
+    public void introspectionTest() throws IOException {
+        Bytecode bytecode = compiler.compileToBytecode("+>++>+++", 3);
+
+        ClosureBrainfuckMachine machine = new ClosureBrainfuckMachine(bytecode, null, null);
+        machine.execute();
+
+        MachineState<Byte> state = machine.getState();
+        assertEquals(bytecode.size(), state.getProgramCounter());
+        assertEquals(2, state.getDataPointer());
+        assertArrayEquals(
+                new Byte[] {1, 2, 3},
+                Arrays.stream(state.getMemory()).limit(3).toArray()
+        );
+    }
+
+    public static Stream<Arguments> programs() {
+        return Stream.of(
+                Arguments.of("++++++++[>++++[>++>+++>+++>+<<<<-]>+>+>->>+[<]<-]>>.>---.", 0),
+                Arguments.of("++++++++[>++++[>++>+++>+++>+<<<<-]>+>+>->>+[<]<-]>>.>---.", 3),
+                Arguments.of("+++++[>+++++[>++<-]>[->+>+<<]<<-]>>>.>.", 0),
+                Arguments.of("+++++[>+++++[>++<-]>[->+>+<<]<<-]>>>.>.", 3),
+                Arguments.of(">>+>+>+>+<<<<[>]<[[-]<]>>>.", 3),
+                Arguments.of("-[>-[>-[>+>+<<-]>[-<+>]<<-]>.<<-]>>>.", 3),
+                Arguments.of("-[>-[>-[>+>[-]+<[->+<]<-]<-]<-]>>>.>.", 3),
+                // Multiplies by the last memory cell, which is zero, into a cell outside of memory.
+                Arguments.of(String.join("", Collections.nCopies(29999, ">")) + "[->+<]+.", 3)
+        );
+    }
+
+    @ParameterizedTest(name = "program = {0}, optimizationLevel = {1}")
+    @MethodSource("programs")
+    public void sameResultsAsVirtualMachine(String program, int optimizationLevel) throws IOException {
+        Bytecode bytecode = compiler.compileToBytecode(program, optimizationLevel);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        BrainfuckVirtualMachine virtualMachine = new BrainfuckVirtualMachine(bytecode, null, expected);
+        virtualMachine.execute();
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        ClosureBrainfuckMachine machine = new ClosureBrainfuckMachine(bytecode, null, actual);
+        machine.execute();
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        assertEquals(virtualMachine.getState().getDataPointer(), machine.getState().getDataPointer());
+        assertArrayEquals(virtualMachine.getState().getMemory(), machine.getState().getMemory());
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.compiler;
+
+import net.coobird.labs.brainfuccuccino.Utils;
+import net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachineCompiler;
+import net.coobird.labs.brainfuccuccino.vm.model.Instruction;
+import net.coobird.labs.brainfuccuccino.vm.model.Opcode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OptimizationPipelineTest {
+    private BrainfuckVirtualMachineCompiler compiler;
+
+    @BeforeEach
+    void setup() {
+        compiler = new BrainfuckVirtualMachineCompiler();
+    }
+
+    private static List<String> passNames(OptimizationPipeline pipeline) {
+        return pipeline.getPasses().stream().map(Pass::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    public void passesForOptimizationLevels() {
+        assertEquals(
+                Arrays.asList("ClearLoopPass", "SetFoldingPass"),
+                passNames(OptimizationPipeline.forOptimizationLevel(1))
+        );
+        assertEquals(
+                Arrays.asList("ScanLoopPass", "MultiplyLoopPass", "ClearLoopPass", "SetFoldingPass"),
+                passNames(OptimizationPipeline.forOptimizationLevel(2))
+        );
+        assertEquals(
+                Arrays.asList("ScanLoopPass", "MultiplyLoopPass", "ClearLoopPass", "SetFoldingPass", "OffsetFoldingPass"),
+                passNames(OptimizationPipeline.forOptimizationLevel(3))
+        );
+        assertEquals(
+                Arrays.asList("ScanLoopPass", "MultiplyLoopPass", "ClearLoopPass", "SetFoldingPass", "OffsetFoldingPass", "ConstantOutputPass"),
+                passNames(OptimizationPipeline.forOptimizationLevel(4))
+        );
+        assertEquals(
+                passNames(OptimizationPipeline.forOptimizationLevel(OptimizationPipeline.MAX_OPTIMIZATION_LEVEL)),
+                passNames(OptimizationPipeline.forOptimizationLevel(OptimizationPipeline.MAX_OPTIMIZATION_LEVEL + 1))
+        );
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @ValueSource(ints = {0, -1})
+    public void nonPositiveLevelsRejected(int optimizationLevel) {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> OptimizationPipeline.forOptimizationLevel(optimizationLevel)
+        );
+    }
+
+    @Test
+    public void levelOneKeepsMultiplyLoops() {
+        List<Instruction> instructions = compiler.compile("[->+<]>[-]", 1);
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.JMZ, 5),
+                        new Instruction(Opcode.ADD, -1),
+                        new Instruction(Opcode.MOVE, 1),
+                        new Instruction(Opcode.ADD, 1),
+                        new Instruction(Opcode.MOVE, -1),
+                        new Instruction(Opcode.JMN, 0),
+                        new Instruction(Opcode.MOVE, 1),
+                        new Instruction(Opcode.SET, 0)
+                ), instructions
+        );
+    }
+
+    @Test
+    public void innerLoopsReplaced() {
+        List<Instruction> instructions = compiler.compile("[[-]>[>]<-]", 2);
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.JMZ, 6),
+                        new Instruction(Opcode.SET, 0),
+                        new Instruction(Opcode.MOVE, 1),
+                        new Instruction(Opcode.SCAN, 1),
+                        new Instruction(Opcode.MOVE, -1),
+                        new Instruction(Opcode.ADD, -1),
+                        new Instruction(Opcode.JMN, 0)
+                ), instructions
+        );
+    }
+
+    @Test
+    public void statisticsReportedForEachPass() {
+        compiler.compileToBytecode("+++[->++<]>[>]<[-]", 3);
+
+        List<PassStatistics> statistics = compiler.getStatistics();
+        assertEquals(
+                passNames(OptimizationPipeline.forOptimizationLevel(3)),
+                statistics.stream().map(PassStatistics::getName).collect(Collectors.toList())
+        );
+        // ADD 3, [ADD -1, MOVE 1, ADD 2, MOVE -1], MOVE 1, [MOVE 1], MOVE -1, [ADD -1]
+        assertEquals(15, statistics.get(0).getInstructionsBefore());
+        for (int i = 1; i < statistics.size(); i++) {
+            assertEquals(statistics.get(i - 1).getInstructionsAfter(), statistics.get(i).getInstructionsBefore());
+        }
+        assertEquals(2, statistics.get(0).getInstructionsEliminated());
+        // Clear loops are also replaced as multiply loops which multiply into no other cells.
+        assertEquals(6, statistics.get(1).getInstructionsEliminated());
+        assertEquals(0, statistics.get(2).getInstructionsEliminated());
+        for (PassStatistics passStatistics : statistics) {
+            assertTrue(passStatistics.getCompileTimeNanos() >= 0);
+        }
+    }
+
+    @Test
+    public void noStatisticsWithoutOptimization() {
+        compiler.compileToBytecode("+++[->++<]", 3);
+        compiler.compileToBytecode("+++[->++<]", 0);
+
+        assertTrue(compiler.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void customPipeline() {
+        OptimizationPipeline pipeline = new OptimizationPipeline(new OffsetFoldingPass());
+        List<Instruction> instructions = compiler
+                .compileToBytecode(">+<[-]", pipeline)
+                .toInstructions();
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.ADD, 1, 1),
+                        new Instruction(Opcode.JMZ, 3),
+                        new Instruction(Opcode.ADD, -1, 0),
+                        new Instruction(Opcode.JMN, 1)
+                ), instructions
+        );
+    }
+
+    @Test
+    public void higherLevelsEmitNoMoreInstructions() {
+        String program = Utils.getScriptFromResources("hello_world.bf");
+        int previousSize = Integer.MAX_VALUE;
+        for (int level = 1; level <= OptimizationPipeline.MAX_OPTIMIZATION_LEVEL; level++) {
+            int size = compiler.compileToBytecode(program, level).size();
+            assertTrue(size <= previousSize);
+            previousSize = size;
+        }
+    }
+
+    @Test
+    public void constantOutputWrittenAtOnce() {
+        List<Instruction> instructions = compiler.compile("++++++++[>++++++++<-]>+.+.>++.", 4);
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.WRITE_CONST, "AB\u0002".getBytes(StandardCharsets.US_ASCII)),
+                        // The memory cells are left as the program leaves them.
+                        new Instruction(Opcode.SET, 66, 1),
+                        new Instruction(Opcode.SET, 2, 2),
+                        new Instruction(Opcode.MOVE, 2)
+                ), instructions
+        );
+    }
+
+    @Test
+    public void constantOutputWrittenBeforeInput() {
+        List<Instruction> instructions = compiler.compile("+++++.+.,.+.+.", 4);
+
+        assertEquals(
+                Arrays.asList(
+                        new Instruction(Opcode.WRITE_CONST, new byte[] {5, 6}),
+                        new Instruction(Opcode.SET, 6),
+                        new Instruction(Opcode.READ),
+                        new Instruction(Opcode.WRITE),
+                        new Instruction(Opcode.ADD, 1),
+                        new Instruction(Opcode.WRITE),
+                        new Instruction(Opcode.ADD, 1),
+                        new Instruction(Opcode.WRITE)
+                ), instructions
+        );
+    }
+
+    @Test
+    public void loopsOfUnknownValuesKept() {
+        List<Instruction> instructions = compiler.compile(",[>++++<-]>.", 4);
+
+        assertEquals(compiler.compile(",[>++++<-]>.", 3), instructions);
+    }
+
+    @Test
+    public void loopsWhichDoNotFinishKept() {
+        List<Instruction> instructions = compiler.compile("+[>+<]", 4);
+
+        assertEquals(compiler.compile("+[>+<]", 3), instructions);
+    }
+}
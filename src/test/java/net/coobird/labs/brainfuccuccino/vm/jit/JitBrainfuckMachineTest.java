@@ -0,0 +1,250 @@
+/*
+ * Brainfuccuccino - a brainfuck scripting engine for Java.
+ *
+ * The MIT License
+ *
+ * Copyright (c) 2021-2025 Chris Kroells
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package net.coobird.labs.brainfuccuccino.vm.jit;
+
+import net.coobird.labs.brainfuccuccino.Utils;
+import net.coobird.labs.brainfuccuccino.machine.MemoryRangeOutOfBoundsException;
+import net.coobird.labs.brainfuccuccino.machine.state.MachineState;
+import net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachine;
+import net.coobird.labs.brainfuccuccino.vm.BrainfuckVirtualMachineCompiler;
+import net.coobird.labs.brainfuccuccino.vm.model.Bytecode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JitBrainfuckMachineTest {
+    private final BrainfuckVirtualMachineCompiler compiler = new BrainfuckVirtualMachineCompiler();
+
+    static Stream<Arguments> optimizationLevels() {
+        return Stream.of(
+                Arguments.of(0),
+                Arguments.of(1),
+                Arguments.of(2),
+                Arguments.of(3),
+                Arguments.of(4)
+        );
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void printHelloWorld(int optimizationLevel) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Bytecode bytecode = compiler.compileToBytecode(Utils.getScriptFromResources("hello_world.bf"), optimizationLevel);
+
+        new JitBrainfuckMachine(bytecode, null, baos).execute();
+
+        assertEquals("Hello World!\n", baos.toString());
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {0}")
+    @MethodSource("optimizationLevels")
+    public void catInputUtf8(int optimizationLevel) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Bytecode bytecode = compiler.compileToBytecode(Utils.getScriptFromResources("cat.bf"), optimizationLevel);
+
+        new JitBrainfuckMachine(
+                bytecode,
+                new ByteArrayInputStream("こんにちは世界！".getBytes(StandardCharsets.UTF_8)),
+                baos
+        ).execute();
+
+        assertEquals("こんにちは世界！", baos.toString());
+    }
+
+    public static Stream<Arguments> memoryOutOfRangeCases() {
+        final String moveRightOutOfRange = String.join("", Collections.nCopies(30000, ">"));
+        return Stream.of(
+                Arguments.of("<", 0),
+                Arguments.of("<", 3),
+                Arguments.of(moveRightOutOfRange, 0),
+                Arguments.of(moveRightOutOfRange, 3),
+                Arguments.of("<+>", 3),
+                Arguments.of(moveRightOutOfRange + ".<", 3),
+                Arguments.of("+[-<+>]", 3),
+                Arguments.of(String.join("", Collections.nCopies(20, "+>")) + "<[<]", 3),
+                // Balanced loops which reach outside of memory from where they start.
+                Arguments.of("+[-<+>]", 0),
+                Arguments.of("+[>+<[<+>-]]", 0),
+                Arguments.of(moveRightOutOfRange.substring(1) + "+[->+<]", 0)
+        );
+    }
+
+    @ParameterizedTest(name = "program = {0}, optimizationLevel = {1}")
+    @MethodSource("memoryOutOfRangeCases")
+    public void whenMemoryOutOfRangeThenExceptionThrown(String program, int optimizationLevel) {
+        Bytecode bytecode = compiler.compileToBytecode(program, optimizationLevel);
+        assertThrows(
+                MemoryRangeOutOfBoundsException.class,
+                () -> new JitBrainfuckMachine(bytecode, null, new ByteArrayOutputStream()).execute()
+        );
+    }
+
+    public static Stream<Arguments> balancedLoopCases() {
+        final String moveToLastCell = String.join("", Collections.nCopies(29999, ">"));
+        return Stream.of(
+                // Within memory, so the loop runs without checks.
+                Arguments.of(">+++[.<+>-]<", 0),
+                Arguments.of(moveToLastCell + "<+++[.>+<-]>", 0),
+                Arguments.of("+++[>++[>+<-]<-]>>.", 0),
+                // Outside of memory after writing output, so the loop runs with checks.
+                Arguments.of("+++[.<+>-]", 0),
+                Arguments.of(moveToLastCell + "+++[.>+<-]", 0),
+                Arguments.of("+++[>++[.<<+>>-]<-]", 0)
+        );
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {1}")
+    @MethodSource("balancedLoopCases")
+    public void balancedLoopsSameAsInterpreter(String program, int optimizationLevel) throws IOException {
+        Bytecode bytecode = compiler.compileToBytecode(program, optimizationLevel);
+
+        ByteArrayOutputStream interpreted = new ByteArrayOutputStream();
+        String interpretedException = null;
+        try {
+            new BrainfuckVirtualMachine(bytecode, null, interpreted).execute();
+        } catch (MemoryRangeOutOfBoundsException e) {
+            interpretedException = e.getMessage();
+        }
+
+        ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+        String compiledException = null;
+        try {
+            new JitBrainfuckMachine(bytecode, null, compiled).execute();
+        } catch (MemoryRangeOutOfBoundsException e) {
+            compiledException = e.getMessage();
+        }
+
+        assertEquals(interpretedException, compiledException);
+        assertArrayEquals(interpreted.toByteArray(), compiled.toByteArray());
+    }
+
+    @Test
+    public void introspectionTest() throws IOException {
+        Bytecode bytecode = compiler.compileToBytecode("+>++>+++", 3);
+
+        JitBrainfuckMachine machine = new JitBrainfuckMachine(bytecode, null, null);
+        machine.execute();
+
+        MachineState<Byte> state = machine.getState();
+        assertEquals(bytecode.size(), state.getProgramCounter());
+        assertEquals(2, state.getDataPointer());
+        assertArrayEquals(
+                new Byte[] {1, 2, 3},
+                Arrays.stream(state.getMemory()).limit(3).toArray()
+        );
+    }
+
+    @Test
+    public void whenTooManyConstantsThenExceptionThrown() {
+        ClassFile classFile = new ClassFile("Program", "java/lang/Object");
+        assertThrows(UnsupportedOperationException.class, () -> {
+            for (int i = 0; i <= 0xFFFF; i++) {
+                classFile.integer(i);
+            }
+        });
+    }
+
+    @Test
+    public void manyConstantOutputs() throws IOException {
+        // Each output follows input, so that it is computed ahead of time on its own.
+        final int outputs = 40000;
+        StringBuilder program = new StringBuilder();
+        for (int i = 0; i < outputs; i++) {
+            program.append(",[-]");
+            for (int digit = i; digit > 0; digit /= 16) {
+                program.append(String.join("", Collections.nCopies(digit % 16 + 1, "+"))).append('.');
+            }
+        }
+        Bytecode bytecode = compiler.compileToBytecode(program.toString(), 4);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        BrainfuckVirtualMachine virtualMachine = new BrainfuckVirtualMachine(
+                bytecode, new ByteArrayInputStream(new byte[outputs]), expected
+        );
+        virtualMachine.execute();
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        JitBrainfuckMachine machine = new JitBrainfuckMachine(
+                bytecode, new ByteArrayInputStream(new byte[outputs]), actual
+        );
+        machine.execute();
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    public static Stream<Arguments> largePrograms() {
+        // Straight-line code which is too large for a single method.
+        final String straightLine = String.join("", Collections.nCopies(5000, "+>++.<-.")) + ".";
+        // A loop with a body which is too large for a single method.
+        final String largeLoop = "++[" + String.join("", Collections.nCopies(2000, ">+.>++<<.>[-]<")) + "-]";
+        // Many loops, each of which fits in a method.
+        final String manyLoops = String.join("", Collections.nCopies(3000, "+++[>+.<-]>[-<+>]<"));
+        // Deeply nested balanced loops, whose inner loops are outlined from both copies of the outer loop.
+        final String deeplyNested = String.join("", Collections.nCopies(40, ">+.["))
+                + String.join("", Collections.nCopies(40, "-]<"));
+        return Stream.of(
+                Arguments.of(deeplyNested, 0),
+                Arguments.of(deeplyNested, 3),
+                Arguments.of(straightLine, 0),
+                Arguments.of(straightLine, 3),
+                Arguments.of(largeLoop, 0),
+                Arguments.of(largeLoop, 3),
+                Arguments.of(manyLoops, 0),
+                Arguments.of(manyLoops, 3)
+        );
+    }
+
+    @ParameterizedTest(name = "optimizationLevel = {1}")
+    @MethodSource("largePrograms")
+    public void largeProgramsSplitIntoMethods(String program, int optimizationLevel) throws IOException {
+        Bytecode bytecode = compiler.compileToBytecode(program, optimizationLevel);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        BrainfuckVirtualMachine virtualMachine = new BrainfuckVirtualMachine(bytecode, null, expected);
+        virtualMachine.execute();
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        JitBrainfuckMachine machine = new JitBrainfuckMachine(bytecode, null, actual);
+        machine.execute();
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        assertEquals(virtualMachine.getState().getDataPointer(), machine.getState().getDataPointer());
+    }
+}